@@ -0,0 +1,246 @@
+package com.shorecrash.fair;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.security.SecureRandom;
+import java.util.Arrays;
+
+/**
+ * A reverse SHA-256 hash chain stored as sparse checkpoints.
+ * <p>
+ * {@code hash(0)} is a random seed and {@code hash(i + 1) = sha256(hash(i))}; the hash after the last one is the
+ * published commitment ({@link #terminal}). Rounds use the chain backwards, from {@code hash(length - 1)} down to
+ * the seed, so every revealed hash leads to the commitment by hashing it forward and nobody can derive the next
+ * round's hash from the ones already shown. Only every {@value #STRIDE}th hash is kept on disk (32 bytes each);
+ * the rest are recomputed a segment at a time. Besides the checkpoints the file holds the crash distribution the
+ * chain was committed with and the index of the next unused hash.
+ * <p>
+ * Not thread-safe; used from the provably-fair worker thread only.
+ */
+public class HashChain {
+    public static final int STRIDE = 1024;
+    static final int HASH_BYTES = 32;
+
+    private static final int MAGIC = 0x53434843; // SCHC
+    private static final int VERSION = 1;
+    private static final int NEXT_OFFSET = 16;
+    private static final int HEADER_BYTES = 80;
+
+    private final int generation;
+    private final File file;
+    private final FileChannel channel;
+    private final int length;
+    private final double minCrash;
+    private final double variance;
+    private final double maxCrash;
+    private final byte[] terminal;
+    private final ByteBuffer intBuffer = ByteBuffer.allocate(4);
+
+    private HashChain(int generation, File file, FileChannel channel, int length, double minCrash, double variance,
+                      double maxCrash, byte[] terminal) {
+        this.generation = generation;
+        this.file = file;
+        this.channel = channel;
+        this.length = length;
+        this.minCrash = minCrash;
+        this.variance = variance;
+        this.maxCrash = maxCrash;
+        this.terminal = terminal;
+    }
+
+    /**
+     * Builds a new chain from a fresh random seed; written to a temporary file that replaces {@code file} only once
+     * complete. Takes about a second per million hashes.
+     */
+    public static HashChain generate(int generation, File file, int length, double minCrash, double variance,
+                                     double maxCrash) throws IOException {
+        if (length < 1) {
+            throw new IllegalArgumentException("chain length must be positive");
+        }
+        MessageDigest sha = sha256();
+        byte[] hash = new byte[HASH_BYTES];
+        new SecureRandom().nextBytes(hash);
+        File tmp = new File(file.getParentFile(), file.getName() + ".tmp");
+        try (FileChannel out = FileChannel.open(tmp.toPath(), StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            ByteBuffer checkpoints = ByteBuffer.allocate(64 * HASH_BYTES);
+            out.position(HEADER_BYTES);
+            for (int i = 0; i < length; i++) {
+                if (i % STRIDE == 0) {
+                    if (!checkpoints.hasRemaining()) {
+                        writeFully(out, checkpoints.flip());
+                        checkpoints.clear();
+                    }
+                    checkpoints.put(hash);
+                }
+                hash = sha.digest(hash);
+            }
+            writeFully(out, checkpoints.flip());
+            ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES);
+            header.putInt(MAGIC).putInt(VERSION).putInt(length).putInt(STRIDE).putInt(length - 1).putInt(0)
+                    .putDouble(minCrash).putDouble(variance).putDouble(maxCrash).put(hash);
+            out.position(0);
+            writeFully(out, header.flip());
+            out.force(true);
+        }
+        try {
+            Files.move(tmp.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (AtomicMoveNotSupportedException ex) {
+            Files.move(tmp.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING);
+        }
+        return open(generation, file);
+    }
+
+    public static HashChain open(int generation, File file) throws IOException {
+        FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ, StandardOpenOption.WRITE);
+        try {
+            ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES);
+            readFully(channel, header, 0);
+            header.flip();
+            if (header.getInt() != MAGIC || header.getInt() != VERSION) {
+                throw new IOException(file.getName() + " is not a hash chain");
+            }
+            int length = header.getInt();
+            if (header.getInt() != STRIDE || channel.size() < HEADER_BYTES + (long) segments(length) * HASH_BYTES) {
+                throw new IOException(file.getName() + " is truncated or has an unknown layout");
+            }
+            header.position(24);
+            double minCrash = header.getDouble();
+            double variance = header.getDouble();
+            double maxCrash = header.getDouble();
+            byte[] terminal = new byte[HASH_BYTES];
+            header.get(terminal);
+            return new HashChain(generation, file, channel, length, minCrash, variance, maxCrash, terminal);
+        } catch (IOException | RuntimeException ex) {
+            channel.close();
+            throw ex;
+        }
+    }
+
+    public int generation() {
+        return generation;
+    }
+
+    public int length() {
+        return length;
+    }
+
+    public double minCrash() {
+        return minCrash;
+    }
+
+    public double variance() {
+        return variance;
+    }
+
+    public double maxCrash() {
+        return maxCrash;
+    }
+
+    public byte[] terminal() {
+        return terminal.clone();
+    }
+
+    /**
+     * Index of the next unused hash, or -1 once the chain is used up.
+     */
+    public int next() throws IOException {
+        intBuffer.clear();
+        readFully(channel, intBuffer, NEXT_OFFSET);
+        return intBuffer.getInt(0);
+    }
+
+    public void setNext(int index) throws IOException {
+        intBuffer.clear();
+        intBuffer.putInt(0, index);
+        while (intBuffer.hasRemaining()) {
+            channel.write(intBuffer, NEXT_OFFSET + intBuffer.position());
+        }
+    }
+
+    /**
+     * Every hash of segment {@code segment}, i.e. indices {@code segment * STRIDE} up to the next checkpoint.
+     */
+    public byte[][] segment(int segment) throws IOException {
+        int first = segment * STRIDE;
+        int count = Math.min(STRIDE, length - first);
+        byte[][] hashes = new byte[count][];
+        hashes[0] = checkpoint(segment);
+        MessageDigest sha = sha256();
+        for (int i = 1; i < count; i++) {
+            hashes[i] = sha.digest(hashes[i - 1]);
+        }
+        return hashes;
+    }
+
+    public byte[] hash(int index) throws IOException {
+        byte[] hash = checkpoint(index / STRIDE);
+        MessageDigest sha = sha256();
+        for (int i = index % STRIDE; i > 0; i--) {
+            hash = sha.digest(hash);
+        }
+        return hash;
+    }
+
+    /**
+     * True if hashing {@code hash}, claimed to be entry {@code index}, forward to the end of the chain gives the
+     * commitment. Up to {@link #length} hashes, so only for background threads.
+     */
+    public boolean leadsToTerminal(byte[] hash, int index) {
+        MessageDigest sha = sha256();
+        byte[] current = hash;
+        for (int i = index; i < length; i++) {
+            current = sha.digest(current);
+        }
+        return Arrays.equals(current, terminal);
+    }
+
+    public void close() throws IOException {
+        channel.close();
+    }
+
+    @Override
+    public String toString() {
+        return file.getName();
+    }
+
+    static int segments(int length) {
+        return (length + STRIDE - 1) / STRIDE;
+    }
+
+    static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException ex) {
+            throw new IllegalStateException("SHA-256 is not available", ex); // required of every JVM
+        }
+    }
+
+    private byte[] checkpoint(int segment) throws IOException {
+        ByteBuffer buf = ByteBuffer.allocate(HASH_BYTES);
+        readFully(channel, buf, HEADER_BYTES + (long) segment * HASH_BYTES);
+        return buf.array();
+    }
+
+    private static void readFully(FileChannel channel, ByteBuffer buf, long position) throws IOException {
+        while (buf.hasRemaining()) {
+            if (channel.read(buf, position + buf.position()) < 0) {
+                throw new IOException("Unexpected end of hash chain file");
+            }
+        }
+    }
+
+    private static void writeFully(FileChannel channel, ByteBuffer buf) throws IOException {
+        while (buf.hasRemaining()) {
+            channel.write(buf);
+        }
+    }
+}
@@ -0,0 +1,390 @@
+package com.shorecrash.fair;
+
+import com.shorecrash.game.GameClock;
+import com.shorecrash.game.RoundSettings;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+import java.util.HexFormat;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Logger;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Provably-fair crash points for one table, taken from a {@link HashChain} under {@code fair/<table>/}.
+ * <p>
+ * The round's crash point is derived from the next unused hash: its first 52 bits, as a fraction of 2^52, are the
+ * roll fed to {@link GameClock#crashPointFor} with the distribution stored in the chain, so changing the config
+ * only affects the next chain. After the crash the round id, chain position and crash point are appended to
+ * {@code rounds.dat} (24 byte records, round ids ascending), from which {@link #verify} reveals and checks the hash.
+ * <p>
+ * Chain generation, segment loading, file writes and verification run on a worker thread. The game clock thread
+ * only reads hashes from the segment prepared in advance; while none is ready (at first start, or when a chain is
+ * used up and the next one is being generated) {@link #next} returns NaN and the clock holds the round back.
+ */
+public class ProvablyFair implements GameClock.CrashSource {
+    private static final int RECORD_BYTES = 24;
+    private static final Pattern CHAIN_FILE = Pattern.compile("chain-(\\d+)\\.dat");
+    private static final HexFormat HEX = HexFormat.of();
+
+    /**
+     * Result of checking one round. {@code hash} is the revealed hash in hex.
+     */
+    public record Verification(long roundId, String hash, double crashPoint, String commitment, boolean valid) {
+    }
+
+    /**
+     * The chain in use: {@code remaining} hashes are left after the rounds already drawn.
+     */
+    public record Commitment(String hash, int remaining) {
+    }
+
+    private record Segment(HashChain chain, int number, byte[][] hashes) {
+    }
+
+    private record Draw(int generation, int index, double crashPoint) {
+    }
+
+    private final Logger logger;
+    private final File folder;
+    private final RoundSettings settings;
+    private final ExecutorService worker;
+    private final Queue<Draw> drawn = new ConcurrentLinkedQueue<>(); // drawn by the clock, not yet revealed
+
+    // Guarded by this; shared by the clock thread and the worker
+    private HashChain chain;
+    private int cursor = -1;
+    private Segment segment;
+    private Segment prefetched;
+    private boolean preparing;
+
+    // Worker thread only
+    private FileChannel rounds;
+    private HashChain older; // last chain opened for verification
+
+    public ProvablyFair(Logger logger, File folder, RoundSettings settings) {
+        this.logger = logger;
+        this.folder = folder;
+        this.settings = settings;
+        this.worker = Executors.newSingleThreadExecutor(r -> {
+            Thread thread = new Thread(r, "ShoreCrash-ProvablyFair");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Opens the round log and the newest chain, generating one if there is none, on the worker thread.
+     */
+    public void start() {
+        synchronized (this) {
+            preparing = true;
+        }
+        submit(() -> {
+            try {
+                folder.mkdirs();
+                rounds = FileChannel.open(new File(folder, "rounds.dat").toPath(), StandardOpenOption.CREATE,
+                        StandardOpenOption.READ, StandardOpenOption.WRITE);
+                HashChain latest = openLatest();
+                install(latest != null && latest.next() >= 0 ? latest : generate(latest == null ? 0 : latest.generation() + 1));
+            } catch (IOException ex) {
+                logger.warning("Provably fair chain unavailable, rounds are on hold: " + ex.getMessage());
+            }
+        });
+    }
+
+    public void close() {
+        worker.shutdown();
+        try {
+            worker.awaitTermination(10, TimeUnit.SECONDS);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+        try {
+            synchronized (this) {
+                if (chain != null) {
+                    chain.close();
+                }
+            }
+            if (older != null) {
+                older.close();
+            }
+            if (rounds != null) {
+                rounds.close();
+            }
+        } catch (IOException ex) {
+            logger.warning("Failed to close the provably fair files: " + ex.getMessage());
+        }
+    }
+
+    /**
+     * Crash point of the next hash, or NaN while it is not ready. Clock thread; never touches the disk.
+     */
+    @Override
+    public synchronized double next() {
+        if (chain == null || preparing) {
+            return Double.NaN;
+        }
+        if (cursor < 0) {
+            rotate();
+            return Double.NaN;
+        }
+        int number = cursor / HashChain.STRIDE;
+        if (segment == null || segment.number() != number) {
+            if (prefetched == null || prefetched.number() != number) {
+                prefetch(chain, number); // normally prepared long before; only after a failed read
+                return Double.NaN;
+            }
+            segment = prefetched;
+            prefetched = null;
+        }
+        int index = cursor--;
+        byte[] hash = segment.hashes()[index - number * HashChain.STRIDE];
+        double point = crashPoint(chain, hash);
+        drawn.add(new Draw(chain.generation(), index, point));
+        HashChain current = chain;
+        int next = cursor;
+        submit(() -> saveCursor(current, next)); // a hash is never reused, even if the round never finishes
+        if (index == number * HashChain.STRIDE + segment.hashes().length - 1 && number > 0) {
+            prefetch(current, number - 1); // first draw from this segment: prepare the one below
+        }
+        return point;
+    }
+
+    /**
+     * Records the round that just crashed against the hash it was drawn from. Global thread.
+     */
+    public void reveal(long roundId, double crashPoint) {
+        Draw draw = drawn.poll();
+        if (draw == null || Double.compare(draw.crashPoint(), crashPoint) != 0) {
+            logger.warning("Round " + roundId + " did not come from the hash chain; it cannot be verified.");
+            return;
+        }
+        submit(() -> {
+            if (rounds == null) {
+                return; // never opened; already reported
+            }
+            ByteBuffer record = ByteBuffer.allocate(RECORD_BYTES);
+            record.putLong(roundId).putInt(draw.generation()).putInt(draw.index()).putDouble(draw.crashPoint()).flip();
+            try {
+                long end = rounds.size();
+                while (record.hasRemaining()) {
+                    end += rounds.write(record, end);
+                }
+                rounds.force(false);
+            } catch (IOException ex) {
+                logger.warning("Failed to record provably fair round " + roundId + ": " + ex.getMessage());
+            }
+        });
+    }
+
+    /**
+     * The commitment of the chain in use, or null while none is ready.
+     */
+    public synchronized Commitment commitment() {
+        if (chain == null) {
+            return null;
+        }
+        return new Commitment(HEX.formatHex(chain.terminal()), cursor + 1);
+    }
+
+    /**
+     * Reveals and checks the hash of a finished round: it must hash forward to its chain's commitment and give the
+     * recorded crash point. Completes with null if this table has no record of the round.
+     */
+    public CompletableFuture<Verification> verify(long roundId) {
+        try {
+            return CompletableFuture.supplyAsync(() -> {
+                try {
+                    return check(roundId);
+                } catch (IOException ex) {
+                    logger.warning("Failed to verify round " + roundId + ": " + ex.getMessage());
+                    return null;
+                }
+            }, worker);
+        } catch (RejectedExecutionException ex) {
+            return CompletableFuture.completedFuture(null);
+        }
+    }
+
+    private Verification check(long roundId) throws IOException {
+        ByteBuffer record = find(roundId);
+        if (record == null) {
+            return null;
+        }
+        int generation = record.getInt(8);
+        int index = record.getInt(12);
+        double recorded = record.getDouble(16);
+        HashChain source = chainFor(generation);
+        if (source == null || index < 0 || index >= source.length()) {
+            return new Verification(roundId, "", recorded, "", false);
+        }
+        byte[] hash = source.hash(index);
+        boolean valid = source.leadsToTerminal(hash, index) && Double.compare(crashPoint(source, hash), recorded) == 0;
+        return new Verification(roundId, HEX.formatHex(hash), recorded, HEX.formatHex(source.terminal()), valid);
+    }
+
+    /**
+     * Binary search of the round log; round ids only grow, so the records are sorted.
+     */
+    private ByteBuffer find(long roundId) throws IOException {
+        if (rounds == null) {
+            return null;
+        }
+        long low = 0;
+        long high = rounds.size() / RECORD_BYTES - 1;
+        ByteBuffer record = ByteBuffer.allocate(RECORD_BYTES);
+        while (low <= high) {
+            long mid = (low + high) >>> 1;
+            record.clear();
+            while (record.hasRemaining()) {
+                if (rounds.read(record, mid * RECORD_BYTES + record.position()) < 0) {
+                    return null;
+                }
+            }
+            long id = record.getLong(0);
+            if (id == roundId) {
+                return record;
+            }
+            if (id < roundId) {
+                low = mid + 1;
+            } else {
+                high = mid - 1;
+            }
+        }
+        return null;
+    }
+
+    private HashChain chainFor(int generation) throws IOException {
+        synchronized (this) {
+            if (chain != null && chain.generation() == generation) {
+                return chain;
+            }
+        }
+        if (older != null && older.generation() == generation) {
+            return older;
+        }
+        File file = new File(folder, "chain-" + generation + ".dat");
+        if (!file.exists()) {
+            return null;
+        }
+        if (older != null) {
+            older.close();
+        }
+        older = HashChain.open(generation, file);
+        return older;
+    }
+
+    private static double crashPoint(HashChain chain, byte[] hash) {
+        long bits = ByteBuffer.wrap(hash).getLong() >>> 12;
+        double roll = bits / (double) (1L << 52);
+        return GameClock.crashPointFor(roll, chain.minCrash(), chain.variance(), chain.maxCrash());
+    }
+
+    private HashChain openLatest() throws IOException {
+        int newest = -1;
+        String[] names = folder.list();
+        if (names != null) {
+            for (String name : names) {
+                Matcher matcher = CHAIN_FILE.matcher(name);
+                if (matcher.matches()) {
+                    newest = Math.max(newest, Integer.parseInt(matcher.group(1)));
+                }
+            }
+        }
+        return newest < 0 ? null : HashChain.open(newest, new File(folder, "chain-" + newest + ".dat"));
+    }
+
+    private HashChain generate(int generation) throws IOException {
+        int length = Math.max(1, settings.getFairChainLength());
+        long began = System.nanoTime();
+        HashChain created = HashChain.generate(generation, new File(folder, "chain-" + generation + ".dat"), length,
+                settings.getMinCrashMultiplier(), settings.getCrashVariance(), settings.getMaxCrashMultiplier());
+        logger.info("Generated provably fair chain " + created + " of " + length + " rounds in "
+                + (System.nanoTime() - began) / 1_000_000L + " ms; commitment " + HEX.formatHex(created.terminal()));
+        return created;
+    }
+
+    /**
+     * Worker thread: makes {@code next} the chain in use, with the segment of its next hash loaded.
+     */
+    private void install(HashChain next) throws IOException {
+        int position = next.next();
+        Segment first = new Segment(next, position / HashChain.STRIDE, next.segment(position / HashChain.STRIDE));
+        HashChain previous;
+        synchronized (this) {
+            previous = chain;
+            chain = next;
+            cursor = position;
+            segment = first;
+            prefetched = null;
+            preparing = false;
+        }
+        if (previous != null && previous != next) {
+            previous.close();
+        }
+        if (first.number() > 0) {
+            prefetch(next, first.number() - 1);
+        }
+    }
+
+    private void rotate() {
+        if (preparing) {
+            return;
+        }
+        preparing = true;
+        int generation = chain.generation() + 1;
+        logger.info("Provably fair chain " + chain + " is used up; generating the next one.");
+        submit(() -> {
+            try {
+                install(generate(generation));
+            } catch (IOException ex) {
+                logger.warning("Failed to generate the next provably fair chain: " + ex.getMessage());
+                synchronized (this) {
+                    preparing = false; // tried again on the next round start
+                }
+            }
+        });
+    }
+
+    private void prefetch(HashChain source, int number) {
+        submit(() -> {
+            try {
+                Segment loaded = new Segment(source, number, source.segment(number));
+                synchronized (this) {
+                    if (chain == source) {
+                        prefetched = loaded;
+                    }
+                }
+            } catch (IOException ex) {
+                logger.warning("Failed to read provably fair chain " + source + ": " + ex.getMessage());
+            }
+        });
+    }
+
+    private void saveCursor(HashChain source, int next) {
+        try {
+            source.setNext(next);
+        } catch (IOException ex) {
+            logger.warning("Failed to save the position in " + source + ": " + ex.getMessage());
+        }
+    }
+
+    private void submit(Runnable task) {
+        try {
+            worker.execute(task);
+        } catch (RejectedExecutionException ignored) {
+            // closed
+        }
+    }
+}
@@ -0,0 +1,101 @@
+package com.shorecrash.game;
+
+import java.util.UUID;
+
+/**
+ * One player's wager in the current round. Amount and payout are {@link com.shorecrash.util.Money} minor units.
+ */
+public class Bet {
+    public enum Status { ACTIVE, CASHED_OUT, LOST }
+
+    private final UUID playerId;
+    private final String playerName;
+    private long amount;
+    private Status status;
+    private double cashoutMultiplier;
+    private long payout;
+    private boolean staked;
+    private long autoCashoutUnits;
+    private long sequence;
+
+    public Bet(UUID playerId, String playerName, long amount) {
+        this.playerId = playerId;
+        this.playerName = playerName;
+        this.amount = amount;
+        this.status = Status.ACTIVE;
+    }
+
+    public UUID getPlayerId() {
+        return playerId;
+    }
+
+    public String getPlayerName() {
+        return playerName;
+    }
+
+    public long getAmount() {
+        return amount;
+    }
+
+    /**
+     * Changed through {@link BetBook#resize} so the book's totals follow.
+     */
+    void setAmount(long amount) {
+        this.amount = amount;
+    }
+
+    public Status getStatus() {
+        return status;
+    }
+
+    public double getCashoutMultiplier() {
+        return cashoutMultiplier;
+    }
+
+    public long getPayout() {
+        return payout;
+    }
+
+    /**
+     * True once the stake has been taken from the player's balance (not just reserved).
+     */
+    public boolean isStaked() {
+        return staked;
+    }
+
+    public void markStaked() {
+        this.staked = true;
+    }
+
+    /**
+     * Target multiplier in hundredths at which the bet cashes out by itself, or 0 for none.
+     */
+    public long getAutoCashoutUnits() {
+        return autoCashoutUnits;
+    }
+
+    public void setAutoCashoutUnits(long autoCashoutUnits) {
+        this.autoCashoutUnits = autoCashoutUnits;
+    }
+
+    /**
+     * Placement order within the round, assigned by {@link BetBook#add}.
+     */
+    long getSequence() {
+        return sequence;
+    }
+
+    void setSequence(long sequence) {
+        this.sequence = sequence;
+    }
+
+    void markCashed(double multiplier, long payout) {
+        this.status = Status.CASHED_OUT;
+        this.cashoutMultiplier = multiplier;
+        this.payout = payout;
+    }
+
+    void markLost() {
+        this.status = Status.LOST;
+    }
+}
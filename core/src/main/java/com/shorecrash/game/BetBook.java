@@ -0,0 +1,185 @@
+package com.shorecrash.game;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * The bets of one round with the hologram aggregates kept up to date as they change, so rendering the pot, the
+ * player counts and the {@code {players}} entries never walks every bet.
+ * <p>
+ * Every change to a bet's amount or status must go through this class. Visible bets (active, then cashed out, each
+ * in the order they were placed) are also kept in a small ordered index whose head is the {@code {players}} list.
+ * {@link #version()} changes with every update that can affect what is shown. Changes happen on the global thread
+ * only; {@link #get} and {@link #contains} may also be called by command threads to route players.
+ */
+public class BetBook {
+    private static final Comparator<Bet> DISPLAY_ORDER = Comparator
+            .comparingInt((Bet bet) -> bet.getStatus() == Bet.Status.ACTIVE ? 0 : 1)
+            .thenComparingLong(Bet::getSequence);
+
+    private final Map<UUID, Bet> bets = new ConcurrentHashMap<>();
+    private final TreeSet<Bet> visible = new TreeSet<>(DISPLAY_ORDER);
+    private long nextSequence;
+    private long version;
+    private long pot; // stakes of active bets
+    private int active;
+    private int cashedOut;
+
+    public Bet get(UUID playerId) {
+        return bets.get(playerId);
+    }
+
+    public boolean contains(UUID playerId) {
+        return bets.containsKey(playerId);
+    }
+
+    /**
+     * True if {@code bet} is still the player's bet in this round and has not been settled.
+     */
+    public boolean isActive(Bet bet) {
+        return bets.get(bet.getPlayerId()) == bet && bet.getStatus() == Bet.Status.ACTIVE;
+    }
+
+    public Collection<Bet> all() {
+        return Collections.unmodifiableCollection(bets.values());
+    }
+
+    /**
+     * The active bets as a copy, safe to settle while iterating.
+     */
+    public List<Bet> activeBets() {
+        List<Bet> result = new ArrayList<>(active);
+        for (Bet bet : visible) {
+            if (bet.getStatus() != Bet.Status.ACTIVE) {
+                break;
+            }
+            result.add(bet);
+        }
+        return result;
+    }
+
+    public int size() {
+        return bets.size();
+    }
+
+    public void add(Bet bet) {
+        remove(bet.getPlayerId());
+        bet.setSequence(nextSequence++);
+        bets.put(bet.getPlayerId(), bet);
+        added(bet);
+        version++;
+    }
+
+    public Bet remove(UUID playerId) {
+        Bet bet = bets.remove(playerId);
+        if (bet != null) {
+            removed(bet);
+            version++;
+        }
+        return bet;
+    }
+
+    public void resize(Bet bet, long amount) {
+        update(bet, () -> bet.setAmount(amount));
+    }
+
+    public void cashOut(Bet bet, double multiplier, long payout) {
+        update(bet, () -> bet.markCashed(multiplier, payout));
+    }
+
+    public void lose(Bet bet) {
+        update(bet, bet::markLost);
+    }
+
+    public void clear() {
+        bets.clear();
+        visible.clear();
+        pot = 0L;
+        active = 0;
+        cashedOut = 0;
+        version++;
+    }
+
+    public long pot() {
+        return pot;
+    }
+
+    public int activeCount() {
+        return active;
+    }
+
+    public int cashedOutCount() {
+        return cashedOut;
+    }
+
+    /**
+     * The first {@code limit} visible bets: active ones before cashed out ones, each oldest first.
+     */
+    public List<Bet> top(int limit) {
+        List<Bet> result = new ArrayList<>(Math.min(limit, visible.size()));
+        Iterator<Bet> it = visible.iterator();
+        while (result.size() < limit && it.hasNext()) {
+            result.add(it.next());
+        }
+        return result;
+    }
+
+    public long version() {
+        return version;
+    }
+
+    /**
+     * Applies {@code change} with the bet taken out of the totals and the index, since it may change the sort key.
+     * A bet no longer in the book is just changed.
+     */
+    private void update(Bet bet, Runnable change) {
+        if (bets.get(bet.getPlayerId()) != bet) {
+            change.run();
+            return;
+        }
+        removed(bet);
+        change.run();
+        added(bet);
+        version++;
+    }
+
+    private void added(Bet bet) {
+        switch (bet.getStatus()) {
+            case ACTIVE -> {
+                pot += bet.getAmount();
+                active++;
+                visible.add(bet);
+            }
+            case CASHED_OUT -> {
+                cashedOut++;
+                visible.add(bet);
+            }
+            case LOST -> {
+            }
+        }
+    }
+
+    private void removed(Bet bet) {
+        switch (bet.getStatus()) {
+            case ACTIVE -> {
+                pot -= bet.getAmount();
+                active--;
+                visible.remove(bet);
+            }
+            case CASHED_OUT -> {
+                cashedOut--;
+                visible.remove(bet);
+            }
+            case LOST -> {
+            }
+        }
+    }
+}
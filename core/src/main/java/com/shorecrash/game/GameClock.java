@@ -0,0 +1,267 @@
+package com.shorecrash.game;
+
+import java.util.Queue;
+import java.util.Random;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Logger;
+
+/**
+ * Authoritative round timing on its own thread, independent of the server tick.
+ * <p>
+ * The clock owns the WAITING -> RUNNING -> CRASHED cycle and the crash point. The multiplier curve is closed-form,
+ * so when a round begins the exact crash instant is computed with {@link #timeForMultiplier} and the thread simply
+ * sleeps until the next due transition; nothing is polled. Each transition is stamped with its scheduled instant,
+ * not the moment a thread noticed it, and queued as an immutable {@link Snapshot} so the main thread can apply every
+ * one in order even if it fell behind by several. The main thread never changes round timing, it only reacts to it.
+ */
+public class GameClock {
+    /**
+     * Round state at one instant. {@code seq} counts transitions, so two snapshots with the same seq describe the
+     * same phase. {@code crashPoint} is NaN until the round has crashed.
+     */
+    public record Snapshot(long seq, RoundState state, double multiplier, long startedAt, long nextStartAt,
+                           long crashedAt, double crashPoint) {
+    }
+
+    /**
+     * Supplies crash points instead of the clock's own random draw. Called on the clock thread as each round begins;
+     * NaN means none is ready yet, and the round start is retried a second later.
+     */
+    public interface CrashSource {
+        double next();
+    }
+
+    private static final long SOURCE_RETRY_MILLIS = 1000L;
+
+    private final Logger logger;
+    private final RoundSettings settings;
+    private final CrashSource source;
+    private final Random random = new Random();
+    private final Queue<Snapshot> transitions = new ConcurrentLinkedQueue<>();
+    private final long baseMillis = System.currentTimeMillis();
+    private final long baseNanos = System.nanoTime();
+    private ScheduledExecutorService thread;
+    private volatile Snapshot latest;
+    private volatile Double rigged;
+
+    // Guarded by this
+    private long seq;
+    private RoundState state = RoundState.WAITING;
+    private long startedAt;
+    private long nextStartAt;
+    private long crashAt;
+    private long crashedAt;
+    private double crashPoint;
+
+    public GameClock(Logger logger, RoundSettings settings) {
+        this(logger, settings, null);
+    }
+
+    /**
+     * @param source where crash points come from, or null for the clock's own random draw
+     */
+    public GameClock(Logger logger, RoundSettings settings, CrashSource source) {
+        this.logger = logger;
+        this.settings = settings;
+        this.source = source;
+    }
+
+    public synchronized void start() {
+        nextStartAt = now() + settings.getStartDelayMillis();
+        latest = new Snapshot(seq, state, settings.getStartMultiplier(), 0L, nextStartAt, 0L, Double.NaN);
+        thread = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "ShoreCrash-GameClock");
+            t.setDaemon(true);
+            t.setPriority(Thread.MAX_PRIORITY);
+            return t;
+        });
+        thread.execute(this::wake);
+    }
+
+    public void stop() {
+        if (thread == null) {
+            return;
+        }
+        thread.shutdownNow();
+        try {
+            thread.awaitTermination(1, TimeUnit.SECONDS);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+        thread = null;
+    }
+
+    /**
+     * The round as of now. Transitions already due are applied first, so a reader never sees a running round past
+     * its crash instant even if the clock thread has not woken up yet.
+     */
+    public Snapshot snapshot() {
+        long now = now();
+        synchronized (this) {
+            advance(now);
+            Snapshot current = latest;
+            if (current.state() != RoundState.RUNNING) {
+                return current;
+            }
+            return new Snapshot(current.seq(), current.state(), Math.min(multiplierAt(now), crashPoint), current.startedAt(),
+                    current.nextStartAt(), 0L, Double.NaN);
+        }
+    }
+
+    /**
+     * Next queued transition up to and including {@code upTo}, or null. Main thread only.
+     */
+    public Snapshot pollTransition(Snapshot upTo) {
+        Snapshot next = transitions.peek();
+        if (next == null || next.seq() > upTo.seq()) {
+            return null;
+        }
+        return transitions.poll();
+    }
+
+    /**
+     * Forces the crash point of the next round; ignored once that round has started.
+     */
+    public void rig(double multiplier) {
+        rigged = multiplier;
+    }
+
+    /**
+     * Millis after the start of a round at which the multiplier reaches {@code multiplier}: the inverse of
+     * {@code start * e^(growth * t)}. Long.MAX_VALUE if the curve never gets there.
+     */
+    public long timeForMultiplier(double multiplier) {
+        double start = settings.getStartMultiplier();
+        if (multiplier <= start) {
+            return 0L;
+        }
+        double growth = settings.getGrowthPerSecond();
+        if (growth <= 0 || start <= 0) {
+            return Long.MAX_VALUE;
+        }
+        // rounded up so every instant before it is still below the target
+        return (long) Math.ceil(Math.log(multiplier / start) / growth * 1000.0);
+    }
+
+    /**
+     * Wall-clock millis derived from a monotonic source, so round timing survives system clock changes.
+     */
+    public long now() {
+        return baseMillis + (System.nanoTime() - baseNanos) / 1_000_000L;
+    }
+
+    /**
+     * Runs on the clock thread at each due instant, then sleeps until the next one.
+     */
+    private void wake() {
+        long delay;
+        try {
+            synchronized (this) {
+                advance(now());
+                delay = dueAt() - now();
+            }
+        } catch (RuntimeException ex) {
+            // without rescheduling every round would freeze
+            logger.warning("Game clock failed: " + ex);
+            delay = 1000L;
+        }
+        try {
+            thread.schedule(this::wake, Math.max(0L, delay), TimeUnit.MILLISECONDS);
+        } catch (RejectedExecutionException ignored) {
+            // stopped
+        }
+    }
+
+    private long dueAt() {
+        return switch (state) {
+            case WAITING -> nextStartAt;
+            case RUNNING -> crashAt;
+            case CRASHED -> crashedAt + settings.getStartDelayMillis();
+        };
+    }
+
+    /**
+     * Applies every transition due by {@code now}, each at its own scheduled instant.
+     */
+    private void advance(long now) {
+        long due;
+        while ((due = dueAt()) <= now) {
+            switch (state) {
+                case WAITING -> begin(due);
+                case RUNNING -> crash(due);
+                case CRASHED -> reset(due);
+            }
+        }
+    }
+
+    private void begin(long at) {
+        Double forced = rigged;
+        double point = forced != null ? forced : source != null ? source.next() : sampleCrashMultiplier();
+        if (Double.isNaN(point)) {
+            // keep waiting without a transition, so the table does not reset its bets
+            nextStartAt = at + SOURCE_RETRY_MILLIS;
+            Snapshot waiting = latest;
+            latest = new Snapshot(waiting.seq(), waiting.state(), waiting.multiplier(), waiting.startedAt(), nextStartAt,
+                    waiting.crashedAt(), waiting.crashPoint());
+            return;
+        }
+        rigged = null;
+        crashPoint = point;
+        startedAt = at;
+        long duration = timeForMultiplier(crashPoint);
+        crashAt = duration == Long.MAX_VALUE ? Long.MAX_VALUE : at + duration;
+        nextStartAt = at + settings.getIntervalMillis();
+        publish(RoundState.RUNNING, settings.getStartMultiplier(), Double.NaN);
+    }
+
+    private void crash(long at) {
+        crashedAt = at;
+        publish(RoundState.CRASHED, crashPoint, crashPoint);
+    }
+
+    private void reset(long at) {
+        if (nextStartAt < at + 1000L) {
+            nextStartAt = at + settings.getIntervalMillis();
+        }
+        publish(RoundState.WAITING, settings.getStartMultiplier(), Double.NaN);
+    }
+
+    private void publish(RoundState next, double multiplier, double shownCrashPoint) {
+        state = next;
+        Snapshot snapshot = new Snapshot(++seq, next, multiplier, startedAt, nextStartAt, crashedAt, shownCrashPoint);
+        transitions.add(snapshot); // queued before it becomes visible, so a reader of latest finds it
+        latest = snapshot;
+    }
+
+    /**
+     * Multiplier shown at {@code at} by a round that started at {@code startedAt}; any thread.
+     */
+    public double multiplierAt(long startedAt, long at) {
+        double elapsedSeconds = Math.max(0L, at - startedAt) / 1000.0;
+        return settings.getStartMultiplier() * Math.exp(settings.getGrowthPerSecond() * elapsedSeconds);
+    }
+
+    private double multiplierAt(long now) {
+        return multiplierAt(startedAt, now);
+    }
+
+    private double sampleCrashMultiplier() {
+        return crashPointFor(random.nextDouble(), settings.getMinCrashMultiplier(), settings.getCrashVariance(),
+                settings.getMaxCrashMultiplier());
+    }
+
+    /**
+     * The crash distribution applied to a uniform {@code roll} in [0, 1).
+     */
+    public static double crashPointFor(double roll, double minCrash, double variance, double maxCrash) {
+        if (roll < 0.02) {
+            return 1.00; // 2% chance to crash instantly at 1.00x
+        }
+        double value = minCrash + (-Math.log(1.0 - roll) * variance);
+        return Math.min(value, maxCrash);
+    }
+}
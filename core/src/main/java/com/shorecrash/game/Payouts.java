@@ -0,0 +1,40 @@
+package com.shorecrash.game;
+
+import com.shorecrash.util.Money;
+
+/**
+ * Cash-out math shared by the game and the simulator. The payout is the stake times the multiplier in hundredths,
+ * rounded down, less the rake, which is withheld from it and rounded half up (see {@link Money}).
+ */
+public final class Payouts {
+    public static final int RAKE_BASIS_POINTS = 100; // 1% of the gross payout
+
+    private Payouts() {}
+
+    /**
+     * True if an auto cash-out target lies below {@code multiplier}, the highest point the curve is known to have
+     * passed. A target equal to the crash point is not reached: the round ends at that instant.
+     */
+    public static boolean reached(long targetUnits, double multiplier) {
+        return (double) targetUnits / Money.MULTIPLIER_UNIT < multiplier;
+    }
+
+    /**
+     * Payout before the rake.
+     */
+    public static long gross(long stake, long multiplierUnits) {
+        return Money.gross(stake, multiplierUnits);
+    }
+
+    public static long rake(long gross) {
+        return Money.percent(gross, RAKE_BASIS_POINTS);
+    }
+
+    /**
+     * What the player receives.
+     */
+    public static long net(long stake, long multiplierUnits) {
+        long gross = gross(stake, multiplierUnits);
+        return gross - rake(gross);
+    }
+}
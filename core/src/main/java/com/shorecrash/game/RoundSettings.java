@@ -0,0 +1,26 @@
+package com.shorecrash.game;
+
+/**
+ * The round timing and crash distribution of one table: what the {@link GameClock} and the provably-fair chain
+ * need from the configuration, without depending on where it is loaded from.
+ */
+public interface RoundSettings {
+    long getIntervalMillis();
+
+    long getStartDelayMillis();
+
+    double getStartMultiplier();
+
+    double getGrowthPerSecond();
+
+    double getCrashVariance();
+
+    double getMinCrashMultiplier();
+
+    double getMaxCrashMultiplier();
+
+    /**
+     * Rounds per provably-fair hash chain.
+     */
+    int getFairChainLength();
+}
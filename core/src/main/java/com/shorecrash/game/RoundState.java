@@ -0,0 +1,6 @@
+package com.shorecrash.game;
+
+/**
+ * Phase of a table's round, as published by the {@link GameClock}.
+ */
+public enum RoundState { WAITING, RUNNING, CRASHED }
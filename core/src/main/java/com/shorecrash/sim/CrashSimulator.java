@@ -0,0 +1,305 @@
+package com.shorecrash.sim;
+
+import com.shorecrash.game.GameClock;
+import com.shorecrash.game.Payouts;
+import com.shorecrash.util.Money;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinWorkerThread;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * Monte Carlo simulation of many crash rounds, for tuning the crash distribution and checking the house edge.
+ * <p>
+ * Crash points come from {@link GameClock#crashPointFor} and payouts follow the auto cash-out rules of the game: a
+ * target pays when the crash point is strictly above it ({@link Payouts#reached}), at the target, minus the
+ * {@link Payouts rake}. Every round is played by one synthetic player per {@link Strategy}.
+ * <p>
+ * Rounds are split into windows of {@value #WINDOW} and the windows into fork-join tasks, each with its own
+ * {@link SplittableRandom} split from the parent's, so a run is reproducible from its seed and the same parallelism.
+ * The house profit of every window is kept to report the tail: the worst window and the 1st percentile. Martingale
+ * state starts over in each task, which only matters for losing streaks crossing a task boundary.
+ */
+public final class CrashSimulator {
+    public static final int WINDOW = 1000;
+    /**
+     * Upper bounds of the crash point histogram; the last bucket is everything above.
+     */
+    public static final double[] BUCKETS = {1.01, 1.5, 2.0, 3.0, 5.0, 10.0, 50.0, 100.0};
+
+    private static final int WINDOWS_PER_TASK = 256;
+    private static final double RANDOM_TARGET_CAP = 100.0;
+
+    public enum Strategy {
+        /**
+         * Base stake, always cashing out at the target.
+         */
+        FIXED,
+        /**
+         * Base stake at a target drawn log-uniformly between the lowest allowed one and 100x.
+         */
+        RANDOM,
+        /**
+         * Doubles the stake after every loss and goes back to the base stake after a win or when the next stake
+         * would exceed the maximum bet.
+         */
+        MARTINGALE
+    }
+
+    /**
+     * One run. Money in minor units, {@code targetUnits} in hundredths.
+     */
+    public record Params(long rounds, double startMultiplier, double growthPerSecond, double minCrash, double variance,
+                         double maxCrash, long stake, long maxStake, long targetUnits, long seed, int parallelism) {
+    }
+
+    public record StrategyResult(Strategy strategy, long bets, long wins, long wagered, long paidOut, long rake,
+                                 double profitStdDev, long worstWindow, long windowP1, long peakStake, int longestLosingStreak) {
+        /**
+         * Return to player: paid out per unit wagered.
+         */
+        public double rtp() {
+            return wagered == 0 ? 0.0 : (double) paidOut / wagered;
+        }
+
+        public long houseProfit() {
+            return wagered - paidOut;
+        }
+    }
+
+    public record Report(Params params, long rounds, long millis, double meanCrash, long[] histogram, long capped,
+                         double meanRunSeconds, List<StrategyResult> strategies) {
+    }
+
+    private CrashSimulator() {}
+
+    /**
+     * Runs the simulation on a fork-join pool of its own that is shut down when done, so it neither competes with
+     * the common pool nor outlives the run.
+     */
+    public static CompletableFuture<Report> run(Params params) {
+        ForkJoinPool pool = new ForkJoinPool(Math.max(1, params.parallelism()), p -> {
+            ForkJoinWorkerThread thread = ForkJoinPool.defaultForkJoinWorkerThreadFactory.newThread(p);
+            thread.setName("ShoreCrash-Simulator-" + thread.getPoolIndex());
+            thread.setDaemon(true);
+            return thread;
+        }, null, false);
+        CompletableFuture<Report> future = new CompletableFuture<>();
+        pool.execute(() -> {
+            try {
+                future.complete(simulate(params));
+            } catch (Throwable ex) {
+                future.completeExceptionally(ex);
+            } finally {
+                pool.shutdown();
+            }
+        });
+        return future;
+    }
+
+    private static Report simulate(Params params) {
+        long started = System.nanoTime();
+        int windows = Math.toIntExact((params.rounds() + WINDOW - 1) / WINDOW);
+        Strategy[] strategies = Strategy.values();
+        long[][] windowProfits = new long[strategies.length][windows];
+        Tally total = new Chunk(params, new SplittableRandom(params.seed()), windowProfits, 0, windows).invoke();
+
+        long rounds = (long) windows * WINDOW;
+        List<StrategyResult> results = new ArrayList<>(strategies.length);
+        for (Strategy strategy : strategies) {
+            Tally.Player player = total.players[strategy.ordinal()];
+            long[] profits = windowProfits[strategy.ordinal()];
+            Arrays.sort(profits);
+            results.add(new StrategyResult(strategy, player.bets, player.wins, player.wagered, player.paidOut,
+                    player.rake, Math.sqrt(player.m2 / Math.max(1L, player.rounds)), profits[0],
+                    profits[(int) (profits.length * 0.01)], player.peakStake, player.losingStreak));
+        }
+        return new Report(params, rounds, (System.nanoTime() - started) / 1_000_000L, total.crashSum / rounds,
+                total.histogram, total.capped, total.runSeconds / rounds, results);
+    }
+
+    /**
+     * Simulates windows {@code [from, to)}, splitting until at most {@value #WINDOWS_PER_TASK} are left.
+     */
+    private static final class Chunk extends RecursiveTask<Tally> {
+        private static final long serialVersionUID = 1L;
+
+        private final Params params;
+        private final SplittableRandom random;
+        private final long[][] windowProfits;
+        private final int from;
+        private final int to;
+
+        Chunk(Params params, SplittableRandom random, long[][] windowProfits, int from, int to) {
+            this.params = params;
+            this.random = random;
+            this.windowProfits = windowProfits;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected Tally compute() {
+            if (to - from > WINDOWS_PER_TASK) {
+                int mid = (from + to) >>> 1;
+                Chunk left = new Chunk(params, random.split(), windowProfits, from, mid);
+                left.fork();
+                Tally right = new Chunk(params, random, windowProfits, mid, to).compute();
+                return left.join().merge(right);
+            }
+            return play();
+        }
+
+        private Tally play() {
+            Tally tally = new Tally();
+            long minTarget = Money.multiplierUnits(params.startMultiplier()) + 1;
+            long maxTarget = Money.multiplierUnits(params.maxCrash());
+            long fixedTarget = Math.max(minTarget, Math.min(maxTarget, params.targetUnits()));
+            double randomSpan = Math.log(Math.max(minTarget, Math.min(maxTarget, RANDOM_TARGET_CAP * Money.MULTIPLIER_UNIT)) / (double) minTarget);
+            long martingaleStake = params.stake();
+            int streak = 0;
+            Tally.Player fixed = tally.players[Strategy.FIXED.ordinal()];
+            Tally.Player randomPlayer = tally.players[Strategy.RANDOM.ordinal()];
+            Tally.Player martingale = tally.players[Strategy.MARTINGALE.ordinal()];
+
+            for (int window = from; window < to; window++) {
+                long fixedProfit = 0;
+                long randomProfit = 0;
+                long martingaleProfit = 0;
+                for (int i = 0; i < WINDOW; i++) {
+                    double crashPoint = GameClock.crashPointFor(random.nextDouble(), params.minCrash(),
+                            params.variance(), params.maxCrash());
+                    tally.round(crashPoint, params);
+                    fixedProfit += fixed.bet(params.stake(), fixedTarget, crashPoint);
+
+                    long randomTarget = (long) (minTarget * Math.exp(random.nextDouble() * randomSpan));
+                    randomProfit += randomPlayer.bet(params.stake(), randomTarget, crashPoint);
+
+                    martingaleProfit += martingale.bet(martingaleStake, fixedTarget, crashPoint);
+                    // a win can still leave the house a profit (at 1.01x the rake exceeds the gain), so not by profit
+                    if (!Payouts.reached(fixedTarget, crashPoint)) {
+                        streak++;
+                        martingale.losingStreak = Math.max(martingale.losingStreak, streak);
+                        martingaleStake = martingaleStake * 2 <= params.maxStake() ? martingaleStake * 2 : params.stake();
+                    } else {
+                        streak = 0;
+                        martingaleStake = params.stake();
+                    }
+                }
+                windowProfits[Strategy.FIXED.ordinal()][window] = fixedProfit;
+                windowProfits[Strategy.RANDOM.ordinal()][window] = randomProfit;
+                windowProfits[Strategy.MARTINGALE.ordinal()][window] = martingaleProfit;
+            }
+            return tally;
+        }
+    }
+
+    /**
+     * Running totals of one task, merged pairwise up the task tree.
+     */
+    private static final class Tally {
+        final Player[] players = new Player[Strategy.values().length];
+        final long[] histogram = new long[BUCKETS.length + 1];
+        long capped;
+        double crashSum;
+        double runSeconds;
+
+        Tally() {
+            for (int i = 0; i < players.length; i++) {
+                players[i] = new Player();
+            }
+        }
+
+        void round(double crashPoint, Params params) {
+            int bucket = 0;
+            while (bucket < BUCKETS.length && crashPoint >= BUCKETS[bucket]) {
+                bucket++;
+            }
+            histogram[bucket]++;
+            if (crashPoint >= params.maxCrash()) {
+                capped++;
+            }
+            crashSum += crashPoint;
+            if (crashPoint > params.startMultiplier() && params.growthPerSecond() > 0) {
+                runSeconds += Math.log(crashPoint / params.startMultiplier()) / params.growthPerSecond();
+            }
+        }
+
+        Tally merge(Tally other) {
+            for (int i = 0; i < players.length; i++) {
+                players[i].merge(other.players[i]);
+            }
+            for (int i = 0; i < histogram.length; i++) {
+                histogram[i] += other.histogram[i];
+            }
+            capped += other.capped;
+            crashSum += other.crashSum;
+            runSeconds += other.runSeconds;
+            return this;
+        }
+
+        /**
+         * One strategy's bets; per-round house profit variance is tracked with Welford's method.
+         */
+        static final class Player {
+            long rounds;
+            long bets;
+            long wins;
+            long wagered;
+            long paidOut;
+            long rake;
+            long peakStake;
+            int losingStreak; // longest run of losing rounds (martingale only)
+            double mean;
+            double m2;
+
+            /**
+             * Settles one bet and returns the house profit from it.
+             */
+            long bet(long stake, long targetUnits, double crashPoint) {
+                bets++;
+                wagered += stake;
+                peakStake = Math.max(peakStake, stake);
+                long profit = stake;
+                if (Payouts.reached(targetUnits, crashPoint)) {
+                    long gross = Payouts.gross(stake, targetUnits);
+                    long houseEdge = Payouts.rake(gross);
+                    wins++;
+                    paidOut += gross - houseEdge;
+                    rake += houseEdge;
+                    profit -= gross - houseEdge;
+                }
+                rounds++;
+                double delta = profit - mean;
+                mean += delta / rounds;
+                m2 += delta * (profit - mean);
+                return profit;
+            }
+
+            /**
+             * Chan et al.'s pairwise combination of the running variance.
+             */
+            void merge(Player other) {
+                if (other.rounds > 0) {
+                    long n = rounds + other.rounds;
+                    double delta = other.mean - mean;
+                    m2 += other.m2 + delta * delta * ((double) rounds * other.rounds / n);
+                    mean += delta * other.rounds / n;
+                    rounds = n;
+                }
+                bets += other.bets;
+                wins += other.wins;
+                wagered += other.wagered;
+                paidOut += other.paidOut;
+                rake += other.rake;
+                peakStake = Math.max(peakStake, other.peakStake);
+                losingStreak = Math.max(losingStreak, other.losingStreak);
+            }
+        }
+    }
+}
@@ -0,0 +1,94 @@
+package com.shorecrash.util;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+
+/**
+ * Fixed-point money. Amounts are {@code long}s in minor units ({@code 10^scale} per currency unit, cents at the
+ * default scale of 2), so sums and comparisons are exact and never allocate. {@code double} is only used at the Vault
+ * boundary and when reading data written before amounts were stored as minor units.
+ * <p>
+ * Rounding rules: a payout uses the multiplier truncated to hundredths (what players see) and the product is rounded
+ * down to a whole minor unit; percentages such as the rake are rounded half up.
+ */
+public final class Money {
+    public static final int DEFAULT_SCALE = 2;
+    public static final int MAX_SCALE = 6;
+    /**
+     * Multipliers are applied in hundredths.
+     */
+    public static final long MULTIPLIER_UNIT = 100L;
+
+    private static volatile int scale = DEFAULT_SCALE;
+    private static volatile long unit = 100L;
+
+    private Money() {}
+
+    /**
+     * Sets the scale used to convert to and from currency units. Called once on enable, before any data is loaded.
+     */
+    public static void setScale(int newScale) {
+        int clamped = Math.max(0, Math.min(MAX_SCALE, newScale));
+        unit = BigDecimal.ONE.scaleByPowerOfTen(clamped).longValueExact();
+        scale = clamped;
+    }
+
+    public static int getScale() {
+        return scale;
+    }
+
+    /**
+     * Minor units per currency unit.
+     */
+    public static long getUnit() {
+        return unit;
+    }
+
+    public static long fromDouble(double amount) {
+        return Math.round(amount * unit);
+    }
+
+    public static double toDouble(long minor) {
+        return (double) minor / unit;
+    }
+
+    public static BigDecimal toDecimal(long minor) {
+        return BigDecimal.valueOf(minor, scale);
+    }
+
+    /**
+     * Parses a plain decimal amount such as {@code 12.5}, rounding half up to the scale. Returns null if the
+     * text is not a number or does not fit.
+     */
+    public static Long parse(String text) {
+        try {
+            return new BigDecimal(text.trim()).setScale(scale, RoundingMode.HALF_UP).unscaledValue().longValueExact();
+        } catch (NumberFormatException | ArithmeticException ex) {
+            return null;
+        }
+    }
+
+    /**
+     * Multiplier in hundredths, truncated. The small epsilon absorbs float error, e.g. 1.15 * 100 = 114.99999999999999 gives 115.
+     */
+    public static long multiplierUnits(double multiplier) {
+        return (long) Math.floor(multiplier * MULTIPLIER_UNIT + 1e-6);
+    }
+
+    /**
+     * {@code stake * units / 100} rounded down; {@code stake} and {@code units} must not be negative. Split so the
+     * intermediate product cannot overflow before the result does.
+     */
+    public static long gross(long stake, long units) {
+        long whole = Math.multiplyExact(stake / MULTIPLIER_UNIT, units);
+        return Math.addExact(whole, stake % MULTIPLIER_UNIT * units / MULTIPLIER_UNIT);
+    }
+
+    /**
+     * {@code amount * basisPoints / 10000} rounded half up; {@code amount} must not be negative.
+     */
+    public static long percent(long amount, int basisPoints) {
+        long whole = Math.multiplyExact(amount / 10_000L, basisPoints);
+        return whole + (amount % 10_000L * basisPoints + 5_000L) / 10_000L;
+    }
+}
@@ -0,0 +1,100 @@
+package com.shorecrash.fair;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class HashChainTest {
+    private static final int LENGTH = HashChain.STRIDE * 2 + 17; // last segment is partial
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void generatedChainRoundTripsThroughTheFile() throws Exception {
+        File file = dir.resolve("chain.dat").toFile();
+        HashChain generated = HashChain.generate(3, file, LENGTH, 1.1, 2.0, 100.0);
+        byte[] last = generated.hash(LENGTH - 1);
+        generated.setNext(42);
+        generated.close();
+
+        HashChain chain = HashChain.open(3, file);
+        try {
+            assertEquals(3, chain.generation());
+            assertEquals(LENGTH, chain.length());
+            assertEquals(1.1, chain.minCrash());
+            assertEquals(2.0, chain.variance());
+            assertEquals(100.0, chain.maxCrash());
+            assertEquals(42, chain.next());
+            assertArrayEquals(last, chain.hash(LENGTH - 1));
+            assertArrayEquals(sha256(last), chain.terminal());
+        } finally {
+            chain.close();
+        }
+    }
+
+    @Test
+    void newChainStartsAtItsLastHash() throws Exception {
+        HashChain chain = HashChain.generate(0, dir.resolve("chain.dat").toFile(), LENGTH, 1.1, 2.0, 100.0);
+        try {
+            assertEquals(LENGTH - 1, chain.next());
+        } finally {
+            chain.close();
+        }
+    }
+
+    @Test
+    void segmentsAndHashesAgree() throws Exception {
+        HashChain chain = HashChain.generate(0, dir.resolve("chain.dat").toFile(), LENGTH, 1.1, 2.0, 100.0);
+        try {
+            for (int segment = 0; segment < 3; segment++) {
+                byte[][] hashes = chain.segment(segment);
+                int first = segment * HashChain.STRIDE;
+                assertEquals(Math.min(HashChain.STRIDE, LENGTH - first), hashes.length);
+                assertArrayEquals(chain.hash(first), hashes[0]);
+                assertArrayEquals(chain.hash(first + hashes.length - 1), hashes[hashes.length - 1]);
+            }
+            assertArrayEquals(sha256(chain.hash(HashChain.STRIDE - 1)), chain.hash(HashChain.STRIDE));
+        } finally {
+            chain.close();
+        }
+    }
+
+    @Test
+    void onlyChainHashesLeadToTheTerminal() throws Exception {
+        HashChain chain = HashChain.generate(0, dir.resolve("chain.dat").toFile(), LENGTH, 1.1, 2.0, 100.0);
+        try {
+            int index = HashChain.STRIDE + 5;
+            byte[] hash = chain.hash(index);
+            assertTrue(chain.leadsToTerminal(hash, index));
+            assertFalse(chain.leadsToTerminal(hash, index + 1));
+            hash[0] ^= 1;
+            assertFalse(chain.leadsToTerminal(hash, index));
+        } finally {
+            chain.close();
+        }
+    }
+
+    @Test
+    void openRejectsOtherFiles() throws Exception {
+        File file = dir.resolve("other.dat").toFile();
+        Files.write(file.toPath(), new byte[128]);
+        assertThrows(IOException.class, () -> HashChain.open(0, file));
+    }
+
+    private static byte[] sha256(byte[] data) throws NoSuchAlgorithmException {
+        return MessageDigest.getInstance("SHA-256").digest(data);
+    }
+}
@@ -0,0 +1,106 @@
+package com.shorecrash.game;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class BetBookTest {
+    @Test
+    void aggregatesFollowEveryChange() {
+        BetBook book = new BetBook();
+        Bet a = bet("a", 100L);
+        Bet b = bet("b", 200L);
+        Bet c = bet("c", 300L);
+        book.add(a);
+        book.add(b);
+        book.add(c);
+        assertEquals(600L, book.pot());
+        assertEquals(3, book.activeCount());
+        assertEquals(0, book.cashedOutCount());
+
+        book.resize(b, 250L);
+        assertEquals(650L, book.pot());
+
+        book.cashOut(a, 2.0, 198L);
+        assertEquals(550L, book.pot());
+        assertEquals(2, book.activeCount());
+        assertEquals(1, book.cashedOutCount());
+
+        book.lose(c);
+        assertEquals(250L, book.pot());
+        assertEquals(1, book.activeCount());
+        assertEquals(List.of(b), book.activeBets());
+
+        book.remove(b.getPlayerId());
+        assertEquals(0L, book.pot());
+        assertEquals(0, book.activeCount());
+        assertEquals(1, book.cashedOutCount());
+    }
+
+    @Test
+    void topListsActiveBeforeCashedOutInPlacementOrder() {
+        BetBook book = new BetBook();
+        Bet a = bet("a", 100L);
+        Bet b = bet("b", 100L);
+        Bet c = bet("c", 100L);
+        Bet d = bet("d", 100L);
+        book.add(a);
+        book.add(b);
+        book.add(c);
+        book.add(d);
+        book.cashOut(a, 1.5, 148L);
+        book.lose(c);
+        assertEquals(List.of(b, d, a), book.top(10));
+        assertEquals(List.of(b, d), book.top(2));
+    }
+
+    @Test
+    void replacingABetDropsTheOldOne() {
+        BetBook book = new BetBook();
+        UUID id = UUID.randomUUID();
+        Bet first = new Bet(id, "a", 100L);
+        Bet second = new Bet(id, "a", 400L);
+        book.add(first);
+        book.add(second);
+        assertEquals(400L, book.pot());
+        assertEquals(1, book.activeCount());
+        assertFalse(book.isActive(first));
+        assertTrue(book.isActive(second));
+    }
+
+    @Test
+    void changesToBetsNoLongerInTheBookLeaveTotalsAlone() {
+        BetBook book = new BetBook();
+        Bet a = bet("a", 100L);
+        book.add(a);
+        book.remove(a.getPlayerId());
+        long version = book.version();
+        book.lose(a);
+        assertEquals(Bet.Status.LOST, a.getStatus());
+        assertEquals(0L, book.pot());
+        assertEquals(version, book.version());
+    }
+
+    @Test
+    void clearResetsEverything() {
+        BetBook book = new BetBook();
+        book.add(bet("a", 100L));
+        long version = book.version();
+        book.clear();
+        assertEquals(0, book.size());
+        assertEquals(0L, book.pot());
+        assertEquals(0, book.activeCount());
+        assertTrue(book.top(5).isEmpty());
+        assertNotEquals(version, book.version());
+    }
+
+    private static Bet bet(String name, long amount) {
+        return new Bet(UUID.randomUUID(), name, amount);
+    }
+}
@@ -0,0 +1,90 @@
+package com.shorecrash.game;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.logging.Logger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class GameClockTest {
+    private static final Logger LOGGER = Logger.getLogger(GameClockTest.class.getName());
+
+    @Test
+    void crashPointForLowRollsIsInstantCrash() {
+        assertEquals(1.00, GameClock.crashPointFor(0.0, 1.1, 2.0, 100.0));
+        assertEquals(1.00, GameClock.crashPointFor(0.0199, 1.1, 2.0, 100.0));
+    }
+
+    @Test
+    void crashPointForFollowsExponentialTail() {
+        double roll = 0.5;
+        assertEquals(1.1 + -Math.log(0.5) * 2.0, GameClock.crashPointFor(roll, 1.1, 2.0, 100.0), 1e-12);
+        assertEquals(1.1, GameClock.crashPointFor(0.02, 1.1, 0.0, 100.0), 1e-12);
+    }
+
+    @Test
+    void crashPointForIsCappedAtMax() {
+        assertEquals(10.0, GameClock.crashPointFor(0.999999, 1.1, 50.0, 10.0));
+    }
+
+    @Test
+    void timeForMultiplierInvertsTheCurve() {
+        GameClock clock = new GameClock(LOGGER, new Settings(1.0, 0.1));
+        assertEquals(0L, clock.timeForMultiplier(1.0));
+        assertEquals(0L, clock.timeForMultiplier(0.5));
+        long millis = clock.timeForMultiplier(2.0);
+        assertEquals((long) Math.ceil(Math.log(2.0) / 0.1 * 1000.0), millis);
+        // rounded up: the curve is at or past the target at that instant and below it a millisecond earlier
+        assertTrue(clock.multiplierAt(0L, millis) >= 2.0);
+        assertTrue(clock.multiplierAt(0L, millis - 1) < 2.0);
+    }
+
+    @Test
+    void timeForMultiplierWithoutGrowthNeverGetsThere() {
+        GameClock clock = new GameClock(LOGGER, new Settings(1.0, 0.0));
+        assertEquals(Long.MAX_VALUE, clock.timeForMultiplier(1.5));
+    }
+
+    private record Settings(double startMultiplier, double growthPerSecond) implements RoundSettings {
+        @Override
+        public long getIntervalMillis() {
+            return 10_000L;
+        }
+
+        @Override
+        public long getStartDelayMillis() {
+            return 5_000L;
+        }
+
+        @Override
+        public double getStartMultiplier() {
+            return startMultiplier;
+        }
+
+        @Override
+        public double getGrowthPerSecond() {
+            return growthPerSecond;
+        }
+
+        @Override
+        public double getCrashVariance() {
+            return 2.0;
+        }
+
+        @Override
+        public double getMinCrashMultiplier() {
+            return 1.1;
+        }
+
+        @Override
+        public double getMaxCrashMultiplier() {
+            return 100.0;
+        }
+
+        @Override
+        public int getFairChainLength() {
+            return 1000;
+        }
+    }
+}
@@ -0,0 +1,45 @@
+package com.shorecrash.game;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class PayoutsTest {
+    @Test
+    void grossRoundsDown() {
+        assertEquals(2_000L, Payouts.gross(1_000L, 200L));
+        assertEquals(1_230L, Payouts.gross(1_000L, 123L));
+        assertEquals(12L, Payouts.gross(10L, 125L)); // 12.5
+        assertEquals(1L, Payouts.gross(1L, 199L)); // 1.99 minor units
+        assertEquals(0L, Payouts.gross(0L, 500L));
+    }
+
+    @Test
+    void grossDoesNotOverflowBeforeTheResult() {
+        long stake = Long.MAX_VALUE / 10L; // stake * 1000 would overflow, stake * 10 does not
+        assertEquals(stake * 10L, Payouts.gross(stake, 1_000L));
+    }
+
+    @Test
+    void rakeIsOnePercentRoundedHalfUp() {
+        assertEquals(20L, Payouts.rake(2_000L));
+        assertEquals(1L, Payouts.rake(50L)); // 0.5 rounds up
+        assertEquals(0L, Payouts.rake(49L));
+    }
+
+    @Test
+    void netIsGrossLessRake() {
+        assertEquals(1_980L, Payouts.net(1_000L, 200L));
+        long gross = Payouts.gross(777L, 345L);
+        assertEquals(gross - Payouts.rake(gross), Payouts.net(777L, 345L));
+    }
+
+    @Test
+    void targetAtTheCrashPointIsNotReached() {
+        assertTrue(Payouts.reached(199L, 2.0));
+        assertFalse(Payouts.reached(200L, 2.0));
+        assertFalse(Payouts.reached(201L, 2.0));
+    }
+}
@@ -0,0 +1,28 @@
+package com.shorecrash.sim;
+
+import com.shorecrash.game.Payouts;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class CrashSimulatorTest {
+    private static final long STAKE = 10_000L;
+
+    @Test
+    void martingaleCountsLowTargetWinsAsWins() throws Exception {
+        // crashes at 1.00x (2% of rounds) or 2.00x; at 1.01x a win pays 0.9999 of the stake after the rake
+        assertEquals(STAKE - 1, Payouts.net(STAKE, 101L));
+        CrashSimulator.Params params = new CrashSimulator.Params(10_000L, 1.0, 0.1, 2.0, 0.0, 100.0, STAKE,
+                STAKE << 20, 101L, 42L, 1);
+        CrashSimulator.Report report = CrashSimulator.run(params).get();
+
+        CrashSimulator.StrategyResult fixed = report.strategies().get(CrashSimulator.Strategy.FIXED.ordinal());
+        CrashSimulator.StrategyResult martingale = report.strategies().get(CrashSimulator.Strategy.MARTINGALE.ordinal());
+        assertEquals(fixed.wins(), martingale.wins());
+        assertTrue(fixed.wins() > fixed.bets() * 9 / 10);
+        int streak = martingale.longestLosingStreak();
+        assertTrue(streak >= 1 && streak < 10, "losing streak " + streak);
+        assertEquals(STAKE << streak, martingale.peakStake());
+    }
+}
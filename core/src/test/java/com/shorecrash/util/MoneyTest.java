@@ -0,0 +1,72 @@
+package com.shorecrash.util;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class MoneyTest {
+    @AfterEach
+    void restoreScale() {
+        Money.setScale(Money.DEFAULT_SCALE);
+    }
+
+    @Test
+    void multiplierUnitsTruncateToHundredths() {
+        assertEquals(200L, Money.multiplierUnits(2.0));
+        assertEquals(200L, Money.multiplierUnits(Math.nextDown(2.0))); // 2.0 after float error
+        assertEquals(115L, Money.multiplierUnits(1.15)); // 1.15 * 100 is 114.99999999999999
+        assertEquals(199L, Money.multiplierUnits(1.999));
+        assertEquals(101L, Money.multiplierUnits(1.01));
+        assertEquals(123L, Money.multiplierUnits(1.2399));
+        assertEquals(100L, Money.multiplierUnits(1.0));
+    }
+
+    @Test
+    void grossRoundsDownAndDoesNotOverflowEarly() {
+        assertEquals(250L, Money.gross(100L, 250L));
+        assertEquals(99L, Money.gross(99L, 101L)); // 99.99
+        assertEquals(0L, Money.gross(0L, 101L));
+        long stake = Long.MAX_VALUE / 10L;
+        assertEquals(stake * 10L, Money.gross(stake, 1_000L));
+        assertThrows(ArithmeticException.class, () -> Money.gross(Long.MAX_VALUE / 2L, 300L));
+    }
+
+    @Test
+    void percentRoundsHalfUp() {
+        assertEquals(100L, Money.percent(10_000L, 100));
+        assertEquals(1L, Money.percent(50L, 100)); // 0.5
+        assertEquals(0L, Money.percent(49L, 100)); // 0.49
+        assertEquals(3L, Money.percent(25L, 1_000)); // 2.5
+        assertEquals(1_000_001L, Money.percent(100_000_050L, 100)); // 1000000.5
+        assertEquals(0L, Money.percent(12_345L, 0));
+    }
+
+    @Test
+    void scaleIsClamped() {
+        Money.setScale(-3);
+        assertEquals(0, Money.getScale());
+        assertEquals(1L, Money.getUnit());
+        Money.setScale(Money.MAX_SCALE + 5);
+        assertEquals(Money.MAX_SCALE, Money.getScale());
+        assertEquals(1_000_000L, Money.getUnit());
+    }
+
+    @Test
+    void conversionsFollowTheScale() {
+        assertEquals(1_250L, Money.fromDouble(12.5));
+        assertEquals(12.5, Money.toDouble(1_250L));
+        assertEquals(new BigDecimal("12.50"), Money.toDecimal(1_250L));
+        assertEquals(1_235L, Money.parse(" 12.345 "));
+        assertNull(Money.parse("twelve"));
+
+        Money.setScale(3);
+        assertEquals(1_000L, Money.getUnit());
+        assertEquals(12_345L, Money.parse("12.345"));
+        assertEquals(12_500L, Money.fromDouble(12.5));
+    }
+}
@@ -0,0 +1,203 @@
+package com.shorecrash;
+
+import com.shorecrash.command.CrashCommand;
+import com.shorecrash.command.CrashAdminCommand;
+import com.shorecrash.command.HologramCommand;
+import com.shorecrash.command.ReloadCommand;
+import com.shorecrash.config.CrashConfig;
+import com.shorecrash.data.CrashDataStore;
+import com.shorecrash.economy.EconomyService;
+import com.shorecrash.game.ArenaManager;
+import com.shorecrash.game.CrashGame;
+import com.shorecrash.holo.HologramManager;
+import com.shorecrash.ledger.BetLedger;
+import com.shorecrash.listener.CrashListener;
+import com.shorecrash.stats.StatsService;
+import com.shorecrash.util.Money;
+import com.shorecrash.util.Schedulers;
+import net.milkbowl.vault.economy.Economy;
+import org.bukkit.Bukkit;
+import org.bukkit.plugin.RegisteredServiceProvider;
+import org.bukkit.plugin.java.JavaPlugin;
+
+import java.io.File;
+import java.io.FileReader;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.Writer;
+import java.text.DecimalFormat;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Properties;
+import java.util.concurrent.atomic.AtomicLong;
+
+public class CrashPlugin extends JavaPlugin {
+    private final Schedulers schedulers = new Schedulers(this);
+    private CrashConfig configModel;
+    private EconomyService economyService;
+    private ArenaManager arenas;
+    private StatsService statsService;
+    private final List<CrashDataStore> crashDataStores = new ArrayList<>(); // one per table
+    private final List<BetLedger> betLedgers = new ArrayList<>(); // one per table
+
+    @Override
+    public void onEnable() {
+        reloadAndBoot();
+        getLogger().info("ShoreCrash enabled.");
+    }
+
+    @Override
+    public void onDisable() {
+        if (arenas != null) {
+            arenas.stop();
+        }
+        if (economyService != null) {
+            economyService.close();
+        }
+        if (statsService != null) {
+            statsService.close();
+        }
+        crashDataStores.forEach(CrashDataStore::close);
+        crashDataStores.clear();
+        betLedgers.forEach(BetLedger::close);
+        betLedgers.clear();
+    }
+
+    public void reloadAndBoot() {
+        if (arenas != null) {
+            arenas.stop();
+        }
+        if (economyService != null) {
+            economyService.close(); // finish queued refunds and payouts before the next service starts
+        }
+        if (statsService != null) {
+            statsService.close(); // drain pending writes before the new service reads stats.yml
+        }
+        crashDataStores.forEach(CrashDataStore::close);
+        crashDataStores.clear();
+        betLedgers.forEach(BetLedger::close);
+        betLedgers.clear();
+        org.bukkit.event.HandlerList.unregisterAll(this);
+        reloadConfig();
+        this.configModel = CrashConfig.load(this);
+        Money.setScale(lockMoneyScale(configModel.economy().getMoneyScale()));
+        this.economyService = setupEconomy(configModel.moneyFormat());
+        this.statsService = new StatsService(this, configModel.stats());
+        AtomicLong roundIds = new AtomicLong(1); // raised past every table's last round as the ledgers open
+        this.arenas = new ArenaManager(this);
+        for (CrashConfig.ArenaSettings arena : configModel.arenas()) {
+            CrashConfig tableConfig = configModel.forArena(arena);
+            boolean first = betLedgers.isEmpty(); // the first table keeps the file names from before there were tables
+            File roundsFolder = new File(getDataFolder(), first ? "rounds" : "rounds/" + arena.getName());
+            CrashDataStore crashDataStore = new CrashDataStore(this, roundsFolder, tableConfig.game().getCrashHistorySize());
+            crashDataStores.add(crashDataStore);
+            String ledgerFile = first ? "bets.ledger" : "bets-" + arena.getName() + ".ledger";
+            BetLedger betLedger = new BetLedger(getLogger(), new File(getDataFolder(), "ledger/" + ledgerFile), roundIds);
+            betLedgers.add(betLedger);
+            HologramManager hologram = new HologramManager(this, tableConfig);
+            if (Schedulers.isFolia()) {
+                hologram.cleanupOrphans(); // each table can only clean up its own region there
+            }
+            arenas.add(new CrashGame(this, arena.getName(), tableConfig, hologram, economyService, statsService, crashDataStore, betLedger));
+        }
+        if (!Schedulers.isFolia()) {
+            new HologramManager(this, configModel).cleanupOrphans(); // entities are tagged the same for every table
+        }
+        registerCommands();
+        registerListeners();
+        arenas.start();
+    }
+
+    private void registerCommands() {
+        CrashCommand crash = new CrashCommand(arenas, statsService, schedulers);
+        HologramCommand holo = new HologramCommand(this);
+        ReloadCommand reload = new ReloadCommand(this);
+        CrashAdminCommand admin = new CrashAdminCommand(this, arenas, statsService, economyService);
+
+        if (getCommand("crash") != null) {
+            getCommand("crash").setExecutor(crash);
+            getCommand("crash").setTabCompleter(crash);
+        }
+        if (getCommand("crashholo") != null) {
+            getCommand("crashholo").setExecutor(holo);
+            getCommand("crashholo").setTabCompleter(holo);
+        }
+        if (getCommand("crashreload") != null) {
+            getCommand("crashreload").setExecutor(reload);
+            getCommand("crashreload").setTabCompleter(reload);
+        }
+        if (getCommand("crashadmin") != null) {
+            getCommand("crashadmin").setExecutor(admin);
+            getCommand("crashadmin").setTabCompleter(admin);
+        }
+    }
+
+    private void registerListeners() {
+        Bukkit.getPluginManager().registerEvents(new CrashListener(arenas, schedulers), this);
+    }
+
+    /**
+     * Stored amounts are minor units, so the scale must not change once data exists. The first start records it in
+     * money.properties and a different {@code money-scale} later is ignored with a warning.
+     */
+    private int lockMoneyScale(int configured) {
+        int scale = clampScale(configured); // only a usable scale may be locked in
+        File file = new File(getDataFolder(), "money.properties");
+        Properties props = new Properties();
+        if (file.exists()) {
+            try (Reader in = new FileReader(file)) {
+                props.load(in);
+                int locked = clampScale(Integer.parseInt(props.getProperty("scale", "").trim()));
+                if (locked != scale) {
+                    getLogger().warning("game.economy.money-scale is " + scale + " but existing data uses " + locked
+                            + " decimal places; keeping " + locked + ".");
+                }
+                return locked;
+            } catch (IOException | NumberFormatException ex) {
+                getLogger().warning("Failed to read money.properties, using money-scale " + scale + ": " + ex.getMessage());
+                return scale;
+            }
+        }
+        getDataFolder().mkdirs();
+        props.setProperty("scale", String.valueOf(scale));
+        try (Writer out = new FileWriter(file)) {
+            props.store(out, "Decimal places of stored amounts; do not edit once data exists");
+        } catch (IOException ex) {
+            getLogger().warning("Failed to write money.properties: " + ex.getMessage());
+        }
+        return scale;
+    }
+
+    private static int clampScale(int scale) {
+        return Math.max(0, Math.min(Money.MAX_SCALE, scale));
+    }
+
+    private EconomyService setupEconomy(DecimalFormat moneyFormat) {
+        if (!configModel.game().isEconomyEnabled()) {
+            return new EconomyService(this, false, null, moneyFormat, configModel.economy());
+        }
+        RegisteredServiceProvider<Economy> rsp = Bukkit.getServicesManager().getRegistration(Economy.class);
+        if (rsp == null) {
+            getLogger().warning("Vault not found; economy disabled.");
+            return new EconomyService(this, false, null, moneyFormat, configModel.economy());
+        }
+        return new EconomyService(this, true, rsp.getProvider(), moneyFormat, configModel.economy());
+    }
+
+    public CrashConfig getConfigModel() {
+        return configModel;
+    }
+
+    public Schedulers getSchedulers() {
+        return schedulers;
+    }
+
+    public ArenaManager getArenas() {
+        return arenas;
+    }
+
+    public EconomyService getEconomyService() {
+        return economyService;
+    }
+}
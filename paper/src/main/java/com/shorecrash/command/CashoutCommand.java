@@ -1,25 +1,25 @@
 package com.shorecrash.command;
 
-import com.shorecrash.game.CrashGame;
+import com.shorecrash.game.ArenaManager;
 import org.bukkit.command.Command;
 import org.bukkit.command.CommandExecutor;
 import org.bukkit.command.CommandSender;
 import org.bukkit.entity.Player;
 
 public class CashoutCommand implements CommandExecutor {
-    private final CrashGame game;
+    private final ArenaManager arenas;
 
-    public CashoutCommand(CrashGame game) {
-        this.game = game;
+    public CashoutCommand(ArenaManager arenas) {
+        this.arenas = arenas;
     }
 
     @Override
     public boolean onCommand(CommandSender sender, Command command, String label, String[] args) {
         if (!(sender instanceof Player player)) {
-            sender.sendMessage(game.getConfigModel().messages().onlyPlayers());
+            sender.sendMessage(arenas.primary().getConfigModel().messages().onlyPlayers());
             return true;
         }
-        game.cashout(player);
+        arenas.route(player).submitCashout(player);
         return true;
     }
 }
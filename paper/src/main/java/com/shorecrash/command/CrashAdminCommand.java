@@ -0,0 +1,431 @@
+package com.shorecrash.command;
+
+import com.shorecrash.config.CrashConfig;
+import com.shorecrash.data.RoundRecord;
+import com.shorecrash.economy.CircuitBreaker;
+import com.shorecrash.economy.EconomyService;
+import com.shorecrash.game.ArenaManager;
+import com.shorecrash.game.CrashGame;
+import com.shorecrash.ledger.LedgerEntry;
+import com.shorecrash.ledger.LedgerReport;
+import com.shorecrash.sim.CrashSimulator;
+import com.shorecrash.stats.StatsService;
+import com.shorecrash.util.AmountParser;
+import com.shorecrash.util.Money;
+import com.shorecrash.util.Schedulers;
+import org.bukkit.Bukkit;
+import org.bukkit.ChatColor;
+import org.bukkit.OfflinePlayer;
+import org.bukkit.command.Command;
+import org.bukkit.command.CommandExecutor;
+import org.bukkit.command.CommandSender;
+import org.bukkit.command.TabCompleter;
+import org.bukkit.entity.Player;
+import org.bukkit.plugin.java.JavaPlugin;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Collectors;
+
+public class CrashAdminCommand implements CommandExecutor, TabCompleter {
+    private static final long DEFAULT_SIMULATED_ROUNDS = 10_000_000L;
+    private static final long MAX_SIMULATED_ROUNDS = 1_000_000_000L;
+    private static final int LATEST_LEDGER_RECORDS = 10;
+
+    private record TableEntry(String table, LedgerEntry entry) {
+    }
+
+    private final Schedulers scheduler;
+    private final ArenaManager arenas;
+    private final CrashGame game; // primary table; messages and server-wide views are the same for every table
+    private final StatsService stats;
+    private final EconomyService economy;
+    private final AtomicBoolean simulating = new AtomicBoolean();
+
+    public CrashAdminCommand(JavaPlugin plugin, ArenaManager arenas, StatsService stats,
+                             EconomyService economy) {
+        this.scheduler = new Schedulers(plugin);
+        this.arenas = arenas;
+        this.game = arenas.primary();
+        this.stats = stats;
+        this.economy = economy;
+    }
+
+    @Override
+    public boolean onCommand(CommandSender sender, Command command, String label, String[] args) {
+        if (!sender.hasPermission("shorecrash.admin")) {
+            sender.sendMessage(game.getConfigModel().messages().noPermission());
+            return true;
+        }
+        if (args.length == 0) {
+            sender.sendMessage("Usage: /" + label + " rig <multiplier> [table]|summary|history [hours] [table]|ledger <player> [round]|ledger audit|economy|simulate [rounds] [@target] [table]");
+            return true;
+        }
+
+        if (args[0].equalsIgnoreCase("summary")) {
+            if (!(sender instanceof Player player)) {
+                sender.sendMessage(game.getConfigModel().messages().onlyPlayers());
+                return true;
+            }
+            scheduler.global(() -> game.openServerSummaryGui(player));
+            return true;
+        }
+
+        if (args[0].equalsIgnoreCase("history")) {
+            sendHistory(sender, args.length > 1 ? args[1] : "24", args.length > 2 ? args[2] : null);
+            return true;
+        }
+
+        if (args[0].equalsIgnoreCase("economy")) {
+            sendEconomy(sender);
+            return true;
+        }
+
+        if (args[0].equalsIgnoreCase("simulate")) {
+            simulate(sender, label, Arrays.copyOfRange(args, 1, args.length));
+            return true;
+        }
+
+        if (args[0].equalsIgnoreCase("ledger")) {
+            if (args.length < 2) {
+                sender.sendMessage("Usage: /" + label + " ledger <player> [round]|audit");
+            } else if (args[1].equalsIgnoreCase("audit")) {
+                sendAudit(sender);
+            } else {
+                sendLedger(sender, args[1], args.length > 2 ? args[2] : null);
+            }
+            return true;
+        }
+
+        if (!(sender instanceof Player player)) {
+            sender.sendMessage(game.getConfigModel().messages().onlyPlayers());
+            return true;
+        }
+
+        if (!args[0].equalsIgnoreCase("rig") || args.length < 2) {
+            sender.sendMessage("Usage: /" + label + " rig <multiplier> [table]|summary|history [hours] [table]|ledger <player> [round]|ledger audit|economy|simulate [rounds] [@target] [table]");
+            return true;
+        }
+
+        Double value = AmountParser.parse(args[1]);
+        if (value == null || value <= 0) {
+            sender.sendMessage(game.getConfigModel().messages().invalidAmount().replace("{input}", args[1]));
+            return true;
+        }
+        String tableName = args.length > 2 ? args[2] : null;
+        scheduler.global(() -> {
+            CrashGame table = tableName != null ? arenas.find(tableName) : arenas.route(player);
+            if (table == null) {
+                sender.sendMessage(game.getConfigModel().messages().unknownArena().replace("{arena}", tableName)
+                        .replace("{arenas}", String.join(", ", arenas.names())));
+                return;
+            }
+            table.tryRigNextCrash(player, value);
+        });
+        return true;
+    }
+
+    @Override
+    public List<String> onTabComplete(CommandSender sender, Command command, String alias, String[] args) {
+        if (!sender.hasPermission("shorecrash.admin")) {
+            return Collections.emptyList();
+        }
+        if (args.length == 1) {
+            return filterPrefix(args[0], "rig", "summary", "history", "ledger", "economy", "simulate");
+        }
+        if (args.length == 2 && "ledger".equalsIgnoreCase(args[0])) {
+            List<String> options = new ArrayList<>();
+            options.add("audit");
+            Bukkit.getOnlinePlayers().forEach(p -> options.add(p.getName()));
+            return filterPrefix(args[1], options.toArray(new String[0]));
+        }
+        if (args.length == 2 && "history".equalsIgnoreCase(args[0])) {
+            return filterPrefix(args[1], "1", "24", "168", "720");
+        }
+        if (args.length == 3 && "history".equalsIgnoreCase(args[0]) && !arenas.isSingle()) {
+            return filterPrefix(args[2], arenas.names().toArray(new String[0]));
+        }
+        if (args.length == 2 && "simulate".equalsIgnoreCase(args[0])) {
+            return filterPrefix(args[1], "1m", "10m", "100m");
+        }
+        if (args.length == 3 && "simulate".equalsIgnoreCase(args[0])) {
+            return filterPrefix(args[2], "@1.5", "@2.0", "@5.0");
+        }
+        if (args.length == 2 && "rig".equalsIgnoreCase(args[0])) {
+            return filterPrefix(args[1], "2.0", "5.0", "10.0");
+        }
+        if (args.length == 3 && "rig".equalsIgnoreCase(args[0]) && !arenas.isSingle()) {
+            return filterPrefix(args[2], arenas.names().toArray(new String[0]));
+        }
+        return Collections.emptyList();
+    }
+
+    /**
+     * Totals of one table's round archive, or of every table's when no table is named.
+     */
+    private void sendHistory(CommandSender sender, String hoursArg, String tableName) {
+        Double hours = AmountParser.parse(hoursArg);
+        if (hours == null || hours <= 0) {
+            sender.sendMessage(game.getConfigModel().messages().invalidAmount().replace("{input}", hoursArg));
+            return;
+        }
+        CrashGame named = tableName != null ? arenas.find(tableName) : null;
+        if (tableName != null && named == null) {
+            sender.sendMessage(game.getConfigModel().messages().unknownArena().replace("{arena}", tableName)
+                    .replace("{arenas}", String.join(", ", arenas.names())));
+            return;
+        }
+        List<CrashGame> tables = named != null ? List.of(named) : arenas.all();
+        long now = System.currentTimeMillis();
+        List<CompletableFuture<List<RoundRecord>>> queries = new ArrayList<>(tables.size());
+        tables.forEach(table -> queries.add(table.getCrashData().range(now - (long) (hours * 3_600_000L), now + 1)));
+        CompletableFuture.allOf(queries.toArray(new CompletableFuture[0])).whenComplete((ignored, error) -> reply(() -> {
+            if (error != null) {
+                sender.sendMessage(ChatColor.RED + "Failed to read the round archive: " + error.getMessage());
+                return;
+            }
+            long count = 0;
+            long pot = 0;
+            long paidOut = 0;
+            long rake = 0;
+            long players = 0;
+            for (CompletableFuture<List<RoundRecord>> query : queries) {
+                for (RoundRecord round : query.join()) {
+                    count++;
+                    pot += round.pot();
+                    paidOut += round.paidOut();
+                    rake += round.rake();
+                    players += round.players();
+                }
+            }
+            String scope = named != null ? named.getName() + ", last " : "Last ";
+            sender.sendMessage(ChatColor.GOLD + scope + hoursArg + "h: " + ChatColor.YELLOW + count + " rounds, "
+                    + players + " bets, pot " + formatMoney(pot) + ", paid out " + formatMoney(paidOut)
+                    + ", rake " + formatMoney(rake));
+        }));
+    }
+
+    private void sendLedger(CommandSender sender, String playerName, String roundArg) {
+        long round = -1;
+        if (roundArg != null) {
+            try {
+                round = Long.parseLong(roundArg);
+            } catch (NumberFormatException ex) {
+                sender.sendMessage(game.getConfigModel().messages().invalidAmount().replace("{input}", roundArg));
+                return;
+            }
+        }
+        OfflinePlayer target = Bukkit.getOfflinePlayer(playerName);
+        String displayName = target.getName() == null ? playerName : target.getName();
+        long started = System.nanoTime();
+        long searched = round;
+        List<CrashGame> tables = arenas.all();
+        List<CompletableFuture<List<LedgerEntry>>> lookups = new ArrayList<>(tables.size());
+        tables.forEach(table -> lookups.add(table.getLedger().find(target.getUniqueId(), searched)));
+        CompletableFuture.allOf(lookups.toArray(new CompletableFuture[0])).whenComplete((ignored, error) -> reply(() -> {
+            if (error != null) {
+                sender.sendMessage(ChatColor.RED + "Failed to read the bet ledger: " + error.getMessage());
+                return;
+            }
+            // every table keeps its own ledger; a round is only in one of them
+            List<TableEntry> entries = new ArrayList<>();
+            for (int i = 0; i < tables.size(); i++) {
+                String table = tables.get(i).getName();
+                lookups.get(i).join().forEach(entry -> entries.add(new TableEntry(table, entry)));
+            }
+            entries.sort(Comparator.comparingLong(e -> e.entry().timestampMicros()));
+            if (searched < 0 && entries.size() > LATEST_LEDGER_RECORDS) {
+                entries.subList(0, entries.size() - LATEST_LEDGER_RECORDS).clear();
+            }
+            long millis = (System.nanoTime() - started) / 1_000_000L;
+            String scope = searched < 0 ? "latest records" : "round " + searched;
+            if (entries.isEmpty()) {
+                sender.sendMessage(ChatColor.YELLOW + "No ledger records for " + displayName + " (" + scope + ", " + millis + " ms).");
+                return;
+            }
+            sender.sendMessage(ChatColor.GOLD + "Ledger for " + displayName + " (" + scope + ", " + millis + " ms):");
+            for (TableEntry tableEntry : entries) {
+                LedgerEntry entry = tableEntry.entry();
+                StringBuilder line = new StringBuilder().append(ChatColor.GRAY);
+                if (!arenas.isSingle()) {
+                    line.append(tableEntry.table()).append(" ");
+                }
+                line.append("#").append(entry.sequence())
+                        .append(" round ").append(entry.roundId()).append(" ")
+                        .append(ChatColor.YELLOW).append(entry.action().name().toLowerCase(Locale.ROOT))
+                        .append(ChatColor.GRAY).append(" ").append(formatMoney(entry.amount()));
+                if (entry.payout() > 0) {
+                    line.append(" @ ").append(String.format(Locale.ROOT, "%.2fx", entry.multiplier()))
+                            .append(" -> ").append(formatMoney(entry.payout()));
+                }
+                sender.sendMessage(line.toString());
+            }
+        }));
+    }
+
+    private void sendAudit(CommandSender sender) {
+        long started = System.nanoTime();
+        List<CompletableFuture<LedgerReport>> audits = new ArrayList<>();
+        arenas.all().forEach(table -> audits.add(table.getLedger().audit()));
+        CompletableFuture.allOf(audits.toArray(new CompletableFuture[0])).whenComplete((ignored, error) -> reply(() -> {
+            if (error != null) {
+                sender.sendMessage(ChatColor.RED + "Failed to read the bet ledger: " + error.getMessage());
+                return;
+            }
+            LedgerReport report = audits.stream().map(CompletableFuture::join).reduce(LedgerReport::plus).orElseThrow();
+            StatsService.PlayerStats totals = stats.getTotals();
+            sender.sendMessage(ChatColor.GOLD + "Ledger audit: " + ChatColor.YELLOW + report.records() + " records, "
+                    + report.rounds() + " rounds, " + report.bets() + " bets (" + (System.nanoTime() - started) / 1_000_000L + " ms)");
+            sender.sendMessage(ChatColor.GRAY + "Replayed: " + report.wins() + " wins, " + report.losses() + " losses, bet "
+                    + formatMoney(report.totalBet()) + ", won " + formatMoney(report.totalWon()) + ", net "
+                    + formatMoney(report.net()) + ", rake " + formatMoney(report.rake()));
+            sender.sendMessage(ChatColor.GRAY + "Stats:    " + totals.getWins() + " wins, " + totals.getLosses() + " losses, bet "
+                    + formatMoney(totals.getTotalBet()) + ", won " + formatMoney(totals.getTotalWon()) + ", net "
+                    + formatMoney(totals.getNet()));
+            sender.sendMessage(ChatColor.GRAY + "Returned " + report.returned() + " bets (" + formatMoney(report.refunded())
+                    + "), open " + report.open() + ", unsettled " + report.unsettled() + ", corrupt " + report.corrupt());
+            ChatColor color = report.anomalies() == 0 && report.unsettled() == 0 ? ChatColor.GREEN : ChatColor.RED;
+            sender.sendMessage(color + "" + report.anomalies() + " anomalies");
+            for (String sample : report.samples()) {
+                sender.sendMessage(ChatColor.RED + " - " + sample);
+            }
+        }));
+    }
+
+    /**
+     * Simulates rounds with the settings of a table on a pool of spare cores and reports the house edge, crash
+     * distribution and tail risk per strategy. One run at a time.
+     */
+    private void simulate(CommandSender sender, String label, String[] args) {
+        Double rounds = args.length > 0 ? AmountParser.parse(args[0]) : Double.valueOf(DEFAULT_SIMULATED_ROUNDS);
+        if (rounds == null || rounds < 1 || rounds > MAX_SIMULATED_ROUNDS) {
+            sender.sendMessage(ChatColor.RED + "Rounds must be between 1 and " + MAX_SIMULATED_ROUNDS + ".");
+            return;
+        }
+        Long target = args.length > 1 ? AmountParser.parseMultiplierUnits(args[1]) : Long.valueOf(2 * Money.MULTIPLIER_UNIT);
+        if (target == null) {
+            sender.sendMessage("Usage: /" + label + " simulate [rounds] [@target] [table]");
+            return;
+        }
+        CrashGame table = args.length > 2 ? arenas.find(args[2]) : game;
+        if (table == null) {
+            sender.sendMessage(game.getConfigModel().messages().unknownArena().replace("{arena}", args[2])
+                    .replace("{arenas}", String.join(", ", arenas.names())));
+            return;
+        }
+        if (!simulating.compareAndSet(false, true)) {
+            sender.sendMessage(ChatColor.YELLOW + "A simulation is already running.");
+            return;
+        }
+        CrashConfig.GameSettings settings = table.getConfigModel().game();
+        CrashSimulator.Params params = new CrashSimulator.Params(rounds.longValue(), settings.getStartMultiplier(),
+                settings.getGrowthPerSecond(), settings.getMinCrashMultiplier(), settings.getCrashVariance(),
+                settings.getMaxCrashMultiplier(), settings.getMinBet(), settings.getMaxBet(), target,
+                ThreadLocalRandom.current().nextLong(), Math.max(1, Runtime.getRuntime().availableProcessors() - 1));
+        sender.sendMessage(ChatColor.GRAY + "Simulating " + params.rounds() + " rounds of " + table.getName() + " on "
+                + params.parallelism() + " threads...");
+        CrashSimulator.run(params).whenComplete((report, error) -> {
+            simulating.set(false);
+            reply(() -> {
+                if (error != null) {
+                    sender.sendMessage(ChatColor.RED + "Simulation failed: " + error.getMessage());
+                    return;
+                }
+                sendSimulation(sender, report);
+            });
+        });
+    }
+
+    private void sendSimulation(CommandSender sender, CrashSimulator.Report report) {
+        CrashSimulator.Params params = report.params();
+        sender.sendMessage(ChatColor.GOLD + "Simulated " + report.rounds() + " rounds in " + report.millis() + " ms "
+                + ChatColor.GRAY + "(seed " + params.seed() + ", " + params.parallelism() + " threads)");
+        sender.sendMessage(ChatColor.GRAY + "Crash points: mean " + String.format(Locale.ROOT, "%.2fx", report.meanCrash())
+                + ", " + percent(report.capped(), report.rounds()) + " capped at "
+                + String.format(Locale.ROOT, "%.2fx", params.maxCrash()) + ", mean run "
+                + String.format(Locale.ROOT, "%.1f s", report.meanRunSeconds()));
+        StringBuilder histogram = new StringBuilder(ChatColor.GRAY + "Distribution:");
+        double[] bounds = CrashSimulator.BUCKETS;
+        for (int i = 0; i < report.histogram().length; i++) {
+            String bucket = i < bounds.length ? String.format(Locale.ROOT, "<%.2fx", bounds[i])
+                    : String.format(Locale.ROOT, ">=%.2fx", bounds[bounds.length - 1]);
+            histogram.append(' ').append(bucket).append(' ').append(percent(report.histogram()[i], report.rounds()));
+        }
+        sender.sendMessage(histogram.toString());
+        for (CrashSimulator.StrategyResult result : report.strategies()) {
+            String name = result.strategy().name().toLowerCase(Locale.ROOT);
+            if (result.strategy() != CrashSimulator.Strategy.RANDOM) {
+                name += String.format(Locale.ROOT, " @%.2fx", (double) params.targetUnits() / Money.MULTIPLIER_UNIT);
+            }
+            sender.sendMessage(ChatColor.YELLOW + name + ChatColor.GRAY + ": RTP "
+                    + String.format(Locale.ROOT, "%.3f%%", result.rtp() * 100.0) + ", wins "
+                    + percent(result.wins(), result.bets()) + ", wagered " + formatMoney(result.wagered()) + ", house "
+                    + formatMoney(result.houseProfit()) + " (rake " + formatMoney(result.rake()) + ")");
+            String line = ChatColor.GRAY + "  per round sd " + formatMoney(Math.round(result.profitStdDev()))
+                    + ", per " + CrashSimulator.WINDOW + " rounds worst " + formatMoney(result.worstWindow())
+                    + ", 1st pct " + formatMoney(result.windowP1());
+            if (result.strategy() == CrashSimulator.Strategy.MARTINGALE) {
+                line += ", longest losing streak " + result.longestLosingStreak() + ", peak stake " + formatMoney(result.peakStake());
+            }
+            sender.sendMessage(line);
+        }
+    }
+
+    private static String percent(long part, long whole) {
+        return String.format(Locale.ROOT, "%.2f%%", whole == 0 ? 0.0 : part * 100.0 / whole);
+    }
+
+    private void sendEconomy(CommandSender sender) {
+        if (!economy.isEnabled()) {
+            sender.sendMessage(ChatColor.YELLOW + "Economy is disabled.");
+            return;
+        }
+        CircuitBreaker breaker = economy.getBreaker();
+        String mode = economy.isAsync() ? "async, " + economy.getQueuedOperations() + " queued" : "sync";
+        sender.sendMessage(ChatColor.GOLD + "Economy (" + economy.getProviderName() + ", " + mode + ")");
+        if (!breaker.isEnabled()) {
+            sender.sendMessage(ChatColor.GRAY + "Circuit breaker disabled");
+        } else if (breaker.getState() == CircuitBreaker.State.OPEN) {
+            sender.sendMessage(ChatColor.RED + "Bets paused for " + (breaker.getRemainingMillis() + 999) / 1000L + "s: "
+                    + breaker.getReason());
+        } else {
+            String last = breaker.getTrips() == 0 ? "never tripped" : "tripped " + breaker.getTrips() + "x, last: " + breaker.getReason();
+            sender.sendMessage(ChatColor.GREEN + "Accepting bets " + ChatColor.GRAY + "(" + last + ")");
+        }
+        for (EconomyService.OperationStats op : economy.getStats()) {
+            sender.sendMessage(ChatColor.YELLOW + op.operation().name().toLowerCase(Locale.ROOT) + ChatColor.GRAY + ": "
+                    + op.calls() + " calls, " + op.errors() + " errors, " + op.timeouts() + " timeouts, p50 "
+                    + millis(op.p50Micros()) + ", p90 " + millis(op.p90Micros()) + ", p99 " + millis(op.p99Micros())
+                    + ", max " + millis(op.maxMicros()));
+        }
+        if (economy.getPendingRetries() > 0) {
+            sender.sendMessage(ChatColor.RED + "" + economy.getPendingRetries() + " failed deposits waiting for a retry");
+        }
+    }
+
+    private String formatMoney(long amount) {
+        return game.getConfigModel().moneyFormat().format(Money.toDecimal(amount));
+    }
+
+    private static String millis(long micros) {
+        return String.format(Locale.ROOT, "%.1f ms", micros / 1000.0);
+    }
+
+    private void reply(Runnable message) {
+        scheduler.global(message); // reads game and stats state
+    }
+
+    private List<String> filterPrefix(String input, String... options) {
+        String lower = input == null ? "" : input.toLowerCase(Locale.ROOT);
+        return Arrays.stream(options)
+                .filter(opt -> opt.toLowerCase(Locale.ROOT).startsWith(lower))
+                .collect(Collectors.toList());
+    }
+}
\ No newline at end of file
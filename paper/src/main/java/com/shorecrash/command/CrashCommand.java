@@ -0,0 +1,207 @@
+package com.shorecrash.command;
+
+import com.shorecrash.config.CrashConfig;
+import com.shorecrash.fair.ProvablyFair;
+import com.shorecrash.game.ArenaManager;
+import com.shorecrash.game.CrashGame;
+import com.shorecrash.stats.Leaderboard;
+import com.shorecrash.stats.StatsService;
+import com.shorecrash.util.AmountParser;
+import com.shorecrash.util.Schedulers;
+import org.bukkit.Bukkit;
+import org.bukkit.command.Command;
+import org.bukkit.command.CommandExecutor;
+import org.bukkit.command.CommandSender;
+import org.bukkit.command.TabCompleter;
+import org.bukkit.entity.Player;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.CompletableFuture;
+import java.util.stream.Collectors;
+
+public class CrashCommand implements CommandExecutor, TabCompleter {
+    private final ArenaManager arenas;
+    private final StatsService stats;
+    private final Schedulers scheduler;
+
+    public CrashCommand(ArenaManager arenas, StatsService stats, Schedulers scheduler) {
+        this.arenas = arenas;
+        this.stats = stats;
+        this.scheduler = scheduler;
+    }
+
+    @Override
+    public boolean onCommand(CommandSender sender, Command command, String label, String[] args) {
+        CrashGame primary = arenas.primary();
+        if (!(sender instanceof Player player)) {
+            sender.sendMessage(primary.getConfigModel().messages().onlyPlayers());
+            return true;
+        }
+        if (args.length == 0) {
+            player.sendMessage(primary.getConfigModel().messages().usageCrash().replace("{label}", label));
+            return true;
+        }
+
+        // "/crash <table> ..." picks a table explicitly; otherwise the player's current or nearest one
+        CrashGame named = arenas.isSingle() ? null : arenas.find(args[0]);
+        if (named != null) {
+            args = Arrays.copyOfRange(args, 1, args.length);
+            if (args.length == 0) {
+                player.sendMessage(primary.getConfigModel().messages().usageCrash().replace("{label}", label));
+                return true;
+            }
+        }
+        CrashGame game = named != null ? named : arenas.route(player);
+
+        String sub = args[0].toLowerCase();
+        if (sub.equals("cashout")) {
+            game.submitCashout(player);
+            return true;
+        }
+        if (sub.equals("cancel")) {
+            game.submitCancel(player);
+            return true;
+        }
+        if (sub.equals("stats")) {
+            if (!player.hasPermission("shorecrash.stats")) {
+                player.sendMessage(game.getConfigModel().messages().noPermission());
+                return true;
+            }
+            String targetName = args.length >= 2 ? args[1] : player.getName();
+            game.openPlayerStatsGui(player, targetName);
+            return true;
+        }
+        if (sub.equals("top")) {
+            if (!player.hasPermission("shorecrash.stats")) {
+                player.sendMessage(game.getConfigModel().messages().noPermission());
+                return true;
+            }
+            Leaderboard.Category category = args.length >= 2 ? Leaderboard.Category.parse(args[1]) : Leaderboard.Category.NET;
+            if (category == null) {
+                player.sendMessage(game.getConfigModel().messages().usageCrash().replace("{label}", label));
+                return true;
+            }
+            scheduler.global(() -> game.openLeaderboardGui(player, category, 0));
+            return true;
+        }
+        if (sub.equals("lastgames")) {
+            scheduler.global(() -> game.sendLastGames(player));
+            return true;
+        }
+        if (sub.equals("verify")) {
+            verify(player, label, named != null ? List.of(named) : arenas.all(), args.length >= 2 ? args[1] : null);
+            return true;
+        }
+
+        Long amount = AmountParser.parseMoney(args[0]);
+        if (amount == null || amount <= 0) {
+            player.sendMessage(game.getConfigModel().messages().invalidAmount().replace("{input}", args[0]));
+            return true;
+        }
+        CrashGame playing = arenas.active(player.getUniqueId());
+        if (playing != null && playing != game) {
+            player.sendMessage(game.getConfigModel().messages().otherArena().replace("{arena}", playing.getName()));
+            return true;
+        }
+        long target = 0L;
+        if (args.length >= 2) {
+            Long units = AmountParser.parseMultiplierUnits(args[1]);
+            if (units == null || !args[1].startsWith("@")) {
+                player.sendMessage(game.getConfigModel().messages().usageCrash().replace("{label}", label));
+                return true;
+            }
+            target = units;
+        }
+        game.submitBet(player, amount, target); // handled by the table's next update
+        return true;
+    }
+
+    @Override
+    public List<String> onTabComplete(CommandSender sender, Command command, String alias, String[] args) {
+        if (args.length == 1) {
+            List<String> options = new ArrayList<>(List.of("cashout", "cancel", "stats", "top", "lastgames", "verify"));
+            if (!arenas.isSingle()) {
+                options.addAll(arenas.names());
+            }
+            return filterPrefix(args[0], options.toArray(new String[0]));
+        }
+        if (args.length == 2 && !arenas.isSingle() && arenas.find(args[0]) != null) {
+            return filterPrefix(args[1], "cashout", "cancel", "lastgames", "verify");
+        }
+        if (args.length == 2 && "top".equalsIgnoreCase(args[0])) {
+            return filterPrefix(args[1], "net", "wins", "wagered", "winrate");
+        }
+        if (args.length == 2 && "stats".equalsIgnoreCase(args[0])) {
+            return Bukkit.getOnlinePlayers().stream()
+                    .map(Player::getName)
+                    .filter(name -> name.toLowerCase(Locale.ROOT).startsWith(args[1].toLowerCase(Locale.ROOT)))
+                    .collect(Collectors.toList());
+        }
+        return Collections.emptyList();
+    }
+
+    /**
+     * Without a round, shows the commitment of every provably fair table; with one, reveals and checks its hash on
+     * the tables' worker threads and replies from the global thread.
+     */
+    private void verify(Player player, String label, List<CrashGame> games, String roundArg) {
+        CrashConfig.Messages messages = arenas.primary().getConfigModel().messages();
+        List<CrashGame> fair = games.stream().filter(game -> game.getFair() != null).collect(Collectors.toList());
+        if (fair.isEmpty()) {
+            player.sendMessage(messages.fairDisabled());
+            return;
+        }
+        if (roundArg == null) {
+            for (CrashGame game : fair) {
+                ProvablyFair.Commitment commitment = game.getFair().commitment();
+                player.sendMessage(messages.fairCommitment()
+                        .replace("{arena}", game.getName())
+                        .replace("{hash}", commitment != null ? commitment.hash() : "-")
+                        .replace("{remaining}", String.valueOf(commitment != null ? commitment.remaining() : 0)));
+            }
+            return;
+        }
+        long roundId;
+        try {
+            roundId = Long.parseLong(roundArg.startsWith("#") ? roundArg.substring(1) : roundArg);
+        } catch (NumberFormatException ex) {
+            player.sendMessage(messages.usageCrash().replace("{label}", label));
+            return;
+        }
+        List<CompletableFuture<ProvablyFair.Verification>> checks = new ArrayList<>(fair.size());
+        fair.forEach(game -> checks.add(game.getFair().verify(roundId)));
+        CompletableFuture.allOf(checks.toArray(new CompletableFuture[0])).whenComplete((ignored, error) ->
+                scheduler.global(() -> {
+                    boolean found = false;
+                    for (CompletableFuture<ProvablyFair.Verification> check : checks) {
+                        ProvablyFair.Verification result = check.getNow(null);
+                        if (result == null) {
+                            continue;
+                        }
+                        found = true;
+                        String round = String.valueOf(result.roundId());
+                        player.sendMessage(result.valid()
+                                ? messages.fairVerified()
+                                        .replace("{round}", round)
+                                        .replace("{multiplier}", String.format("%.2f", result.crashPoint()))
+                                        .replace("{hash}", result.hash())
+                                        .replace("{commitment}", result.commitment())
+                                : messages.fairInvalid().replace("{round}", round));
+                    }
+                    if (!found) {
+                        player.sendMessage(messages.fairUnknown().replace("{round}", String.valueOf(roundId)));
+                    }
+                }));
+    }
+
+    private List<String> filterPrefix(String input, String... options) {
+        String lower = input == null ? "" : input.toLowerCase(Locale.ROOT);
+        return Arrays.stream(options)
+                .filter(opt -> opt.startsWith(lower))
+                .collect(Collectors.toList());
+    }
+}
@@ -1,6 +1,7 @@
 package com.shorecrash.command;
 
 import com.shorecrash.CrashPlugin;
+import com.shorecrash.config.CrashConfig;
 import org.bukkit.Location;
 import org.bukkit.command.Command;
 import org.bukkit.command.CommandExecutor;
@@ -30,30 +31,40 @@ public class HologramCommand implements CommandExecutor, TabCompleter {
             sender.sendMessage(plugin.getConfigModel().messages().usageHolo().replace("{label}", label));
             return true;
         }
-        if (args[0].equalsIgnoreCase("set")) {
+        boolean set = args[0].equalsIgnoreCase("set");
+        if (!set && !args[0].equalsIgnoreCase("clear")) {
+            sender.sendMessage(plugin.getConfigModel().messages().usageHolo().replace("{label}", label));
+            return true;
+        }
+        List<CrashConfig.ArenaSettings> tables = plugin.getConfigModel().arenas();
+        if (args.length < 2 && tables.size() > 1) {
+            sender.sendMessage(plugin.getConfigModel().messages().usageHolo().replace("{label}", label));
+            return true;
+        }
+        CrashConfig.ArenaSettings arena = args.length < 2 ? tables.get(0) : plugin.getConfigModel().arena(args[1]);
+        if (arena == null) {
+            sender.sendMessage(plugin.getConfigModel().messages().unknownArena().replace("{arena}", args[1])
+                    .replace("{arenas}", String.join(", ", plugin.getArenas().names())));
+            return true;
+        }
+        if (set) {
             if (!(sender instanceof Player player)) {
                 sender.sendMessage(plugin.getConfigModel().messages().onlyPlayers());
                 return true;
             }
             Location loc = player.getLocation();
-            plugin.getHologramManager().setLocation(loc);
-            plugin.reloadAndBoot();
-            sender.sendMessage(plugin.getConfigModel().messages().holoSet());
+            plugin.getSchedulers().global(() -> {
+                arena.hologram().saveLocation(plugin, loc);
+                plugin.reloadAndBoot();
+                sender.sendMessage(plugin.getConfigModel().messages().holoSet());
+            });
             return true;
         }
-        if (args[0].equalsIgnoreCase("clear")) {
-            plugin.getHologramManager().clear();
-            plugin.getConfig().set("hologram.world", "");
-            plugin.getConfig().set("hologram.x", 0.0);
-            plugin.getConfig().set("hologram.y", 0.0);
-            plugin.getConfig().set("hologram.z", 0.0);
-            plugin.getConfig().set("hologram.yaw", 0.0F);
-            plugin.saveConfig();
+        plugin.getSchedulers().global(() -> {
+            arena.hologram().clearLocation(plugin);
             plugin.reloadAndBoot();
             sender.sendMessage(plugin.getConfigModel().messages().holoCleared());
-            return true;
-        }
-        sender.sendMessage(plugin.getConfigModel().messages().usageHolo().replace("{label}", label));
+        });
         return true;
     }
 
@@ -65,6 +76,9 @@ public class HologramCommand implements CommandExecutor, TabCompleter {
         if (args.length == 1) {
             return filterPrefix(args[0], "set", "clear");
         }
+        if (args.length == 2) {
+            return filterPrefix(args[1], plugin.getArenas().names().toArray(new String[0]));
+        }
         return Collections.emptyList();
     }
 
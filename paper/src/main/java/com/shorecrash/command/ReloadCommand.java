@@ -22,8 +22,10 @@ public class ReloadCommand implements CommandExecutor, TabCompleter {
             sender.sendMessage(plugin.getConfigModel().messages().noPermission());
             return true;
         }
-        plugin.reloadAndBoot();
-        sender.sendMessage(plugin.getConfigModel().messages().reloaded());
+        plugin.getSchedulers().global(() -> {
+            plugin.reloadAndBoot();
+            sender.sendMessage(plugin.getConfigModel().messages().reloaded());
+        });
         return true;
     }
 
@@ -1,35 +1,49 @@
 package com.shorecrash.config;
 
+import com.shorecrash.game.RoundSettings;
+import com.shorecrash.util.Money;
 import org.bukkit.Bukkit;
 import org.bukkit.ChatColor;
 import org.bukkit.Location;
 import org.bukkit.Material;
 import org.bukkit.configuration.ConfigurationSection;
+import org.bukkit.configuration.MemoryConfiguration;
 import org.bukkit.configuration.file.FileConfiguration;
 import org.bukkit.plugin.java.JavaPlugin;
 
 import java.text.DecimalFormat;
 import java.text.DecimalFormatSymbols;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 import java.util.Locale;
 import java.util.stream.Collectors;
 
 public class CrashConfig {
     private final GameSettings game;
+    private final EconomySettings economy;
     private final HologramSettings hologram;
     private final TntHologramSettings tnt;
     private final Messages messages;
     private final StatsBookSettings statsBook;
+    private final StatsSettings stats;
     private final DecimalFormat moneyFormat;
+    private final List<ArenaSettings> arenas;
 
-    public CrashConfig(GameSettings game, HologramSettings hologram, TntHologramSettings tnt, Messages messages, StatsBookSettings statsBook, DecimalFormat moneyFormat) {
+    public CrashConfig(GameSettings game, EconomySettings economy, HologramSettings hologram, TntHologramSettings tnt, Messages messages, StatsBookSettings statsBook, StatsSettings stats, DecimalFormat moneyFormat) {
+        this(game, economy, hologram, tnt, messages, statsBook, stats, moneyFormat, Collections.emptyList());
+    }
+
+    private CrashConfig(GameSettings game, EconomySettings economy, HologramSettings hologram, TntHologramSettings tnt, Messages messages, StatsBookSettings statsBook, StatsSettings stats, DecimalFormat moneyFormat, List<ArenaSettings> arenas) {
         this.game = game;
+        this.economy = economy;
         this.hologram = hologram;
         this.tnt = tnt;
         this.messages = messages;
         this.statsBook = statsBook;
+        this.stats = stats;
         this.moneyFormat = moneyFormat;
+        this.arenas = arenas;
     }
 
     public static CrashConfig load(JavaPlugin plugin) {
@@ -39,21 +53,71 @@ public class CrashConfig {
         cfg.options().copyDefaults(true);
         plugin.saveConfig();
 
-        GameSettings game = new GameSettings(cfg.getConfigurationSection("game"));
-        HologramSettings holo = new HologramSettings(cfg.getConfigurationSection("hologram"));
+        ConfigurationSection gameSection = cfg.getConfigurationSection("game");
+        ConfigurationSection holoSection = cfg.getConfigurationSection("hologram");
+        GameSettings game = new GameSettings(gameSection);
+        EconomySettings economy = new EconomySettings(cfg.getConfigurationSection("game.economy"));
+        HologramSettings holo = new HologramSettings(holoSection, "hologram");
         TntHologramSettings tnt = new TntHologramSettings(cfg.getConfigurationSection("tnt-hologram"));
         Messages messages = new Messages(cfg.getConfigurationSection("messages"));
         StatsBookSettings statsBook = new StatsBookSettings(cfg.getConfigurationSection("stats-book"));
+        StatsSettings stats = new StatsSettings(cfg.getConfigurationSection("stats"));
 
         String pattern = cfg.getString("game.economy.currency-format", "#,###.##");
         DecimalFormat money = new DecimalFormat(pattern, DecimalFormatSymbols.getInstance(Locale.US));
-        return new CrashConfig(game, holo, tnt, messages, statsBook, money);
+
+        List<ArenaSettings> arenas = new ArrayList<>();
+        ConfigurationSection arenaSection = cfg.getConfigurationSection("arenas");
+        if (arenaSection != null) {
+            for (String name : arenaSection.getKeys(false)) {
+                ConfigurationSection overrides = arenaSection.getConfigurationSection(name);
+                if (overrides == null) {
+                    continue;
+                }
+                arenas.add(new ArenaSettings(name.toLowerCase(Locale.ROOT),
+                        new GameSettings(overlay(gameSection, overrides.getConfigurationSection("game"))),
+                        new HologramSettings(overlay(holoSection, overrides.getConfigurationSection("hologram")), "arenas." + name + ".hologram")));
+            }
+        }
+        if (arenas.isEmpty()) {
+            arenas.add(new ArenaSettings(ArenaSettings.DEFAULT_NAME, game, holo));
+        }
+        return new CrashConfig(game, economy, holo, tnt, messages, statsBook, stats, money, List.copyOf(arenas));
+    }
+
+    /**
+     * Copy of this config as seen by one table: its own game and hologram settings, everything else shared.
+     */
+    public CrashConfig forArena(ArenaSettings arena) {
+        return new CrashConfig(arena.game(), economy, arena.hologram(), tnt, messages, statsBook, stats, moneyFormat, arenas);
+    }
+
+    /**
+     * Values of {@code base} with every leaf set in {@code overrides} replacing its counterpart.
+     */
+    private static ConfigurationSection overlay(ConfigurationSection base, ConfigurationSection overrides) {
+        MemoryConfiguration merged = new MemoryConfiguration();
+        for (ConfigurationSection source : new ConfigurationSection[]{base, overrides}) {
+            if (source == null) {
+                continue;
+            }
+            for (String key : source.getKeys(true)) {
+                if (!source.isConfigurationSection(key)) {
+                    merged.set(key, source.get(key));
+                }
+            }
+        }
+        return merged;
     }
 
     public GameSettings game() {
         return game;
     }
 
+    public EconomySettings economy() {
+        return economy;
+    }
+
     public HologramSettings hologram() {
         return hologram;
     }
@@ -70,11 +134,61 @@ public class CrashConfig {
         return statsBook;
     }
 
+    public StatsSettings stats() {
+        return stats;
+    }
+
     public DecimalFormat moneyFormat() {
         return moneyFormat;
     }
 
-    public static class GameSettings {
+    /**
+     * Every table to run, in config order; a single {@value ArenaSettings#DEFAULT_NAME} table when none are listed.
+     */
+    public List<ArenaSettings> arenas() {
+        return arenas;
+    }
+
+    public ArenaSettings arena(String name) {
+        for (ArenaSettings arena : arenas) {
+            if (arena.getName().equalsIgnoreCase(name)) {
+                return arena;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * One crash table: {@code arenas.<name>.game} and {@code arenas.<name>.hologram} laid over the top-level
+     * {@code game} and {@code hologram} sections.
+     */
+    public static class ArenaSettings {
+        public static final String DEFAULT_NAME = "main";
+
+        private final String name;
+        private final GameSettings game;
+        private final HologramSettings hologram;
+
+        public ArenaSettings(String name, GameSettings game, HologramSettings hologram) {
+            this.name = name;
+            this.game = game;
+            this.hologram = hologram;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public GameSettings game() {
+            return game;
+        }
+
+        public HologramSettings hologram() {
+            return hologram;
+        }
+    }
+
+    public static class GameSettings implements RoundSettings {
         private final long intervalMillis;
         private final long startDelayMillis;
         private final int tickInterval;
@@ -87,7 +201,11 @@ public class CrashConfig {
         private final double maxBet;
         private final boolean allowLateJoin;
         private final boolean economyEnabled;
+        private final boolean deferredSettlement;
         private final long actionRateLimitMs;
+        private final int intentBatchSize;
+        private final boolean provablyFair;
+        private final int fairChainLength;
         private final int crashHistorySize;
         private final int lastGamesDisplayCount;
 
@@ -104,7 +222,11 @@ public class CrashConfig {
             this.maxBet = section.getDouble("max-bet", 20_000_000.0);
             this.allowLateJoin = section.getBoolean("allow-late-join", false);
             this.economyEnabled = section.getBoolean("economy.enabled", true);
+            this.deferredSettlement = section.getBoolean("deferred-settlement", false);
             this.actionRateLimitMs = section.getLong("action-rate-limit-ms", 200L);
+            this.intentBatchSize = section.getInt("intent-batch-size", 64);
+            this.provablyFair = section.getBoolean("provably-fair.enabled", false);
+            this.fairChainLength = section.getInt("provably-fair.chain-length", 1_000_000);
             this.crashHistorySize = section.getInt("crash-history-size", 20);
             this.lastGamesDisplayCount = section.getInt("lastgames-display-count", 5);
         }
@@ -141,12 +263,15 @@ public class CrashConfig {
             return maxCrashMultiplier;
         }
 
-        public double getMinBet() {
-            return minBet;
+        /**
+         * Minimum bet in minor units; converted on use since the money scale is only fixed once the config is loaded.
+         */
+        public long getMinBet() {
+            return Money.fromDouble(minBet);
         }
 
-        public double getMaxBet() {
-            return maxBet;
+        public long getMaxBet() {
+            return Money.fromDouble(maxBet);
         }
 
         public boolean isAllowLateJoin() {
@@ -157,10 +282,32 @@ public class CrashConfig {
             return economyEnabled;
         }
 
+        public boolean isDeferredSettlement() {
+            return deferredSettlement;
+        }
+
         public long getActionRateLimitMs() {
             return actionRateLimitMs;
         }
 
+        /**
+         * Most queued bets, cancels and cash-outs one table handles per update.
+         */
+        public int getIntentBatchSize() {
+            return intentBatchSize;
+        }
+
+        public boolean isProvablyFair() {
+            return provablyFair;
+        }
+
+        /**
+         * Rounds covered by one hash chain; a new chain is generated when it runs out.
+         */
+        public int getFairChainLength() {
+            return fairChainLength;
+        }
+
         public int getCrashHistorySize() {
             return crashHistorySize;
         }
@@ -170,6 +317,93 @@ public class CrashConfig {
         }
     }
 
+    public static class EconomySettings {
+        private final boolean async;
+        private final int threads;
+        private final int queueSize;
+        private final int moneyScale;
+        private final long balanceCacheMillis;
+        private final long timeoutMillis;
+        private final int depositRetries;
+        private final boolean breakerEnabled;
+        private final double breakerMaxP99Millis;
+        private final double breakerMaxErrorRate;
+        private final int breakerMinCalls;
+        private final long breakerWindowMillis;
+        private final long breakerCooldownMillis;
+
+        public EconomySettings(ConfigurationSection section) {
+            this.async = section != null && section.getBoolean("async", false);
+            this.threads = section != null ? section.getInt("threads", 2) : 2;
+            this.queueSize = section != null ? section.getInt("queue-size", 1000) : 1000;
+            this.moneyScale = Math.max(0, Math.min(Money.MAX_SCALE, section != null ? section.getInt("money-scale", Money.DEFAULT_SCALE) : Money.DEFAULT_SCALE));
+            this.balanceCacheMillis = (section != null ? section.getLong("balance-cache-seconds", 5) : 5) * 1000L;
+            this.timeoutMillis = section != null ? section.getLong("timeout-ms", 0L) : 0L;
+            this.depositRetries = section != null ? section.getInt("deposit-retries", 5) : 5;
+            this.breakerEnabled = section == null || section.getBoolean("breaker.enabled", true);
+            this.breakerMaxP99Millis = section != null ? section.getDouble("breaker.max-p99-ms", 250.0) : 250.0;
+            this.breakerMaxErrorRate = section != null ? section.getDouble("breaker.max-error-rate", 0.2) : 0.2;
+            this.breakerMinCalls = section != null ? section.getInt("breaker.min-calls", 20) : 20;
+            this.breakerWindowMillis = (section != null ? section.getLong("breaker.window-seconds", 30) : 30) * 1000L;
+            this.breakerCooldownMillis = (section != null ? section.getLong("breaker.cooldown-seconds", 30) : 30) * 1000L;
+        }
+
+        public boolean isAsync() {
+            return async;
+        }
+
+        public int getThreads() {
+            return threads;
+        }
+
+        public int getQueueSize() {
+            return queueSize;
+        }
+
+        /**
+         * Decimal places kept for amounts; see {@link Money}.
+         */
+        public int getMoneyScale() {
+            return moneyScale;
+        }
+
+        public long getBalanceCacheMillis() {
+            return balanceCacheMillis;
+        }
+
+        public long getTimeoutMillis() {
+            return timeoutMillis;
+        }
+
+        public int getDepositRetries() {
+            return depositRetries;
+        }
+
+        public boolean isBreakerEnabled() {
+            return breakerEnabled;
+        }
+
+        public double getBreakerMaxP99Millis() {
+            return breakerMaxP99Millis;
+        }
+
+        public double getBreakerMaxErrorRate() {
+            return breakerMaxErrorRate;
+        }
+
+        public int getBreakerMinCalls() {
+            return breakerMinCalls;
+        }
+
+        public long getBreakerWindowMillis() {
+            return breakerWindowMillis;
+        }
+
+        public long getBreakerCooldownMillis() {
+            return breakerCooldownMillis;
+        }
+    }
+
     public static class HologramSettings {
         private final boolean enabled;
         private final String world;
@@ -185,8 +419,13 @@ public class CrashConfig {
         private final String chartSymbol;
         private final String chartEmptySymbol;
         private final double chartCurveStrength;
+        private final String path;
 
-        public HologramSettings(ConfigurationSection section) {
+        /**
+         * @param path where the location is saved by {@link #saveLocation}
+         */
+        public HologramSettings(ConfigurationSection section, String path) {
+            this.path = path;
             this.enabled = section.getBoolean("enabled", true);
             this.world = section.getString("world", "");
             this.x = section.getDouble("x", 0.0);
@@ -217,11 +456,21 @@ public class CrashConfig {
 
         public void saveLocation(JavaPlugin plugin, Location loc) {
             FileConfiguration cfg = plugin.getConfig();
-            cfg.set("hologram.world", loc.getWorld().getName());
-            cfg.set("hologram.x", loc.getX());
-            cfg.set("hologram.y", loc.getY());
-            cfg.set("hologram.z", loc.getZ());
-            cfg.set("hologram.yaw", loc.getYaw());
+            cfg.set(path + ".world", loc.getWorld().getName());
+            cfg.set(path + ".x", loc.getX());
+            cfg.set(path + ".y", loc.getY());
+            cfg.set(path + ".z", loc.getZ());
+            cfg.set(path + ".yaw", loc.getYaw());
+            plugin.saveConfig();
+        }
+
+        public void clearLocation(JavaPlugin plugin) {
+            FileConfiguration cfg = plugin.getConfig();
+            cfg.set(path + ".world", "");
+            cfg.set(path + ".x", 0.0);
+            cfg.set(path + ".y", 0.0);
+            cfg.set(path + ".z", 0.0);
+            cfg.set(path + ".yaw", 0.0F);
             plugin.saveConfig();
         }
 
@@ -324,6 +573,76 @@ public class CrashConfig {
         }
     }
 
+    public static class StatsSettings {
+        public enum Storage { YAML, JOURNAL, MAPPED, SQLITE }
+
+        private final Storage storage;
+        private final long flushIntervalTicks;
+        private final int flushDirtyThreshold;
+        private final int cacheSize;
+        private final int leaderboardSize;
+        private final int leaderboardMinGames;
+        private final String leaderboardTitle;
+        private final long journalGroupCommitMillis;
+        private final int journalCompactEvery;
+
+        public StatsSettings(ConfigurationSection section) {
+            this.storage = parseStorage(section != null ? section.getString("storage", "yaml") : "yaml");
+            this.flushIntervalTicks = (section != null ? section.getLong("flush-interval-seconds", 30) : 30) * 20L;
+            this.flushDirtyThreshold = section != null ? section.getInt("flush-dirty-threshold", 200) : 200;
+            this.cacheSize = section != null ? section.getInt("cache-size", 2000) : 2000;
+            this.leaderboardSize = section != null ? section.getInt("leaderboard.size", 100) : 100;
+            this.leaderboardMinGames = section != null ? section.getInt("leaderboard.min-games", 20) : 20;
+            this.leaderboardTitle = section != null ? section.getString("leaderboard.title", "&8Top Players - %category%") : "&8Top Players - %category%";
+            this.journalGroupCommitMillis = section != null ? section.getLong("journal.group-commit-ms", 20L) : 20L;
+            this.journalCompactEvery = section != null ? section.getInt("journal.compact-every", 50_000) : 50_000;
+        }
+
+        private static Storage parseStorage(String raw) {
+            try {
+                return Storage.valueOf(raw.trim().toUpperCase(Locale.ROOT));
+            } catch (IllegalArgumentException | NullPointerException ex) {
+                return Storage.YAML;
+            }
+        }
+
+        public Storage getStorage() {
+            return storage;
+        }
+
+        public long getFlushIntervalTicks() {
+            return flushIntervalTicks;
+        }
+
+        public int getFlushDirtyThreshold() {
+            return flushDirtyThreshold;
+        }
+
+        public int getCacheSize() {
+            return cacheSize;
+        }
+
+        public int getLeaderboardSize() {
+            return leaderboardSize;
+        }
+
+        public int getLeaderboardMinGames() {
+            return leaderboardMinGames;
+        }
+
+        public String getLeaderboardTitle() {
+            return leaderboardTitle;
+        }
+
+        public long getJournalGroupCommitMillis() {
+            return journalGroupCommitMillis;
+        }
+
+        public int getJournalCompactEvery() {
+            return journalCompactEvery;
+        }
+    }
+
     public static class Messages {
         private final String prefix;
         private final String reloaded;
@@ -342,6 +661,9 @@ public class CrashConfig {
         private final String start;
         private final String begin;
         private final String insufficientFunds;
+        private final String betPending;
+        private final String payoutFailed;
+        private final String economyPaused;
         private final String vaultMissing;
         private final String holoSet;
         private final String holoCleared;
@@ -354,6 +676,16 @@ public class CrashConfig {
         private final String rigSet;
         private final String rigTooLate;
         private final String rigTooLow;
+        private final String autoCashoutSet;
+        private final String invalidTarget;
+        private final String unknownArena;
+        private final String otherArena;
+        private final String rigFair;
+        private final String fairDisabled;
+        private final String fairCommitment;
+        private final String fairVerified;
+        private final String fairInvalid;
+        private final String fairUnknown;
 
         public Messages(ConfigurationSection section) {
             this.prefix = color(section.getString("prefix", ""));
@@ -373,6 +705,9 @@ public class CrashConfig {
             this.start = applyPrefix(section, "start", "Starting soon.");
             this.begin = applyPrefix(section, "begin", "Multiplier live!");
             this.insufficientFunds = applyPrefix(section, "insufficient-funds", "Insufficient funds.");
+            this.betPending = applyPrefix(section, "bet-pending", "Your last bet is still being processed.");
+            this.payoutFailed = applyPrefix(section, "payout-failed", "Your payout could not be paid.");
+            this.economyPaused = applyPrefix(section, "economy-paused", "Betting is paused while the economy is slow.");
             this.vaultMissing = applyPrefix(section, "vault-missing", "Vault missing.");
             this.holoSet = applyPrefix(section, "holo-set", "Hologram saved.");
             this.holoCleared = applyPrefix(section, "holo-cleared", "Hologram cleared.");
@@ -385,6 +720,16 @@ public class CrashConfig {
             this.rigSet = applyPrefix(section, "rig-set", "Rig set.");
             this.rigTooLate = applyPrefix(section, "rig-too-late", "Too late to rig.");
             this.rigTooLow = applyPrefix(section, "rig-too-low", "Too low.");
+            this.autoCashoutSet = applyPrefix(section, "auto-cashout-set", "Auto cash-out set.");
+            this.invalidTarget = applyPrefix(section, "invalid-target", "Invalid auto cash-out target.");
+            this.unknownArena = applyPrefix(section, "unknown-arena", "Unknown table.");
+            this.otherArena = applyPrefix(section, "other-arena", "You are already playing at another table.");
+            this.rigFair = applyPrefix(section, "rig-fair", "Rounds cannot be rigged in provably fair mode.");
+            this.fairDisabled = applyPrefix(section, "fair-disabled", "Provably fair mode is off.");
+            this.fairCommitment = applyPrefix(section, "fair-commitment", "Chain commitment: {hash}");
+            this.fairVerified = applyPrefix(section, "fair-verified", "Round verified.");
+            this.fairInvalid = applyPrefix(section, "fair-invalid", "Round does not match its hash chain.");
+            this.fairUnknown = applyPrefix(section, "fair-unknown", "No provably fair record for that round.");
         }
 
         private static String color(String input) {
@@ -442,6 +787,9 @@ public class CrashConfig {
         public String start() { return start; }
         public String begin() { return begin; }
         public String insufficientFunds() { return insufficientFunds; }
+        public String betPending() { return betPending; }
+        public String payoutFailed() { return payoutFailed; }
+        public String economyPaused() { return economyPaused; }
         public String vaultMissing() { return vaultMissing; }
         public String holoSet() { return holoSet; }
         public String holoCleared() { return holoCleared; }
@@ -454,5 +802,15 @@ public class CrashConfig {
         public String rigSet() { return rigSet; }
         public String rigTooLate() { return rigTooLate; }
         public String rigTooLow() { return rigTooLow; }
+        public String autoCashoutSet() { return autoCashoutSet; }
+        public String invalidTarget() { return invalidTarget; }
+        public String unknownArena() { return unknownArena; }
+        public String otherArena() { return otherArena; }
+        public String rigFair() { return rigFair; }
+        public String fairDisabled() { return fairDisabled; }
+        public String fairCommitment() { return fairCommitment; }
+        public String fairVerified() { return fairVerified; }
+        public String fairInvalid() { return fairInvalid; }
+        public String fairUnknown() { return fairUnknown; }
     }
 }
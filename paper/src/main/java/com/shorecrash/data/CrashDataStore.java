@@ -0,0 +1,376 @@
+package com.shorecrash.data;
+
+import com.shorecrash.util.Money;
+import org.bukkit.configuration.file.FileConfiguration;
+import org.bukkit.configuration.file.YamlConfiguration;
+import org.bukkit.plugin.java.JavaPlugin;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Archive of every settled round of one table.
+ * <p>
+ * Rounds are stored column-wise under {@code rounds/} ({@code rounds/<table>/} for every table but the first): one
+ * append-only file per field, row {@code i} of the archive being entry {@code i} of every column. Appending a round costs a few small writes on a background thread no matter
+ * how long the history is. The last {@code crash-history-size} rounds are kept in memory for {@link #recent};
+ * time range queries find their rows through a sparse index (the timestamp of every {@value #INDEX_STRIDE}th round)
+ * and read only the matching region of each column through memory mapping.
+ * <p>
+ * Money columns hold {@link Money} minor units. Archives from before that stored doubles in {@code pot.col},
+ * {@code paid_out.col} and {@code rake.col}; each is converted once into its {@code _minor} successor.
+ */
+public class CrashDataStore {
+    private static final int INDEX_STRIDE = 256;
+
+    private enum Column {
+        TIME(8, false), CRASH(8, false), POT(8, true), PLAYERS(4, false), PAID_OUT(8, true), RAKE(8, true);
+
+        final int width;
+        final boolean money;
+
+        Column(int width, boolean money) {
+            this.width = width;
+            this.money = money;
+        }
+
+        String fileName() {
+            return name().toLowerCase(Locale.ROOT) + (money ? "_minor.col" : ".col");
+        }
+
+        String legacyFileName() {
+            return name().toLowerCase(Locale.ROOT) + ".col";
+        }
+    }
+
+    private final JavaPlugin plugin;
+    private final File folder;
+    private final int maxSize;
+    private final Deque<RoundRecord> tail = new ArrayDeque<>();
+    private final ExecutorService writer;
+
+    // Owned by the writer thread once the constructor returns
+    private final FileChannel[] columns = new FileChannel[Column.values().length];
+    private final ByteBuffer[] rowBuffers = new ByteBuffer[Column.values().length];
+    private long rows;
+    private long lastTimestamp = Long.MIN_VALUE;
+    private long[] sparseTimes = new long[64];
+    private int sparseCount;
+    private boolean failed;
+
+    public CrashDataStore(JavaPlugin plugin, File folder, int historySize) {
+        this.plugin = plugin;
+        this.maxSize = Math.max(1, historySize);
+        this.folder = folder;
+        this.writer = Executors.newSingleThreadExecutor(r -> {
+            Thread thread = new Thread(r, "ShoreCrash-RoundArchive");
+            thread.setDaemon(true);
+            return thread;
+        });
+        for (Column column : Column.values()) {
+            rowBuffers[column.ordinal()] = ByteBuffer.allocate(column.width);
+        }
+        open();
+    }
+
+    public void record(RoundRecord round) {
+        tail.addLast(round);
+        while (tail.size() > maxSize) {
+            tail.pollFirst();
+        }
+        try {
+            writer.execute(() -> append(round));
+        } catch (RejectedExecutionException ex) {
+            plugin.getLogger().warning("Round archive already closed; round not saved.");
+        }
+    }
+
+    public List<RoundRecord> recent(int count) {
+        int take = Math.min(count, tail.size());
+        List<RoundRecord> out = new ArrayList<>(take);
+        int skip = tail.size() - take;
+        int idx = 0;
+        for (RoundRecord round : tail) {
+            if (idx++ < skip) continue;
+            out.add(round);
+        }
+        return out;
+    }
+
+    /**
+     * Rounds that crashed in {@code [fromMillis, toMillis)}, oldest first. Runs on the archive thread after any
+     * rounds still queued for writing.
+     */
+    public CompletableFuture<List<RoundRecord>> range(long fromMillis, long toMillis) {
+        try {
+            return CompletableFuture.supplyAsync(() -> query(fromMillis, toMillis), writer);
+        } catch (RejectedExecutionException ex) {
+            return CompletableFuture.completedFuture(List.of());
+        }
+    }
+
+    /**
+     * Waits for queued rounds to be written and closes the column files.
+     */
+    public void close() {
+        writer.shutdown();
+        try {
+            if (!writer.awaitTermination(10, TimeUnit.SECONDS)) {
+                plugin.getLogger().warning("Timed out waiting for the round archive to be written.");
+            }
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+        closeChannels(true);
+    }
+
+    private void open() {
+        try {
+            folder.mkdirs();
+            long complete = Long.MAX_VALUE;
+            for (Column column : Column.values()) {
+                if (column.money) {
+                    upgradeColumn(column);
+                }
+                FileChannel channel = FileChannel.open(new File(folder, column.fileName()).toPath(),
+                        StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+                columns[column.ordinal()] = channel;
+                complete = Math.min(complete, channel.size() / column.width);
+            }
+            // A crash mid-append can leave some columns one row ahead; drop the partial row
+            for (Column column : Column.values()) {
+                FileChannel channel = columns[column.ordinal()];
+                if (channel.size() != complete * column.width) {
+                    channel.truncate(complete * column.width);
+                }
+            }
+            rows = complete;
+            buildIndex();
+            tail.addAll(read(Math.max(0, rows - maxSize), rows));
+            if (!tail.isEmpty()) {
+                lastTimestamp = tail.peekLast().timestamp();
+            }
+            importLegacy();
+        } catch (IOException ex) {
+            plugin.getLogger().warning("Failed to open the round archive; rounds will not be saved: " + ex.getMessage());
+            failed = true;
+            closeChannels(false);
+        }
+    }
+
+    /**
+     * Converts a legacy double column into minor units. The new file appears only once complete, so a crash during
+     * the conversion just repeats it on the next start.
+     */
+    private void upgradeColumn(Column column) throws IOException {
+        File legacy = new File(folder, column.legacyFileName());
+        File current = new File(folder, column.fileName());
+        if (!legacy.exists()) {
+            return;
+        }
+        if (!current.exists()) {
+            ByteBuffer values = ByteBuffer.wrap(Files.readAllBytes(legacy.toPath()));
+            int count = values.limit() / column.width;
+            for (int i = 0; i < count; i++) {
+                values.putLong(i * column.width, Money.fromDouble(values.getDouble(i * column.width)));
+            }
+            File tmp = new File(folder, column.fileName() + ".tmp");
+            Files.write(tmp.toPath(), values.array());
+            try {
+                Files.move(tmp.toPath(), current.toPath(), StandardCopyOption.ATOMIC_MOVE);
+            } catch (AtomicMoveNotSupportedException ex) {
+                Files.move(tmp.toPath(), current.toPath());
+            }
+        }
+        Files.delete(legacy.toPath());
+    }
+
+    /**
+     * Moves the crash multipliers of the old crashdata.yml into the archive on first start.
+     */
+    private void importLegacy() throws IOException {
+        File legacy = new File(plugin.getDataFolder(), "crashdata.yml");
+        if (rows > 0 || !legacy.exists()) {
+            return;
+        }
+        FileConfiguration cfg = YamlConfiguration.loadConfiguration(legacy);
+        long timestamp = legacy.lastModified();
+        List<Double> crashes = cfg.getDoubleList("crashes");
+        for (double crash : crashes) {
+            RoundRecord round = new RoundRecord(timestamp, crash, 0, 0, 0, 0);
+            append(round);
+            tail.addLast(round);
+        }
+        while (tail.size() > maxSize) {
+            tail.pollFirst();
+        }
+        if (failed) {
+            throw new IOException("could not import crashdata.yml");
+        }
+        if (!legacy.renameTo(new File(plugin.getDataFolder(), "crashdata.yml.old"))) {
+            plugin.getLogger().warning("Could not rename crashdata.yml after importing it.");
+        }
+        plugin.getLogger().info("Imported " + crashes.size() + " crash results from crashdata.yml into the round archive.");
+    }
+
+    private void append(RoundRecord round) {
+        if (failed) {
+            return;
+        }
+        long timestamp = Math.max(round.timestamp(), lastTimestamp); // keep the time column sorted if the clock steps back
+        try {
+            put(Column.TIME).putLong(timestamp);
+            put(Column.CRASH).putDouble(round.crashPoint());
+            put(Column.POT).putLong(round.pot());
+            put(Column.PLAYERS).putInt(round.players());
+            put(Column.PAID_OUT).putLong(round.paidOut());
+            put(Column.RAKE).putLong(round.rake());
+            for (Column column : Column.values()) {
+                ByteBuffer buf = rowBuffers[column.ordinal()];
+                buf.flip();
+                long position = rows * column.width;
+                while (buf.hasRemaining()) {
+                    position += columns[column.ordinal()].write(buf, position);
+                }
+            }
+        } catch (IOException ex) {
+            failed = true;
+            plugin.getLogger().warning("Failed to append to the round archive; archiving stopped until restart: " + ex.getMessage());
+            return;
+        }
+        if (rows % INDEX_STRIDE == 0) {
+            addIndex(timestamp);
+        }
+        rows++;
+        lastTimestamp = timestamp;
+    }
+
+    private ByteBuffer put(Column column) {
+        ByteBuffer buf = rowBuffers[column.ordinal()];
+        buf.clear();
+        return buf;
+    }
+
+    private List<RoundRecord> query(long fromMillis, long toMillis) {
+        if (columns[0] == null || rows == 0 || fromMillis >= toMillis) {
+            return List.of();
+        }
+        try {
+            return read(lowerBound(fromMillis), lowerBound(toMillis));
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+    }
+
+    private void buildIndex() throws IOException {
+        sparseCount = 0;
+        if (rows == 0) {
+            return;
+        }
+        MappedByteBuffer times = map(Column.TIME, 0, rows);
+        for (long row = 0; row < rows; row += INDEX_STRIDE) {
+            addIndex(times.getLong((int) (row * Column.TIME.width)));
+        }
+    }
+
+    private void addIndex(long timestamp) {
+        if (sparseCount == sparseTimes.length) {
+            sparseTimes = Arrays.copyOf(sparseTimes, sparseCount * 2);
+        }
+        sparseTimes[sparseCount++] = timestamp;
+    }
+
+    /**
+     * First row whose timestamp is at least {@code time}, or {@code rows} if there is none. The sparse index narrows
+     * the search to one stride, which is then binary searched in the mapped time column.
+     */
+    private long lowerBound(long time) throws IOException {
+        int lo = 0;
+        int hi = sparseCount;
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (sparseTimes[mid] < time) {
+                lo = mid + 1;
+            } else {
+                hi = mid;
+            }
+        }
+        if (lo == 0) {
+            return 0;
+        }
+        long start = (long) (lo - 1) * INDEX_STRIDE;
+        long end = Math.min(rows, (long) lo * INDEX_STRIDE);
+        MappedByteBuffer times = map(Column.TIME, start, end);
+        int low = 0;
+        int high = (int) (end - start);
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (times.getLong(mid * Column.TIME.width) < time) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return start + low;
+    }
+
+    private List<RoundRecord> read(long start, long end) throws IOException {
+        int count = Math.toIntExact(end - start);
+        if (count <= 0) {
+            return new ArrayList<>();
+        }
+        MappedByteBuffer time = map(Column.TIME, start, end);
+        MappedByteBuffer crash = map(Column.CRASH, start, end);
+        MappedByteBuffer pot = map(Column.POT, start, end);
+        MappedByteBuffer players = map(Column.PLAYERS, start, end);
+        MappedByteBuffer paidOut = map(Column.PAID_OUT, start, end);
+        MappedByteBuffer rake = map(Column.RAKE, start, end);
+        List<RoundRecord> out = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            out.add(new RoundRecord(time.getLong(i * 8), crash.getDouble(i * 8), pot.getLong(i * 8),
+                    players.getInt(i * 4), paidOut.getLong(i * 8), rake.getLong(i * 8)));
+        }
+        return out;
+    }
+
+    private MappedByteBuffer map(Column column, long startRow, long endRow) throws IOException {
+        return columns[column.ordinal()].map(FileChannel.MapMode.READ_ONLY, startRow * column.width, (endRow - startRow) * column.width);
+    }
+
+    private void closeChannels(boolean force) {
+        for (int i = 0; i < columns.length; i++) {
+            FileChannel channel = columns[i];
+            if (channel == null) {
+                continue;
+            }
+            try {
+                if (force) {
+                    channel.force(false);
+                }
+                channel.close();
+            } catch (IOException ex) {
+                plugin.getLogger().warning("Failed to close the round archive: " + ex.getMessage());
+            }
+            columns[i] = null;
+        }
+    }
+}
@@ -0,0 +1,14 @@
+package com.shorecrash.data;
+
+/**
+ * One settled round as stored in the round archive. Amounts are {@link com.shorecrash.util.Money} minor units.
+ *
+ * @param timestamp  crash time in epoch millis
+ * @param crashPoint multiplier the round crashed at
+ * @param pot        sum of all bets placed in the round
+ * @param players    number of bets in the round
+ * @param paidOut    total paid to players who cashed out
+ * @param rake       house edge withheld from cashouts
+ */
+public record RoundRecord(long timestamp, double crashPoint, long pot, int players, long paidOut, long rake) {
+}
@@ -0,0 +1,117 @@
+package com.shorecrash.economy;
+
+import com.shorecrash.config.CrashConfig;
+
+import java.util.Locale;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Pauses new bets while the economy provider is slow or failing.
+ * <p>
+ * Every provider call is recorded into a window that restarts every {@code breaker.window-seconds}. Once the window
+ * has {@code min-calls} samples, a p99 above {@code max-p99-ms} or an error rate above {@code max-error-rate} opens
+ * the breaker for {@code cooldown-seconds}. After the cooldown bets are let through again with a fresh window, so the
+ * next calls decide whether it stays closed.
+ */
+public final class CircuitBreaker {
+    public enum State { CLOSED, OPEN }
+
+    private final boolean enabled;
+    private final double maxP99Micros;
+    private final double maxErrorRate;
+    private final int minCalls;
+    private final long windowMillis;
+    private final long cooldownMillis;
+    private final LatencyHistogram window = new LatencyHistogram();
+    private final LongAdder windowErrors = new LongAdder();
+
+    // Guarded by this
+    private State state = State.CLOSED;
+    private long windowStartedAt = System.currentTimeMillis();
+    private long openUntil;
+    private String reason = "";
+    private long trips;
+
+    public CircuitBreaker(CrashConfig.EconomySettings settings) {
+        this.enabled = settings.isBreakerEnabled();
+        this.maxP99Micros = settings.getBreakerMaxP99Millis() * 1000.0;
+        this.maxErrorRate = settings.getBreakerMaxErrorRate();
+        this.minCalls = Math.max(1, settings.getBreakerMinCalls());
+        this.windowMillis = Math.max(1000L, settings.getBreakerWindowMillis());
+        this.cooldownMillis = Math.max(1000L, settings.getBreakerCooldownMillis());
+    }
+
+    /**
+     * Called from any thread after each provider call.
+     */
+    public void record(long micros, boolean failed) {
+        window.record(micros);
+        if (failed) {
+            windowErrors.increment();
+        }
+    }
+
+    public synchronized boolean allowRequest() {
+        if (!enabled) {
+            return true;
+        }
+        long now = System.currentTimeMillis();
+        if (state == State.OPEN) {
+            if (now < openUntil) {
+                return false;
+            }
+            state = State.CLOSED;
+            restartWindow(now);
+        }
+        if (now - windowStartedAt >= windowMillis) {
+            restartWindow(now);
+        }
+        long calls = window.count();
+        if (calls >= minCalls) {
+            long p99 = window.percentileMicros(0.99);
+            double errorRate = (double) windowErrors.sum() / calls;
+            if (p99 > maxP99Micros) {
+                open(now, String.format(Locale.ROOT, "p99 %.1f ms over %d calls", p99 / 1000.0, calls));
+            } else if (errorRate > maxErrorRate) {
+                open(now, String.format(Locale.ROOT, "%.0f%% errors over %d calls", errorRate * 100.0, calls));
+            }
+        }
+        return state == State.CLOSED;
+    }
+
+    private void open(long now, String why) {
+        state = State.OPEN;
+        openUntil = now + cooldownMillis;
+        reason = why;
+        trips++;
+    }
+
+    private void restartWindow(long now) {
+        window.reset();
+        windowErrors.reset();
+        windowStartedAt = now;
+    }
+
+    public synchronized State getState() {
+        return state;
+    }
+
+    /**
+     * Why the breaker last opened; empty if it never did.
+     */
+    public synchronized String getReason() {
+        return reason;
+    }
+
+    public synchronized long getTrips() {
+        return trips;
+    }
+
+    public synchronized long getRemainingMillis() {
+        return state == State.OPEN ? Math.max(0L, openUntil - System.currentTimeMillis()) : 0L;
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+}
@@ -0,0 +1,461 @@
+package com.shorecrash.economy;
+
+import com.shorecrash.config.CrashConfig;
+import com.shorecrash.util.Money;
+import com.shorecrash.util.Schedulers;
+import net.milkbowl.vault.economy.Economy;
+import net.milkbowl.vault.economy.EconomyResponse;
+import org.bukkit.OfflinePlayer;
+import org.bukkit.entity.Player;
+import org.bukkit.plugin.java.JavaPlugin;
+
+import java.text.DecimalFormat;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+
+/**
+ * Thin wrapper around Vault economy to allow the plugin to run without Vault present. Amounts are {@link Money} minor
+ * units; they only become {@code double}s in the calls to Vault.
+ * <p>
+ * Every call returns a future. In the default synchronous mode Vault runs on the calling thread and the future is
+ * already complete. With {@code game.economy.async} Vault runs on a bounded pool; operations of one player are
+ * chained so they reach the provider in submission order, while different players proceed in parallel. When the
+ * pool's queue is full (or the service is closing) the caller runs the operation itself, which slows the game down
+ * instead of dropping money.
+ * <p>
+ * Bets placed while waiting only {@link #reserve} funds against a short-lived balance cache; the game
+ * {@link #commit}s each player's stake with one withdrawal when the round starts.
+ * <p>
+ * Each provider call is timed into a per-operation {@link LatencyHistogram} and fed to a {@link CircuitBreaker}
+ * that pauses new bets. In async mode balance checks and withdrawals can be given a time limit: the caller sees a
+ * failure and a withdrawal that still succeeds later is paid back. Deposits are never abandoned; failed ones are
+ * retried with backoff.
+ */
+public class EconomyService {
+    public enum Operation { BALANCE, WITHDRAW, DEPOSIT }
+
+    public record OperationStats(Operation operation, long calls, long errors, long timeouts, long p50Micros,
+                                 long p90Micros, long p99Micros, long maxMicros) {}
+
+    private final boolean enabled;
+    private final Economy economy;
+    private final DecimalFormat formatter;
+    private final JavaPlugin plugin;
+    private final Schedulers scheduler;
+    private final ThreadPoolExecutor executor;
+    private final Map<UUID, CompletableFuture<?>> tails = new ConcurrentHashMap<>();
+    private final Map<UUID, Account> accounts = new ConcurrentHashMap<>();
+    private final long balanceTtlMillis;
+    private final long timeoutMillis;
+    private final int depositRetries;
+    private final Map<Operation, OperationMetrics> metrics = new EnumMap<>(Operation.class);
+    private final CircuitBreaker breaker;
+    private final AtomicInteger pendingRetries = new AtomicInteger();
+    private volatile boolean closed;
+
+    public EconomyService(JavaPlugin plugin, boolean enabled, Economy economy, DecimalFormat formatter,
+                          CrashConfig.EconomySettings settings) {
+        this.plugin = plugin;
+        this.scheduler = new Schedulers(plugin);
+        this.enabled = enabled && economy != null;
+        this.economy = economy;
+        this.formatter = formatter;
+        this.executor = this.enabled && settings.isAsync()
+                ? createExecutor(Math.max(1, settings.getThreads()), Math.max(16, settings.getQueueSize())) : null;
+        this.balanceTtlMillis = Math.max(0L, settings.getBalanceCacheMillis());
+        this.timeoutMillis = Math.max(0L, settings.getTimeoutMillis());
+        this.depositRetries = Math.max(0, settings.getDepositRetries());
+        this.breaker = new CircuitBreaker(settings);
+        for (Operation operation : Operation.values()) {
+            metrics.put(operation, new OperationMetrics());
+        }
+    }
+
+    private static ThreadPoolExecutor createExecutor(int threads, int queueSize) {
+        AtomicInteger counter = new AtomicInteger();
+        return new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS, new ArrayBlockingQueue<>(queueSize), r -> {
+            Thread thread = new Thread(r, "ShoreCrash-Economy-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        }, (task, pool) -> task.run()); // queue full or shutting down: run on the caller rather than drop it
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public boolean isAsync() {
+        return executor != null;
+    }
+
+    public String format(long amount) {
+        return formatter.format(Money.toDecimal(amount));
+    }
+
+    /**
+     * False while the circuit breaker is open; new bets should be refused.
+     */
+    public boolean isAcceptingBets() {
+        return !enabled || breaker.allowRequest();
+    }
+
+    public CircuitBreaker getBreaker() {
+        return breaker;
+    }
+
+    public String getProviderName() {
+        return economy == null ? "none" : economy.getName();
+    }
+
+    public int getQueuedOperations() {
+        return executor == null ? 0 : executor.getQueue().size();
+    }
+
+    public int getPendingRetries() {
+        return pendingRetries.get();
+    }
+
+    public List<OperationStats> getStats() {
+        List<OperationStats> out = new ArrayList<>();
+        for (Map.Entry<Operation, OperationMetrics> entry : metrics.entrySet()) {
+            OperationMetrics m = entry.getValue();
+            out.add(new OperationStats(entry.getKey(), m.latency.count(), m.errors.sum(), m.timeouts.sum(),
+                    m.latency.percentileMicros(0.50), m.latency.percentileMicros(0.90),
+                    m.latency.percentileMicros(0.99), m.latency.maxMicros()));
+        }
+        return out;
+    }
+
+    /**
+     * Takes {@code amount} if the player can afford it; completes with false otherwise or on failure.
+     */
+    public CompletableFuture<Boolean> withdraw(Player player, long amount) {
+        if (!enabled) {
+            return CompletableFuture.completedFuture(true);
+        }
+        return limit(Operation.WITHDRAW, submit(player.getUniqueId(), () -> withdrawNow(player, amount)),
+                () -> deposit(player, amount));
+    }
+
+    /**
+     * Pays {@code amount} to the player. A failed deposit is retried up to {@code deposit-retries} times with
+     * growing delays; completes with false only once every attempt failed (already logged).
+     */
+    public CompletableFuture<Boolean> deposit(OfflinePlayer player, long amount) {
+        if (!enabled) {
+            return CompletableFuture.completedFuture(true);
+        }
+        CompletableFuture<Boolean> result = new CompletableFuture<>();
+        depositAttempt(player, amount, 0, result);
+        return result;
+    }
+
+    private void depositAttempt(OfflinePlayer player, long amount, int attempt, CompletableFuture<Boolean> result) {
+        submit(player.getUniqueId(), () -> depositNow(player, amount)).whenComplete((ok, error) -> {
+            if (Boolean.TRUE.equals(ok)) {
+                result.complete(true);
+                return;
+            }
+            if (attempt >= depositRetries || closed || !plugin.isEnabled()) {
+                plugin.getLogger().severe("Gave up paying " + format(amount) + " to " + player.getName() + " ("
+                        + player.getUniqueId() + ") after " + (attempt + 1) + " attempts.");
+                result.complete(false);
+                return;
+            }
+            long delayTicks = 20L << Math.min(attempt, 5); // 1s, 2s, 4s ... 32s
+            plugin.getLogger().warning("Retrying deposit of " + format(amount) + " to " + player.getName() + " in "
+                    + delayTicks / 20L + "s.");
+            pendingRetries.incrementAndGet();
+            scheduler.globalLater(() -> {
+                pendingRetries.decrementAndGet();
+                depositAttempt(player, amount, attempt + 1, result);
+            }, delayTicks);
+        });
+    }
+
+    /**
+     * Sets {@code amount} aside from the player's balance without touching the provider. The balance comes from a
+     * cache that is refreshed (on the economy pool when async) once older than {@code balance-cache-seconds}.
+     * Completes with false if the unreserved balance is too low. Reserved money is taken by {@link #commit} or given
+     * back by {@link #release}.
+     */
+    public CompletableFuture<Boolean> reserve(Player player, long amount) {
+        if (!enabled) {
+            return CompletableFuture.completedFuture(true);
+        }
+        UUID id = player.getUniqueId();
+        Account account = accounts.computeIfAbsent(id, k -> new Account());
+        synchronized (account) {
+            if (account.isFresh(balanceTtlMillis)) {
+                return CompletableFuture.completedFuture(account.tryReserve(amount));
+            }
+        }
+        return limit(Operation.BALANCE, submit(id, () -> {
+            synchronized (account) {
+                if (account.isFresh(balanceTtlMillis)) {
+                    return account.tryReserve(amount); // refreshed by an earlier queued reservation
+                }
+            }
+            long balance;
+            try {
+                balance = Money.fromDouble(timed(Operation.BALANCE, () -> economy.getBalance(player)));
+            } catch (Exception ex) {
+                plugin.getLogger().warning("Economy balance lookup failed for " + player.getName() + ": " + ex.getMessage());
+                return false;
+            }
+            synchronized (account) {
+                account.refresh(balance);
+                return account.tryReserve(amount);
+            }
+        }), () -> release(id, amount));
+    }
+
+    /**
+     * Gives back reserved money that will not be committed (bet lowered, cancelled or abandoned).
+     */
+    public void release(UUID id, long amount) {
+        Account account = accounts.get(id);
+        if (account == null) {
+            return;
+        }
+        synchronized (account) {
+            account.reserved = Math.max(0L, account.reserved - amount);
+        }
+    }
+
+    /**
+     * Withdraws reserved money in a single provider call. Completes with false if the provider refused, e.g. because
+     * the balance was spent elsewhere after it was cached; the reservation is dropped either way.
+     */
+    public CompletableFuture<Boolean> commit(Player player, long amount) {
+        if (!enabled) {
+            return CompletableFuture.completedFuture(true);
+        }
+        Account account = accounts.computeIfAbsent(player.getUniqueId(), k -> new Account());
+        return limit(Operation.WITHDRAW, submit(player.getUniqueId(), () -> {
+            boolean ok;
+            try {
+                ok = timed(Operation.WITHDRAW, () -> economy.withdrawPlayer(player, Money.toDouble(amount))).transactionSuccess();
+            } catch (Exception ex) {
+                plugin.getLogger().warning("Economy withdraw failed for " + player.getName() + ": " + ex.getMessage());
+                ok = false;
+            }
+            synchronized (account) {
+                account.reserved = Math.max(0L, account.reserved - amount);
+                if (ok) {
+                    account.balance -= amount;
+                } else {
+                    account.fetchedAt = 0L; // our view of the balance was wrong
+                }
+            }
+            return ok;
+        }), () -> deposit(player, amount));
+    }
+
+    /**
+     * Drops the cached balance of a player who left. Any reservation is abandoned with it.
+     */
+    public void forget(UUID id) {
+        accounts.remove(id);
+    }
+
+    private boolean withdrawNow(Player player, long amount) {
+        try {
+            if (Money.fromDouble(timed(Operation.BALANCE, () -> economy.getBalance(player))) < amount) {
+                return false;
+            }
+            EconomyResponse response = timed(Operation.WITHDRAW, () -> economy.withdrawPlayer(player, Money.toDouble(amount)));
+            if (!response.transactionSuccess()) {
+                plugin.getLogger().warning("Economy refused to withdraw from " + player.getName() + ": " + response.errorMessage);
+                invalidateCachedBalance(player.getUniqueId());
+                return false;
+            }
+            adjustCachedBalance(player.getUniqueId(), -amount);
+            return true;
+        } catch (Exception ex) {
+            plugin.getLogger().warning("Economy withdraw failed for " + player.getName() + ": " + ex.getMessage());
+            return false;
+        }
+    }
+
+    private boolean depositNow(OfflinePlayer player, long amount) {
+        try {
+            // a refused deposit is a provider failure: it is retried and counts towards the circuit breaker
+            EconomyResponse response = timed(Operation.DEPOSIT, () -> economy.depositPlayer(player, Money.toDouble(amount)),
+                    EconomyResponse::transactionSuccess);
+            if (!response.transactionSuccess()) {
+                plugin.getLogger().warning("Economy refused to deposit to " + player.getName() + ": " + response.errorMessage);
+                return false;
+            }
+            adjustCachedBalance(player.getUniqueId(), amount);
+            return true;
+        } catch (Exception ex) {
+            plugin.getLogger().warning("Economy deposit failed for " + player.getName() + ": " + ex.getMessage());
+            return false;
+        }
+    }
+
+    private <T> T timed(Operation operation, Supplier<T> call) {
+        return timed(operation, call, result -> true);
+    }
+
+    /**
+     * Runs a provider call, recording its latency and counting it as an error if it throws or {@code succeeded}
+     * rejects its result.
+     */
+    private <T> T timed(Operation operation, Supplier<T> call, Predicate<T> succeeded) {
+        long started = System.nanoTime();
+        boolean failed = true;
+        try {
+            T result = call.get();
+            failed = !succeeded.test(result);
+            return result;
+        } finally {
+            long micros = (System.nanoTime() - started) / 1000L;
+            OperationMetrics m = metrics.get(operation);
+            m.latency.record(micros);
+            if (failed) {
+                m.errors.increment();
+            }
+            breaker.record(micros, failed);
+        }
+    }
+
+    /**
+     * Applies {@code timeout-ms} to an async call. After the limit the caller gets false; if the call then succeeds
+     * anyway, {@code undo} reverses it.
+     */
+    private CompletableFuture<Boolean> limit(Operation operation, CompletableFuture<Boolean> call, Runnable undo) {
+        if (executor == null || timeoutMillis <= 0 || call.isDone()) {
+            return call;
+        }
+        CompletableFuture<Boolean> result = new CompletableFuture<>();
+        call.whenComplete((ok, error) -> {
+            boolean first = error == null ? result.complete(ok) : result.completeExceptionally(error);
+            if (!first && Boolean.TRUE.equals(ok)) {
+                plugin.getLogger().warning("Economy " + operation.name().toLowerCase(Locale.ROOT)
+                        + " finished after its " + timeoutMillis + " ms limit; reversing it.");
+                undo.run();
+            }
+        });
+        CompletableFuture.delayedExecutor(timeoutMillis, TimeUnit.MILLISECONDS).execute(() -> {
+            if (result.complete(false)) {
+                metrics.get(operation).timeouts.increment();
+                breaker.record(timeoutMillis * 1000L, true); // a hung provider would otherwise never report
+            }
+        });
+        return result;
+    }
+
+    private CompletableFuture<Boolean> submit(UUID id, Supplier<Boolean> operation) {
+        if (executor == null) {
+            return CompletableFuture.completedFuture(operation.get());
+        }
+        CompletableFuture<Boolean> next = new CompletableFuture<>();
+        CompletableFuture<?> previous = tails.put(id, next);
+        Runnable run = () -> executor.execute(() -> {
+            try {
+                next.complete(operation.get());
+            } catch (RuntimeException ex) {
+                next.completeExceptionally(ex);
+            }
+        });
+        if (previous == null) {
+            run.run();
+        } else {
+            previous.whenComplete((result, error) -> run.run());
+        }
+        next.whenComplete((result, error) -> tails.remove(id, next));
+        return next;
+    }
+
+    private void adjustCachedBalance(UUID id, long change) {
+        Account account = accounts.get(id);
+        if (account == null) {
+            return;
+        }
+        synchronized (account) {
+            account.balance += change;
+        }
+    }
+
+    /**
+     * Forces the next balance check to ask the provider, after it disagreed with our view of the balance.
+     */
+    private void invalidateCachedBalance(UUID id) {
+        Account account = accounts.get(id);
+        if (account == null) {
+            return;
+        }
+        synchronized (account) {
+            account.fetchedAt = 0L;
+        }
+    }
+
+    /**
+     * Waits for queued operations so refunds and payouts are not lost on disable or reload.
+     */
+    public void close() {
+        closed = true;
+        if (pendingRetries.get() > 0) {
+            plugin.getLogger().severe(pendingRetries.get() + " failed deposits were still waiting for a retry and were not paid; see the warnings above.");
+        }
+        if (executor == null) {
+            return;
+        }
+        executor.shutdown();
+        try {
+            if (!executor.awaitTermination(10, TimeUnit.SECONDS)) {
+                plugin.getLogger().warning("Timed out waiting for economy operations; " + tails.size() + " players still pending.");
+            }
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static final class OperationMetrics {
+        private final LatencyHistogram latency = new LatencyHistogram();
+        private final LongAdder errors = new LongAdder();
+        private final LongAdder timeouts = new LongAdder();
+    }
+
+    /**
+     * Cached balance and reserved funds of one player. Guarded by its own monitor since reservations happen on the
+     * main thread and refreshes on the economy pool.
+     */
+    private static final class Account {
+        private long balance;
+        private long reserved;
+        private long fetchedAt;
+
+        private boolean isFresh(long ttlMillis) {
+            return fetchedAt != 0L && System.currentTimeMillis() - fetchedAt < ttlMillis;
+        }
+
+        private void refresh(long balance) {
+            this.balance = balance;
+            this.fetchedAt = System.currentTimeMillis();
+        }
+
+        private boolean tryReserve(long amount) {
+            if (balance - reserved < amount) {
+                return false;
+            }
+            reserved += amount;
+            return true;
+        }
+    }
+}
@@ -0,0 +1,134 @@
+package com.shorecrash.game;
+
+import com.shorecrash.util.Schedulers;
+import io.papermc.paper.threadedregions.scheduler.ScheduledTask;
+import org.bukkit.Location;
+import org.bukkit.entity.Player;
+import org.bukkit.plugin.java.JavaPlugin;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * The crash tables running on this server and the single global-region task that drives them.
+ * <p>
+ * Each table updates every {@code tick-interval-ticks}, but the tables are given evenly spread phase offsets so
+ * they do not all render their holograms and graphs in the same server tick. Player commands are routed to the
+ * table the player already has a bet at, otherwise to the nearest table in their world.
+ */
+public class ArenaManager {
+    private final Schedulers scheduler;
+    private final List<CrashGame> games = new ArrayList<>();
+    private ScheduledTask task;
+    private long ticks;
+
+    public ArenaManager(JavaPlugin plugin) {
+        this.scheduler = new Schedulers(plugin);
+    }
+
+    public void add(CrashGame game) {
+        games.add(game);
+    }
+
+    public void start() {
+        games.forEach(CrashGame::start);
+        int[] phases = new int[games.size()];
+        for (int i = 0; i < phases.length; i++) {
+            int interval = interval(games.get(i));
+            phases[i] = (int) ((long) i * interval / phases.length) % interval;
+        }
+        task = scheduler.globalTimer(() -> {
+            ticks++;
+            for (int i = 0; i < games.size(); i++) {
+                if ((ticks + phases[i]) % interval(games.get(i)) == 0) {
+                    games.get(i).tick();
+                }
+            }
+        }, 1L, 1L);
+    }
+
+    public void stop() {
+        if (task != null) {
+            task.cancel();
+            task = null;
+        }
+        games.forEach(CrashGame::stop);
+    }
+
+    private static int interval(CrashGame game) {
+        return Math.max(1, game.getConfigModel().game().getTickInterval());
+    }
+
+    public List<CrashGame> all() {
+        return Collections.unmodifiableList(games);
+    }
+
+    /**
+     * The first configured table; used for server-wide views such as stats and leaderboards.
+     */
+    public CrashGame primary() {
+        return games.get(0);
+    }
+
+    public boolean isSingle() {
+        return games.size() == 1;
+    }
+
+    public CrashGame find(String name) {
+        for (CrashGame game : games) {
+            if (game.getName().equalsIgnoreCase(name)) {
+                return game;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * The table where the player has a bet (or one still being placed), or null.
+     */
+    public CrashGame active(UUID playerId) {
+        for (CrashGame game : games) {
+            if (game.hasBet(playerId)) {
+                return game;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * The table a player most likely means: the one they are playing at, else the closest one in their world, else
+     * the primary table.
+     */
+    public CrashGame route(Player player) {
+        CrashGame active = active(player.getUniqueId());
+        if (active != null) {
+            return active;
+        }
+        if (isSingle()) {
+            return primary();
+        }
+        Location at = player.getLocation();
+        CrashGame nearest = primary();
+        double best = Double.MAX_VALUE;
+        for (CrashGame game : games) {
+            Location table = game.getConfigModel().hologram().getLocation();
+            if (table == null || table.getWorld() == null || !table.getWorld().equals(at.getWorld())) {
+                continue;
+            }
+            double distance = table.distanceSquared(at);
+            if (distance < best) {
+                best = distance;
+                nearest = game;
+            }
+        }
+        return nearest;
+    }
+
+    public List<String> names() {
+        List<String> names = new ArrayList<>(games.size());
+        games.forEach(game -> names.add(game.getName()));
+        return names;
+    }
+}
@@ -0,0 +1,1331 @@
+package com.shorecrash.game;
+
+import com.shorecrash.config.CrashConfig;
+import com.shorecrash.data.CrashDataStore;
+import com.shorecrash.data.RoundRecord;
+import com.shorecrash.economy.EconomyService;
+import com.shorecrash.fair.ProvablyFair;
+import com.shorecrash.holo.HologramManager;
+import com.shorecrash.ledger.BetLedger;
+import com.shorecrash.ledger.LedgerAction;
+import com.shorecrash.stats.Leaderboard;
+import com.shorecrash.stats.RollingStats;
+import com.shorecrash.stats.RoundResults;
+import com.shorecrash.stats.StatsInventoryHolder;
+import com.shorecrash.stats.StatsService;
+import com.shorecrash.util.Money;
+import com.shorecrash.util.Schedulers;
+import org.bukkit.Bukkit;
+import org.bukkit.ChatColor;
+import org.bukkit.Location;
+import org.bukkit.Material;
+import org.bukkit.OfflinePlayer;
+import org.bukkit.entity.EntityType;
+import org.bukkit.entity.ItemDisplay;
+import org.bukkit.entity.Player;
+import org.bukkit.inventory.Inventory;
+import org.bukkit.inventory.InventoryHolder;
+import org.bukkit.inventory.ItemStack;
+import org.bukkit.inventory.meta.ItemMeta;
+import org.bukkit.inventory.meta.SkullMeta;
+import org.bukkit.enchantments.Enchantment;
+import org.bukkit.inventory.ItemFlag;
+import org.bukkit.util.Transformation;
+import org.bukkit.util.Vector;
+import org.joml.Quaternionf;
+import org.joml.Vector3f;
+import org.bukkit.plugin.java.JavaPlugin;
+
+import java.io.File;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.Queue;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.stream.Collectors;
+
+/**
+ * One crash table. All of its state, like the stats and economy bookkeeping it calls into, belongs to the global
+ * region thread (the main thread on Paper); commands and async callbacks hand work over through
+ * {@link Schedulers#global}. The graph entities are the exception and are only touched on the region thread that
+ * owns them.
+ */
+public class CrashGame {
+    private static final int TOP_GUI_SIZE = 54;
+    private static final int TOP_PAGE_SIZE = 45;
+    private static final int TOP_PREVIOUS_SLOT = 45;
+    private static final int TOP_CATEGORY_SLOT = 47;
+    private static final int TOP_NEXT_SLOT = 53;
+    private static final double GRAPH_SPACING = 0.10; // slightly tighter spacing for smoother travel
+
+    private record LeaderboardPage(long version, ItemStack[] contents) {}
+
+    private final JavaPlugin plugin;
+    private final Schedulers scheduler;
+    private final String name;
+    private final CrashConfig config;
+    private final HologramManager hologram;
+    private final EconomyService economy;
+    private final StatsService stats;
+    private final CrashDataStore crashData;
+    private final BetLedger ledger;
+    private final ArrayDeque<Double> multiplierHistory = new ArrayDeque<>();
+    private final List<ItemDisplay> graphBlocks = new ArrayList<>(); // graph region thread only
+    private final Map<UUID, Long> actionCooldown = new ConcurrentHashMap<>(); // checked on the command thread
+    private double lastPlottedMultiplier = 0.0;
+    private long lastGraphSpawnAt = 0L;
+    private long lastHologramPushAt = 0L;
+
+    private final Map<String, LeaderboardPage> leaderboardPages = new HashMap<>();
+    private final BetBook bets = new BetBook();
+    private long renderedPlayersVersion = -1L;
+    private String renderedPlayers;
+    private final Set<UUID> pendingBets = ConcurrentHashMap.newKeySet(); // withdrawals still running on the economy pool
+    // Player actions from any command thread, handled by tick(); queuedBets makes a queued bet count for hasBet
+    private final Queue<PlayerIntent> intents = new ConcurrentLinkedQueue<>();
+    private final Set<UUID> queuedBets = ConcurrentHashMap.newKeySet();
+    private final RoundResults settlement = new RoundResults(); // deferred mode: bets settled this round
+    // Bets with an auto cash-out, lowest target first; stale entries (cancelled or settled bets) are skipped on poll
+    private final PriorityQueue<Bet> autoCashouts = new PriorityQueue<>((a, b) -> Long.compare(a.getAutoCashoutUnits(), b.getAutoCashoutUnits()));
+    private RoundState state = RoundState.WAITING; // as last applied from the clock
+    private GameClock clock;
+    private ProvablyFair fair; // null unless game.provably-fair is enabled
+    private long nextStartAt;
+    private long roundId;
+    private long roundStartedAt;
+    private double crashMultiplier;
+    private double currentMultiplier;
+    private Location graphBase;
+    private Location plottedBase; // where the blocks of graphCount were spawned
+    private int graphCount;
+    private boolean stopped;
+    private boolean syncing;
+
+    /**
+     * @param config this table's view of the config, see {@link CrashConfig#forArena}
+     */
+    public CrashGame(JavaPlugin plugin, String name, CrashConfig config, HologramManager hologram, EconomyService economy, StatsService stats, CrashDataStore crashData, BetLedger ledger) {
+        this.plugin = plugin;
+        this.scheduler = new Schedulers(plugin);
+        this.name = name;
+        this.config = config;
+        this.hologram = hologram;
+        this.economy = economy;
+        this.stats = stats;
+        this.crashData = crashData;
+        this.ledger = ledger;
+    }
+
+    public CrashConfig getConfigModel() {
+        return config;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * True if the player has a bet at this table, or one still queued or waiting for the economy. Any thread.
+     */
+    public boolean hasBet(UUID playerId) {
+        return bets.contains(playerId) || pendingBets.contains(playerId) || queuedBets.contains(playerId);
+    }
+
+    /**
+     * The provably-fair chain of this table, or null when the mode is off.
+     */
+    public ProvablyFair getFair() {
+        return fair;
+    }
+
+    /**
+     * This table's round archive.
+     */
+    public CrashDataStore getCrashData() {
+        return crashData;
+    }
+
+    /**
+     * This table's bet ledger.
+     */
+    public BetLedger getLedger() {
+        return ledger;
+    }
+
+    public long getRoundId() {
+        return roundId;
+    }
+
+    public void start() {
+        this.graphBase = computeGraphBase();
+        clearGraphBlocks();
+        this.lastPlottedMultiplier = Double.NEGATIVE_INFINITY; // force immediate first emerald
+        this.lastGraphSpawnAt = 0L;
+        this.lastHologramPushAt = 0L;
+        this.currentMultiplier = config.game().getStartMultiplier();
+        this.roundId = ledger.nextRoundId();
+        if (config.game().isProvablyFair()) {
+            this.fair = new ProvablyFair(plugin.getLogger(), new File(plugin.getDataFolder(), "fair/" + name), config.game());
+            fair.start();
+        }
+        this.clock = new GameClock(plugin.getLogger(), config.game(), fair);
+        clock.start();
+        this.nextStartAt = clock.snapshot().nextStartAt();
+
+        // Spawn hologram immediately so it exists even before the first tick, e.g., after reboot
+        refreshHologramNow();
+    }
+
+    public void stop() {
+        stopped = true;
+        if (clock != null) {
+            clock.stop();
+        }
+        if (fair != null) {
+            fair.close();
+            fair = null;
+        }
+        settleRound(); // pay cashouts of an interrupted round in deferred mode
+        bets.clear();
+        autoCashouts.clear();
+        pendingBets.clear();
+        intents.clear();
+        queuedBets.clear();
+        hologram.clear();
+        clearGraphBlocks();
+        hologram.clearCrashMarkers();
+        lastPlottedMultiplier = Double.NEGATIVE_INFINITY;
+        lastGraphSpawnAt = 0L;
+        lastHologramPushAt = 0L;
+    }
+
+    /**
+     * Global-thread half of the game, driven by {@link ArenaManager}: catches up with the clock, handles a batch of
+     * queued player actions, then updates visuals. Round timing never depends on how often this runs.
+     */
+    void tick() {
+        long now = clock.now();
+        syncClock(); // covers every transition due by now, so actions received before now are judged correctly
+        advance(now, currentMultiplier, Math.max(1, config.game().getIntentBatchSize()));
+        recordHistory();
+        if (lastHologramPushAt == 0L || now - lastHologramPushAt >= 150L) { // throttle hologram refreshes to reduce lag
+            pushHologram(now);
+            lastHologramPushAt = now;
+        }
+        updateGraphBlocks();
+    }
+
+    public void refreshHologramNow() {
+        long now = clock.now();
+        pushHologram(now);
+        lastHologramPushAt = now;
+    }
+
+    /**
+     * Applies every transition the clock made since the last call, in order. Queued player actions received before a
+     * transition are handled just before it is applied, however late this runs. Callbacks and admin actions call
+     * this first so they are judged against the live round.
+     */
+    private void syncClock() {
+        if (syncing) {
+            return; // an economy callback completed inline while a transition is being applied
+        }
+        syncing = true;
+        try {
+            applyTransitions();
+        } finally {
+            syncing = false;
+        }
+    }
+
+    private void applyTransitions() {
+        GameClock.Snapshot snapshot = clock.snapshot();
+        GameClock.Snapshot transition;
+        while ((transition = clock.pollTransition(snapshot)) != null) {
+            switch (transition.state()) {
+                case RUNNING -> {
+                    advance(transition.startedAt(), 0.0, Integer.MAX_VALUE); // bets sent while waiting are waiting bets
+                    beginRound(transition.startedAt());
+                }
+                case CRASHED -> {
+                    // cash-outs sent and targets passed before the crash instant count, however late this runs
+                    advance(transition.crashedAt(), transition.crashPoint(), Integer.MAX_VALUE);
+                    crash(transition.crashedAt(), transition.crashPoint());
+                }
+                case WAITING -> resetToWaiting();
+            }
+        }
+        nextStartAt = snapshot.nextStartAt();
+        currentMultiplier = snapshot.multiplier();
+    }
+
+    /**
+     * Handles queued player actions received before {@code until} and, while a round runs, auto cash-outs whose
+     * target the curve passed by then, in the order they happened: a manual cash-out sent before a target was
+     * reached settles first, at its own lower multiplier. An auto cash-out happens at the instant the curve reaches
+     * its target and only if the target lies below {@code reached}, the highest multiplier the round is known to
+     * have passed (see {@link Payouts#reached}). At most {@code limit} queued actions are handled; auto cash-outs
+     * after the last of them wait for the next pass. A bet whose stake is still being committed waits as well.
+     */
+    private void advance(long until, double reached, int limit) {
+        List<Bet> unstaked = null;
+        int handled = 0;
+        while (true) {
+            PlayerIntent intent = handled < limit ? intents.peek() : null;
+            long intentAt = intent != null && intent.receivedAt() < until ? intent.receivedAt() : Long.MAX_VALUE;
+            Bet bet = state == RoundState.RUNNING ? autoCashouts.peek() : null;
+            if (bet != null && Payouts.reached(bet.getAutoCashoutUnits(), reached)) {
+                long dueAt = autoCashoutAt(bet);
+                if (dueAt <= until && dueAt <= intentAt) {
+                    autoCashouts.poll();
+                    if (!bets.isActive(bet)) {
+                        continue;
+                    }
+                    if (!bet.isStaked()) {
+                        if (unstaked == null) {
+                            unstaked = new ArrayList<>();
+                        }
+                        unstaked.add(bet);
+                        continue;
+                    }
+                    // the stake was paid and the target reached, so a player who has left since is paid all the same
+                    settleCashout(Bukkit.getOfflinePlayer(bet.getPlayerId()), bet, bet.getAutoCashoutUnits());
+                    continue;
+                }
+            }
+            if (intentAt == Long.MAX_VALUE) {
+                break;
+            }
+            intents.poll(); // the only consumer, so this is the intent just peeked
+            handled++;
+            apply(intent);
+        }
+        if (unstaked != null) {
+            autoCashouts.addAll(unstaked);
+        }
+    }
+
+    /**
+     * The instant the curve of the current round reaches the bet's target.
+     */
+    private long autoCashoutAt(Bet bet) {
+        long duration = clock.timeForMultiplier((double) bet.getAutoCashoutUnits() / Money.MULTIPLIER_UNIT);
+        return duration == Long.MAX_VALUE ? Long.MAX_VALUE : roundStartedAt + duration;
+    }
+
+    private void beginRound(long startedAt) {
+        state = RoundState.RUNNING;
+        roundStartedAt = startedAt;
+        currentMultiplier = config.game().getStartMultiplier();
+        commitStakes();
+    }
+
+    /**
+     * Takes the reserved stake of every bet with one withdrawal per player. A bet whose stake cannot be collected is
+     * voided; a stake that arrives after its bet was already voided (e.g. at the crash) is paid back.
+     */
+    private void commitStakes() {
+        for (Bet bet : bets.activeBets()) {
+            if (bet.isStaked()) {
+                continue;
+            }
+            Player player = Bukkit.getPlayer(bet.getPlayerId());
+            if (player == null) {
+                voidBet(bet);
+                continue;
+            }
+            long round = roundId;
+            long amount = bet.getAmount();
+            economy.commit(player, amount).whenComplete((ok, error) -> scheduler.global(() -> {
+                boolean open = round == roundId && bets.isActive(bet);
+                if (Boolean.TRUE.equals(ok)) {
+                    if (open) {
+                        bet.markStaked();
+                    } else {
+                        refundLateStake(player, bet, round);
+                    }
+                    return;
+                }
+                if (open) {
+                    voidBet(bet);
+                    send(player, config.messages().insufficientFunds());
+                }
+            }));
+        }
+    }
+
+    private void voidBet(Bet bet) {
+        bets.remove(bet.getPlayerId());
+        economy.release(bet.getPlayerId(), bet.getAmount());
+        ledger.append(roundId, bet.getPlayerId(), LedgerAction.CANCEL, bet.getAmount(), 0, 0);
+    }
+
+    /**
+     * Ends a bet whose withdrawal is still in flight without recording a loss, since no money has been taken yet. The
+     * pending commit drops the reservation itself and pays the stake back if it still goes through.
+     */
+    private void voidPendingBet(Bet bet) {
+        bets.remove(bet.getPlayerId());
+        ledger.append(roundId, bet.getPlayerId(), LedgerAction.CANCEL, bet.getAmount(), 0, 0);
+    }
+
+    private void refundLateStake(Player player, Bet bet, long round) {
+        long amount = bet.getAmount();
+        ledger.append(round, bet.getPlayerId(), LedgerAction.REFUND, amount, 0, 0);
+        economy.deposit(player, amount).whenComplete((ok, error) -> scheduler.global(() -> {
+            if (!Boolean.TRUE.equals(ok)) {
+                plugin.getLogger().warning("Late stake of " + formatMoney(amount) + " from " + bet.getPlayerName() + " in round "
+                        + round + " could not be paid back; see the bet ledger.");
+            }
+        }));
+    }
+
+    private void crash(long now, double crashPoint) {
+        state = RoundState.CRASHED;
+        crashMultiplier = crashPoint;
+        bets.activeBets().forEach(this::markLostWithMessage);
+        Location markerLoc = null;
+        if (graphCount > 0 && plottedBase.getWorld() != null) {
+            markerLoc = graphPoint(plottedBase, graphCount - 1); // the newest graph block
+        }
+        if (markerLoc == null) {
+            markerLoc = config.hologram().getLocation();
+        }
+        if (markerLoc != null) {
+            String text = config.tnt().getText().replace("{multiplier}", formatMultiplier(crashMultiplier));
+            hologram.spawnCrashMarker(markerLoc, text, config.tnt().getLifespanSeconds());
+        }
+        if (fair != null) {
+            fair.reveal(roundId, crashPoint);
+        }
+        recordCrashResult(now, crashMultiplier);
+        settleRound();
+        stats.endRound();
+    }
+
+    private void resetToWaiting() {
+        state = RoundState.WAITING;
+        roundId = ledger.nextRoundId();
+        bets.clear();
+        autoCashouts.clear();
+        multiplierHistory.clear();
+        clearGraphBlocks();
+        hologram.clearCrashMarkers();
+        lastPlottedMultiplier = Double.NEGATIVE_INFINITY; // allow immediate spawn next round
+        lastGraphSpawnAt = 0L;
+        lastHologramPushAt = 0L;
+    }
+
+    public boolean tryRigNextCrash(Player admin, double multiplier) {
+        if (fair != null) {
+            send(admin, config.messages().rigFair()); // a forced crash point would break the hash chain
+            return false;
+        }
+        syncClock();
+        if (state != RoundState.WAITING) {
+            send(admin, config.messages().rigTooLate());
+            return false;
+        }
+        if (multiplier < config.game().getMinCrashMultiplier()) {
+            send(admin, config.messages().rigTooLow().replace("{min}", formatMultiplier(config.game().getMinCrashMultiplier())));
+            return false;
+        }
+        double capped = Math.min(multiplier, config.game().getMaxCrashMultiplier());
+        clock.rig(capped);
+        send(admin, config.messages().rigSet().replace("{multiplier}", formatMultiplier(capped)));
+        return true;
+    }
+
+    /**
+     * Queues a bet for the game loop. Checks that do not depend on the round are made here, on the calling thread.
+     *
+     * @param autoCashoutUnits target multiplier in hundredths, or 0 to cash out manually (keeps the current target
+     *                         when raising an existing bet)
+     */
+    public void submitBet(Player player, long amount, long autoCashoutUnits) {
+        if (isRateLimited(player)) {
+            return;
+        }
+        if (amount > config.game().getMaxBet()) {
+            send(player, config.messages().betTooHigh().replace("{max}", formatMoney(config.game().getMaxBet())));
+            return;
+        }
+        long minTarget = Money.multiplierUnits(config.game().getStartMultiplier()) + 1;
+        long maxTarget = Money.multiplierUnits(config.game().getMaxCrashMultiplier());
+        if (autoCashoutUnits != 0 && (autoCashoutUnits < minTarget || autoCashoutUnits > maxTarget)) {
+            send(player, config.messages().invalidTarget()
+                    .replace("{min}", formatMultiplier((double) minTarget / Money.MULTIPLIER_UNIT))
+                    .replace("{max}", formatMultiplier((double) maxTarget / Money.MULTIPLIER_UNIT)));
+            return;
+        }
+        queuedBets.add(player.getUniqueId());
+        intents.add(new PlayerIntent(PlayerIntent.Kind.BET, player, amount, autoCashoutUnits, clock.now()));
+    }
+
+    public void submitCancel(Player player) {
+        if (!isRateLimited(player)) {
+            intents.add(new PlayerIntent(PlayerIntent.Kind.CANCEL, player, 0L, 0L, clock.now()));
+        }
+    }
+
+    public void submitCashout(Player player) {
+        if (!isRateLimited(player)) {
+            intents.add(new PlayerIntent(PlayerIntent.Kind.CASHOUT, player, 0L, 0L, clock.now()));
+        }
+    }
+
+    /**
+     * Carries out one queued action (bet, cancel or cash-out) for its player; {@link #advance} decides when, in
+     * the order actions and auto cash-outs happened. Actions of players who have gone offline since are dropped,
+     * a bet still clearing its queued marker.
+     */
+    private void apply(PlayerIntent intent) {
+        Player player = intent.player();
+        if (intent.kind() == PlayerIntent.Kind.BET) {
+            if (player.isOnline()) {
+                placeBet(player, intent.amount(), intent.autoCashoutUnits());
+            }
+            queuedBets.remove(player.getUniqueId()); // now a bet, a pending bet or rejected
+        } else if (player.isOnline()) {
+            if (intent.kind() == PlayerIntent.Kind.CANCEL) {
+                cancelBet(player);
+            } else {
+                cashout(player, intent.receivedAt());
+            }
+        }
+    }
+
+    private boolean placeBet(Player player, long amount, long autoCashoutUnits) {
+        if (state != RoundState.WAITING && !config.game().isAllowLateJoin()) {
+            send(player, config.messages().notWaiting());
+            return false;
+        }
+        if (pendingBets.contains(player.getUniqueId())) {
+            send(player, config.messages().betPending());
+            return false;
+        }
+
+        Bet existing = bets.get(player.getUniqueId());
+        long baseAmount = existing != null ? existing.getAmount() : 0L;
+        boolean stackingWhileWaiting = state == RoundState.WAITING && existing != null;
+
+        if (!stackingWhileWaiting && amount < config.game().getMinBet()) {
+            send(player, config.messages().betTooLow().replace("{min}", formatMoney(config.game().getMinBet())));
+            return false;
+        }
+
+        long targetAmount = stackingWhileWaiting ? baseAmount + amount : amount;
+        if (targetAmount > config.game().getMaxBet()) {
+            send(player, config.messages().betTooHigh().replace("{max}", formatMoney(config.game().getMaxBet())));
+            return false;
+        }
+
+        if (existing != null && state != RoundState.WAITING && targetAmount < baseAmount) {
+            send(player, config.messages().notWaiting());
+            return false; // avoid mid-round bet reductions when late-join is enabled
+        }
+
+        long delta = targetAmount - baseAmount;
+        if (delta > 0 && !economy.isAcceptingBets()) {
+            send(player, config.messages().economyPaused());
+            return false;
+        }
+        if (economy.isEnabled() && delta > 0) {
+            // While waiting, funds are only reserved and committed when the round starts; late joins pay up front
+            boolean reserve = state == RoundState.WAITING;
+            UUID id = player.getUniqueId();
+            long round = roundId;
+            pendingBets.add(id);
+            CompletableFuture<Boolean> funds = reserve ? economy.reserve(player, delta) : economy.withdraw(player, delta);
+            funds.whenComplete((ok, error) -> scheduler.global(() -> {
+                pendingBets.remove(id);
+                syncClock();
+                if (!Boolean.TRUE.equals(ok)) {
+                    send(player, config.messages().insufficientFunds());
+                    return;
+                }
+                if (!canConfirmBet(player, round, existing, reserve)) {
+                    // the round moved on while the economy was busy
+                    if (reserve) {
+                        economy.release(id, delta);
+                    } else {
+                        economy.deposit(player, delta);
+                    }
+                    send(player, config.messages().notWaiting());
+                    return;
+                }
+                confirmBet(player, existing, targetAmount, autoCashoutUnits, !reserve);
+            }));
+            return true;
+        }
+        if (economy.isEnabled() && delta < 0 && state == RoundState.WAITING) {
+            economy.release(player.getUniqueId(), -delta); // lowered before the round started: nothing was taken yet
+        }
+        confirmBet(player, existing, targetAmount, autoCashoutUnits, state != RoundState.WAITING);
+        return true;
+    }
+
+    /**
+     * Funds that arrived later may still become a bet only if nothing changed since they were requested. A
+     * reservation must land before the round starts, since stakes are committed at that moment.
+     */
+    private boolean canConfirmBet(Player player, long round, Bet existing, boolean reserved) {
+        if (stopped || round != roundId || !player.isOnline() || bets.get(player.getUniqueId()) != existing) {
+            return false;
+        }
+        if (reserved) {
+            return state == RoundState.WAITING;
+        }
+        return state == RoundState.WAITING || (state == RoundState.RUNNING && config.game().isAllowLateJoin());
+    }
+
+    private void confirmBet(Player player, Bet existing, long targetAmount, long autoCashoutUnits, boolean staked) {
+        Bet bet = existing;
+        if (existing == null) {
+            bet = new Bet(player.getUniqueId(), player.getName(), targetAmount);
+            if (staked) {
+                bet.markStaked();
+            }
+            bets.add(bet);
+            stats.preload(player.getUniqueId());
+            ledger.append(roundId, player.getUniqueId(), LedgerAction.PLACE, targetAmount, 0, 0);
+            send(player, config.messages().betPlaced().replace("{amount}", formatMoney(targetAmount)));
+        } else {
+            bets.resize(existing, targetAmount);
+            ledger.append(roundId, player.getUniqueId(), LedgerAction.UPDATE, targetAmount, 0, 0);
+            send(player, config.messages().betUpdated().replace("{amount}", formatMoney(targetAmount)));
+        }
+        if (autoCashoutUnits != 0 && autoCashoutUnits != bet.getAutoCashoutUnits()) {
+            if (bet.getAutoCashoutUnits() != 0) {
+                autoCashouts.remove(bet); // re-keyed below; rare, so the linear removal is fine
+            }
+            bet.setAutoCashoutUnits(autoCashoutUnits);
+            autoCashouts.add(bet);
+            send(player, config.messages().autoCashoutSet()
+                    .replace("{multiplier}", formatMultiplier((double) autoCashoutUnits / Money.MULTIPLIER_UNIT)));
+        }
+    }
+
+    private void cancelBet(Player player) {
+        if (pendingBets.contains(player.getUniqueId())) {
+            send(player, config.messages().betPending());
+            return;
+        }
+        Bet bet = bets.get(player.getUniqueId());
+        if (bet == null || bet.getStatus() != Bet.Status.ACTIVE) {
+            send(player, config.messages().noBet());
+            return;
+        }
+        if (state != RoundState.WAITING) {
+            send(player, config.messages().notWaiting());
+            return;
+        }
+        long amount = bet.getAmount();
+        bets.remove(player.getUniqueId());
+        economy.release(player.getUniqueId(), amount); // only reserved while waiting
+        ledger.append(roundId, player.getUniqueId(), LedgerAction.CANCEL, amount, 0, 0);
+        send(player, config.messages().betCancelled().replace("{amount}", formatMoney(amount)));
+    }
+
+    public void handleQuit(Player player) {
+        economy.forget(player.getUniqueId()); // also drops any reservation of a waiting bet
+        syncClock();
+        Bet bet = bets.get(player.getUniqueId());
+        if (bet == null) {
+            return;
+        }
+
+        if (state == RoundState.WAITING) {
+            // Safe to refund while waiting to avoid locking wagers; the stake was only reserved
+            bets.remove(player.getUniqueId());
+            ledger.append(roundId, player.getUniqueId(), LedgerAction.REFUND, bet.getAmount(), 0, 0);
+            return;
+        }
+
+        if (state == RoundState.RUNNING && bet.getStatus() == Bet.Status.ACTIVE) {
+            markLostSilently(bet);
+        }
+    }
+
+    /**
+     * Cashes out at the multiplier the curve showed when the command arrived, however long it waited in the queue.
+     */
+    private void cashout(Player player, long receivedAt) {
+        if (state != RoundState.RUNNING || receivedAt < roundStartedAt) {
+            send(player, config.messages().notRunning());
+            return;
+        }
+        Bet bet = bets.get(player.getUniqueId());
+        if (bet == null || bet.getStatus() != Bet.Status.ACTIVE) {
+            send(player, config.messages().noBet());
+            return;
+        }
+        if (!bet.isStaked()) {
+            send(player, config.messages().betPending()); // stake still being committed
+            return;
+        }
+        settleCashout(player, bet, Money.multiplierUnits(clock.multiplierAt(roundStartedAt, receivedAt)));
+    }
+
+    /**
+     * Pays out an active, staked bet at {@code multiplierUnits} (hundredths).
+     */
+    private void settleCashout(OfflinePlayer player, Bet bet, long multiplierUnits) {
+        long payout = Payouts.gross(bet.getAmount(), multiplierUnits);
+        long houseEdge = Payouts.rake(payout);
+        long finalPayout = payout - houseEdge;
+        double multiplier = (double) multiplierUnits / Money.MULTIPLIER_UNIT;
+        long round = roundId;
+        bets.cashOut(bet, multiplier, finalPayout); // locks the multiplier now; the deposit may finish later
+        ledger.append(roundId, player.getUniqueId(), LedgerAction.CASHOUT, bet.getAmount(), multiplier, finalPayout);
+        // House edge: the rake is withheld from the payout
+        if (config.game().isDeferredSettlement()) {
+            settlement.addCashout(player.getUniqueId(), bet.getAmount(), finalPayout, houseEdge);
+            sendIfOnline(player.getUniqueId(), config.messages().cashoutSuccess()
+                    .replace("{payout}", formatMoney(finalPayout))
+                    .replace("{multiplier}", formatMultiplier(multiplier)));
+            return; // paid when the round crashes
+        }
+        stats.recordCashout(player.getUniqueId(), bet.getAmount(), finalPayout);
+        economy.deposit(player, finalPayout).whenComplete((ok, error) -> scheduler.global(() -> {
+            if (!Boolean.TRUE.equals(ok)) {
+                plugin.getLogger().warning("Cashout of " + formatMoney(finalPayout) + " to " + bet.getPlayerName()
+                        + " in round " + round + " was not paid; see the bet ledger.");
+                sendIfOnline(player.getUniqueId(), config.messages().payoutFailed().replace("{payout}", formatMoney(finalPayout)));
+                return;
+            }
+            sendIfOnline(player.getUniqueId(), config.messages().cashoutSuccess()
+                    .replace("{payout}", formatMoney(finalPayout))
+                    .replace("{multiplier}", formatMultiplier(multiplier)));
+        }));
+    }
+
+    private void send(Player player, String message) {
+        player.sendMessage(message);
+    }
+
+    private void sendIfOnline(UUID playerId, String message) {
+        Player player = Bukkit.getPlayer(playerId);
+        if (player != null) {
+            send(player, message);
+        }
+    }
+
+    private void markLostWithMessage(Bet bet) {
+        if (!bet.isStaked()) {
+            voidPendingBet(bet);
+            return;
+        }
+        bets.lose(bet);
+        Player player = Bukkit.getPlayer(bet.getPlayerId());
+        recordLoss(bet);
+        ledger.append(roundId, bet.getPlayerId(), LedgerAction.LOSS, bet.getAmount(), 0, 0);
+        if (player == null) {
+            return;
+        }
+        send(player, config.messages().loss()
+                .replace("{amount}", formatMoney(bet.getAmount()))
+                .replace("{multiplier}", formatMultiplier(crashMultiplier)));
+    }
+
+    private void markLostSilently(Bet bet) {
+        if (!bet.isStaked()) {
+            voidPendingBet(bet);
+            return;
+        }
+        bets.lose(bet);
+        recordLoss(bet);
+        ledger.append(roundId, bet.getPlayerId(), LedgerAction.LOSS, bet.getAmount(), 0, 0);
+    }
+
+    private void recordLoss(Bet bet) {
+        if (config.game().isDeferredSettlement()) {
+            settlement.addLoss(bet.getPlayerId(), bet.getAmount());
+        } else {
+            stats.recordLoss(bet.getPlayerId(), bet.getAmount());
+        }
+    }
+
+    /**
+     * Deferred mode: one deposit per winner and one stats batch for everything settled this round.
+     */
+    private void settleRound() {
+        if (settlement.size() == 0) {
+            return;
+        }
+        long round = roundId;
+        for (int i = 0; i < settlement.size(); i++) {
+            if (!settlement.isWin(i)) {
+                continue;
+            }
+            UUID id = settlement.id(i);
+            long payout = settlement.payout(i);
+            economy.deposit(Bukkit.getOfflinePlayer(id), payout).whenComplete((ok, error) -> scheduler.global(() -> {
+                if (Boolean.TRUE.equals(ok)) {
+                    return;
+                }
+                plugin.getLogger().warning("Cashout of " + formatMoney(payout) + " to " + id + " in round " + round
+                        + " was not paid; see the bet ledger.");
+                Player player = Bukkit.getPlayer(id);
+                if (player != null) {
+                    send(player, config.messages().payoutFailed().replace("{payout}", formatMoney(payout)));
+                }
+            }));
+        }
+        stats.recordRound(settlement);
+        settlement.clear();
+    }
+
+    private void updateGraphBlocks() {
+        if (state != RoundState.RUNNING) {
+            lastGraphSpawnAt = 0L;
+            return;
+        }
+        if (graphBase == null || graphBase.getWorld() == null) {
+            graphBase = computeGraphBase();
+            if (graphBase == null || graphBase.getWorld() == null) {
+                clearGraphBlocks();
+                return;
+            }
+        }
+        int width = Math.max(4, config.hologram().getChartWidth());
+        long now = System.currentTimeMillis();
+        final long spawnIntervalMs = 250L; // faster updates for smoother motion
+
+        if (lastGraphSpawnAt != 0L && now - lastGraphSpawnAt < spawnIntervalMs) {
+            return; // wait for next tick to spawn
+        }
+
+        if (graphCount >= width) {
+            clearGraphBlocks();
+        }
+        Location base = graphBase.clone();
+        plottedBase = base;
+        graphCount++;
+        scheduler.at(base, () -> plotGraphBlock(base));
+
+        lastPlottedMultiplier = currentMultiplier;
+        lastGraphSpawnAt = now;
+    }
+
+    /**
+     * Spawns the next graph block on the thread owning {@code base}.
+     */
+    private void plotGraphBlock(Location base) {
+        ItemDisplay display = (ItemDisplay) base.getWorld().spawnEntity(graphPoint(base, graphBlocks.size()), EntityType.ITEM_DISPLAY);
+        display.setItemStack(new ItemStack(Material.EMERALD_BLOCK));
+        display.setTransformation(smallTransform());
+        display.setBillboard(ItemDisplay.Billboard.FIXED);
+        display.setRotation(base.getYaw(), 0f);
+        display.setPersistent(false);
+        graphBlocks.add(display);
+
+        // Re-align all blocks to their index to avoid visible jumps when pruning
+        for (int i = 0; i < graphBlocks.size(); i++) {
+            Location target = graphPoint(base, i);
+            target.setPitch(0f);
+            graphBlocks.get(i).teleportAsync(target);
+        }
+    }
+
+    /**
+     * Position of the graph block at {@code index}. Y growth is kept simple and unrelated to crash progress to avoid
+     * predictability.
+     */
+    private Location graphPoint(Location base, int index) {
+        double offsetY = 0.10 + (index * 0.05);
+        return base.clone()
+                .add(graphAxis(base).multiply(index * GRAPH_SPACING))
+                .add(0, offsetY, 0);
+    }
+
+    private double computeHeight(double multiplier) {
+        double max = Math.max(0.0001, config.hologram().getChartMaxMultiplier());
+        double scaled = Math.log1p(multiplier) / Math.log1p(max); // 0..1
+        scaled = Math.max(0.0, Math.min(1.0, scaled));
+        return 0.5 + scaled * 3.5; // baseline lift plus visible rise
+    }
+
+    private Transformation smallTransform() {
+        Vector3f translation = new Vector3f(0f, 0f, 0f);
+        Vector3f scale = new Vector3f(0.30f, 0.30f, 0.30f); // scale to 0.3 as requested
+        Quaternionf identity = new Quaternionf();
+        return new Transformation(translation, identity, scale, identity);
+    }
+
+    private Location computeGraphBase() {
+        Location base = config.hologram().getLocation();
+        if (base == null || base.getWorld() == null) {
+            return null;
+        }
+        double spacing = config.hologram().getLineSpacing();
+        int lineCount = Math.max(0, config.hologram().getLines().size());
+        double drop = spacing * (lineCount + 4); // raise the graph closer to the hologram text
+        Vector axis = graphAxis(base);
+        Location start = base.clone().add(axis.clone().multiply(-1.5)).add(0, -drop, 0);
+        start.setYaw(base.getYaw());
+        return start;
+    }
+
+    private void clearGraphBlocks() {
+        graphCount = 0;
+        if (plottedBase == null) {
+            return;
+        }
+        scheduler.at(plottedBase, () -> {
+            graphBlocks.forEach(ItemDisplay::remove);
+            graphBlocks.clear();
+        });
+        plottedBase = null;
+    }
+
+    private Vector graphAxis(Location base) {
+        double yawRad = Math.toRadians(base.getYaw());
+        // Use the player's facing to rotate the horizontal axis so the emerald graph aligns with the hologram
+        return new Vector(-Math.cos(yawRad), 0, -Math.sin(yawRad));
+    }
+
+    private void pushHologram(long now) {
+        List<String> templates = config.hologram().getLines();
+        List<String> rendered = new ArrayList<>(templates.size());
+        for (String line : templates) {
+            String out = line
+                    .replace("{state}", stateText())
+                    .replace("{timer}", state == RoundState.RUNNING ? "" : String.valueOf(Math.max(0, (nextStartAt - now) / 1000)))
+                    .replace("{multiplier}", formatMultiplier(currentMultiplier))
+                    .replace("{pot}", formatMoneyShort(bets.pot()))
+                    .replace("{players_total}", String.valueOf(bets.activeCount()))
+                    .replace("{players_cashed}", String.valueOf(bets.cashedOutCount()))
+                    .replace("{players}", renderPlayers());
+
+            if (out.contains("{chart}")) {
+                List<String> chartLines = buildChartLines();
+                String first = out.replace("{chart}", chartLines.isEmpty() ? "" : chartLines.get(0));
+                rendered.add(first);
+                for (int i = 1; i < chartLines.size(); i++) {
+                    rendered.add(chartLines.get(i));
+                }
+            } else {
+                rendered.add(out);
+            }
+        }
+        hologram.refresh(rendered);
+    }
+
+    private String stateText() {
+        return switch (state) {
+            case WAITING -> ChatColor.YELLOW + "Waiting";
+            case RUNNING -> ChatColor.GREEN + "Live";
+            case CRASHED -> ChatColor.RED + "Crashed";
+        };
+    }
+
+    /**
+     * The {@code {players}} text, re-rendered only when the bet book changed since the last call.
+     */
+    private String renderPlayers() {
+        if (renderedPlayersVersion != bets.version()) {
+            List<Bet> visible = bets.top(3);
+            renderedPlayers = visible.isEmpty() ? "None" : visible.stream()
+                    .map(this::formatBetEntry)
+                    .collect(Collectors.joining(", "));
+            renderedPlayersVersion = bets.version();
+        }
+        return renderedPlayers;
+    }
+
+    private String formatBetEntry(Bet bet) {
+        return switch (bet.getStatus()) {
+            case ACTIVE -> bet.getPlayerName() + "(" + formatMoneyShort(bet.getAmount()) + ChatColor.RESET + ")";
+            case CASHED_OUT -> ChatColor.GRAY + bet.getPlayerName() + " @ " + ChatColor.GREEN + formatMultiplier(bet.getCashoutMultiplier()) + "x" + ChatColor.RESET;
+            case LOST -> bet.getPlayerName();
+        };
+    }
+
+    private List<String> buildChartLines() {
+        // Disable ASCII chart since we render the 3D emerald graph instead
+        return Collections.emptyList();
+    }
+
+    private void recordHistory() {
+        int width = Math.max(4, config.hologram().getChartWidth());
+        double sample;
+        if (state == RoundState.RUNNING) {
+            sample = currentMultiplier;
+        } else if (state == RoundState.CRASHED) {
+            sample = crashMultiplier;
+        } else {
+            sample = config.game().getStartMultiplier();
+        }
+        if (multiplierHistory.size() >= width) {
+            multiplierHistory.pollFirst();
+        }
+        multiplierHistory.addLast(sample);
+    }
+
+    private void recordCrashResult(long now, double result) {
+        long pot = 0;
+        long paidOut = 0;
+        long rake = 0;
+        for (Bet bet : bets.all()) {
+            pot += bet.getAmount();
+            if (bet.getStatus() == Bet.Status.CASHED_OUT) {
+                paidOut += bet.getPayout();
+                rake += Payouts.gross(bet.getAmount(), Money.multiplierUnits(bet.getCashoutMultiplier())) - bet.getPayout();
+            }
+        }
+        crashData.record(new RoundRecord(now, result, pot, bets.size(), paidOut, rake));
+    }
+
+    public void sendLastGames(Player player) {
+        List<RoundRecord> recent = crashData.recent(Math.max(1, config.game().getLastGamesDisplayCount()));
+        if (recent.isEmpty()) {
+            player.sendMessage(ChatColor.YELLOW + "No previous games yet.");
+            return;
+        }
+
+        StringBuilder sb = new StringBuilder();
+        sb.append(ChatColor.GRAY).append("Last games: ");
+        for (int i = 0; i < recent.size(); i++) {
+            double val = recent.get(i).crashPoint();
+            ChatColor color = colorForMultiplier(val);
+            sb.append(color).append(formatMultiplier(val)).append("x");
+            if (i < recent.size() - 1) {
+                sb.append(ChatColor.GRAY).append(" | ");
+            }
+        }
+        player.sendMessage(sb.toString());
+    }
+
+    private ChatColor colorForMultiplier(double m) {
+        if (m < 1.25) {
+            return ChatColor.RED;
+        }
+        if (m < 2.0) {
+            return ChatColor.YELLOW;
+        }
+        if (m <= 5.0) {
+            return ChatColor.GREEN;
+        }
+        return ChatColor.AQUA;
+    }
+
+    private boolean isRateLimited(Player player) {
+        long now = System.currentTimeMillis();
+        Long last = actionCooldown.get(player.getUniqueId());
+        long cooldown = Math.max(0L, config.game().getActionRateLimitMs());
+        if (last != null && now - last < cooldown) {
+            return true;
+        }
+        actionCooldown.put(player.getUniqueId(), now);
+        return false;
+    }
+
+    /**
+     * Resolves {@code targetName} off-thread (it may need a profile lookup), loads the stats without blocking the
+     * global thread and opens the GUI once both are in.
+     */
+    public void openPlayerStatsGui(Player viewer, String targetName) {
+        scheduler.async(() -> {
+            OfflinePlayer target = Bukkit.getOfflinePlayer(targetName);
+            String displayName = target.getName() == null ? targetName : target.getName();
+            UUID id = target.getUniqueId();
+            scheduler.global(() -> stats.lookupAsync(id, data -> show(viewer, buildStatsInventory(displayName, id, data))));
+        });
+    }
+
+    public void openServerSummaryGui(Player viewer) {
+        Inventory inv = buildStatsInventory("Server", null, stats.getTotals());
+        show(viewer, inv);
+    }
+
+    public void openLeaderboardGui(Player viewer, Leaderboard.Category category, int page) {
+        Leaderboard board = stats.getLeaderboard();
+        int pages = Math.max(1, (board.count(category) + TOP_PAGE_SIZE - 1) / TOP_PAGE_SIZE);
+        int shown = Math.max(0, Math.min(page, pages - 1));
+        String title = color(config.stats().getLeaderboardTitle().replace("%category%", category.getLabel())
+                .replace("%page%", String.valueOf(shown + 1)));
+        Inventory inv = Bukkit.createInventory(new StatsInventoryHolder(category, shown), TOP_GUI_SIZE, title);
+        inv.setContents(leaderboardPage(category, shown, pages));
+        show(viewer, inv);
+    }
+
+    /**
+     * Inventories are built here from game state but opened on the viewer's own thread.
+     */
+    private void show(Player viewer, Inventory inv) {
+        scheduler.on(viewer, () -> viewer.openInventory(inv));
+    }
+
+    public void handleLeaderboardClick(Player player, StatsInventoryHolder holder, int slot) {
+        Leaderboard.Category category = holder.getCategory();
+        int page = holder.getPage();
+        if (slot == TOP_PREVIOUS_SLOT) {
+            page--;
+        } else if (slot == TOP_NEXT_SLOT) {
+            page++;
+        } else if (slot >= TOP_CATEGORY_SLOT && slot < TOP_CATEGORY_SLOT + Leaderboard.Category.values().length) {
+            category = Leaderboard.Category.values()[slot - TOP_CATEGORY_SLOT];
+            page = 0;
+        } else {
+            return;
+        }
+        Leaderboard.Category target = category;
+        int targetPage = page;
+        // opening another inventory from inside the click event is unsafe; do it next tick
+        scheduler.globalLater(() -> openLeaderboardGui(player, target, targetPage), 1L);
+    }
+
+    /**
+     * Rendered page contents, rebuilt only when the board changed since the last render. Every viewer of the same
+     * page shares the array.
+     */
+    private ItemStack[] leaderboardPage(Leaderboard.Category category, int page, int pages) {
+        Leaderboard board = stats.getLeaderboard();
+        long version = board.version(category);
+        String key = category.name() + ":" + page;
+        LeaderboardPage cached = leaderboardPages.get(key);
+        if (cached != null && cached.version() == version) {
+            return cached.contents();
+        }
+
+        ItemStack[] contents = new ItemStack[TOP_GUI_SIZE];
+        List<Leaderboard.Entry> entries = board.range(category, page * TOP_PAGE_SIZE, TOP_PAGE_SIZE);
+        for (int i = 0; i < entries.size(); i++) {
+            Leaderboard.Entry entry = entries.get(i);
+            OfflinePlayer player = Bukkit.getOfflinePlayer(entry.id());
+            String name = player.getName() != null ? player.getName() : entry.id().toString().substring(0, 8);
+            ItemStack head = new ItemStack(Material.PLAYER_HEAD);
+            ItemMeta meta = head.getItemMeta();
+            if (meta != null) {
+                if (meta instanceof SkullMeta skull) {
+                    skull.setOwningPlayer(player);
+                }
+                meta.setDisplayName(color("&e#" + (page * TOP_PAGE_SIZE + i + 1) + " &f" + name));
+                meta.setLore(List.of(color("&7" + category.getLabel() + ": &a" + formatLeaderboardScore(category, entry.score()))));
+                head.setItemMeta(meta);
+            }
+            contents[i] = head;
+        }
+
+        ItemStack filler = namedItem(Material.GRAY_STAINED_GLASS_PANE, " ");
+        for (int slot = TOP_PAGE_SIZE; slot < TOP_GUI_SIZE; slot++) {
+            contents[slot] = filler;
+        }
+        if (page > 0) {
+            contents[TOP_PREVIOUS_SLOT] = namedItem(Material.ARROW, color("&7Previous page"));
+        }
+        if (page < pages - 1) {
+            contents[TOP_NEXT_SLOT] = namedItem(Material.ARROW, color("&7Next page"));
+        }
+        Leaderboard.Category[] categories = Leaderboard.Category.values();
+        for (int i = 0; i < categories.length; i++) {
+            String prefix = categories[i] == category ? "&a&l" : "&7";
+            contents[TOP_CATEGORY_SLOT + i] = namedItem(leaderboardIcon(categories[i]), color(prefix + categories[i].getLabel()));
+        }
+        leaderboardPages.put(key, new LeaderboardPage(version, contents));
+        return contents;
+    }
+
+    private ItemStack namedItem(Material material, String name) {
+        ItemStack item = new ItemStack(material);
+        ItemMeta meta = item.getItemMeta();
+        if (meta != null) {
+            meta.setDisplayName(name);
+            item.setItemMeta(meta);
+        }
+        return item;
+    }
+
+    private Material leaderboardIcon(Leaderboard.Category category) {
+        return switch (category) {
+            case NET -> Material.GOLD_INGOT;
+            case WINS -> Material.EMERALD;
+            case WAGERED -> Material.DIAMOND;
+            case WIN_RATE -> Material.CLOCK;
+        };
+    }
+
+    private String formatLeaderboardScore(Leaderboard.Category category, double score) {
+        return switch (category) {
+            case NET, WAGERED -> "$" + formatMoneyCompact((long) score);
+            case WINS -> String.valueOf((long) score);
+            case WIN_RATE -> String.format("%.2f%%", score * 100.0);
+        };
+    }
+
+    private Inventory buildStatsInventory(String playerName, UUID playerId, StatsService.PlayerStats data) {
+        CrashConfig.StatsBookSettings cfg = config.statsBook();
+        int size = 27; // 3 rows for centered display
+        InventoryHolder holder = new StatsInventoryHolder(playerName);
+        Inventory inv = Bukkit.createInventory(holder, size, color(cfg.getName().replace("%player%", playerName)));
+
+        // fill background
+        ItemStack filler = new ItemStack(Material.GRAY_STAINED_GLASS_PANE);
+        ItemMeta fMeta = filler.getItemMeta();
+        if (fMeta != null) {
+            fMeta.setDisplayName(" ");
+            filler.setItemMeta(fMeta);
+        }
+        for (int i = 0; i < size; i++) {
+            inv.setItem(i, filler);
+        }
+
+        ItemStack statsItem = buildStatsItem(playerName, playerId, data);
+        inv.setItem(13, statsItem); // center slot
+        return inv;
+    }
+
+    private ItemStack buildStatsItem(String playerName, UUID playerId, StatsService.PlayerStats data) {
+        CrashConfig.StatsBookSettings cfg = config.statsBook();
+        ItemStack item = new ItemStack(cfg.getMaterial() == null ? Material.WRITABLE_BOOK : cfg.getMaterial());
+        ItemMeta meta = item.getItemMeta();
+        if (meta == null) {
+            return item;
+        }
+
+        meta.setDisplayName(color(cfg.getName().replace("%player%", playerName)));
+        List<String> lore = cfg.getLore().stream()
+                .map(line -> replaceStatsPlaceholders(line, playerName, playerId, data))
+                .map(this::color)
+                .collect(Collectors.toList());
+        meta.setLore(lore);
+
+        if (cfg.isGlow()) {
+            meta.addEnchant(Enchantment.LUCK_OF_THE_SEA, 1, true); // harmless glow trigger
+            meta.addItemFlags(ItemFlag.HIDE_ENCHANTS);
+        }
+
+        item.setItemMeta(meta);
+        return item;
+    }
+
+    /**
+     * Fills the stats-book placeholders. {@code playerId} is null for the server summary; rolling placeholders such as
+     * {@code %net_24h%} or {@code %wins_7d%} then show server-wide windows.
+     */
+    private String replaceStatsPlaceholders(String line, String playerName, UUID playerId, StatsService.PlayerStats data) {
+        long wins = data.getWins();
+        long losses = data.getLosses();
+        long totalGames = data.getTotalGames();
+        double winRate = totalGames > 0 ? (wins * 100.0 / totalGames) : 0.0;
+
+        for (RollingStats.Window window : RollingStats.Window.values()) {
+            String suffix = "_" + window.getSuffix() + "%";
+            if (!line.contains(suffix)) {
+                continue;
+            }
+            RollingStats.Totals recent = stats.getWindow(playerId, window);
+            double recentRate = recent.games() > 0 ? (recent.wins() * 100.0 / recent.games()) : 0.0;
+            line = line
+                    .replace("%wins" + suffix, String.valueOf(recent.wins()))
+                    .replace("%losses" + suffix, String.valueOf(recent.losses()))
+                    .replace("%games" + suffix, String.valueOf(recent.games()))
+                    .replace("%win_rate" + suffix, String.format("%.2f%%", recentRate))
+                    .replace("%net" + suffix, formatMoneyCompact(recent.net()))
+                    .replace("%wagered" + suffix, formatMoneyCompact(recent.totalBet()))
+                    .replace("%won" + suffix, formatMoneyCompact(recent.totalWon()));
+        }
+
+        return line
+                .replace("%player%", playerName)
+                .replace("%wins%", String.valueOf(wins))
+                .replace("%losses%", String.valueOf(losses))
+                .replace("%total_games%", String.valueOf(totalGames))
+                .replace("%win_rate%", String.format("%.2f%%", winRate))
+                .replace("%net%", formatMoneyCompact(data.getNet()))
+                .replace("%profit%", formatMoneyCompact(data.getProfit()))
+                .replace("%loss%", formatMoneyCompact(data.getLoss()))
+                .replace("%total_bet%", formatMoneyCompact(data.getTotalBet()))
+                .replace("%total_won%", formatMoneyCompact(data.getTotalWon()));
+    }
+
+    private String color(String input) {
+        if (input == null) {
+            return "";
+        }
+        return ChatColor.translateAlternateColorCodes('&', translateHexColors(input));
+    }
+
+    private String translateHexColors(String message) {
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < message.length(); i++) {
+            char c = message.charAt(i);
+            if (c == '&' && i + 7 < message.length() && message.charAt(i + 1) == '#') {
+                String hex = message.substring(i + 2, i + 8);
+                if (hex.matches("[0-9A-Fa-f]{6}")) {
+                    sb.append('§').append('x');
+                    for (char h : hex.toCharArray()) {
+                        sb.append('§').append(Character.toLowerCase(h));
+                    }
+                    i += 7;
+                    continue;
+                }
+            }
+            sb.append(c);
+        }
+        return sb.toString();
+    }
+
+    private String formatMultiplier(double value) {
+        return String.format("%.2f", value);
+    }
+
+    private String formatMoney(long value) {
+        return config.moneyFormat().format(Money.toDecimal(value));
+    }
+
+    private String formatMoneyCompact(long minor) {
+        double value = Money.toDouble(minor); // display only
+        double abs = Math.abs(value);
+        String suffix = "";
+        double scaled = value;
+        if (abs >= 1_000_000_000) {
+            suffix = "b";
+            scaled = value / 1_000_000_000d;
+        } else if (abs >= 1_000_000) {
+            suffix = "m";
+            scaled = value / 1_000_000d;
+        } else if (abs >= 1_000) {
+            suffix = "k";
+            scaled = value / 1_000d;
+        }
+        String formatted = String.format("%.2f", scaled);
+        if (formatted.endsWith(".00")) {
+            formatted = formatted.substring(0, formatted.length() - 3);
+        }
+        return formatted + suffix;
+    }
+
+    private String formatMoneyShort(long minor) {
+        double value = Money.toDouble(minor); // display only
+        String suffix;
+        double scaled;
+        if (value >= 1_000_000_000) {
+            suffix = "b";
+            scaled = value / 1_000_000_000d;
+        } else if (value >= 1_000_000) {
+            suffix = "m";
+            scaled = value / 1_000_000d;
+        } else if (value >= 1_000) {
+            suffix = "k";
+            scaled = value / 1_000d;
+        } else {
+            return ChatColor.GREEN + "$" + formatMoney(minor) + ChatColor.RESET;
+        }
+        String formatted = String.format("%.1f", scaled);
+        // Trim trailing .0
+        if (formatted.endsWith(".0")) {
+            formatted = formatted.substring(0, formatted.length() - 2);
+        }
+        return ChatColor.GREEN + "$" + formatted + suffix + ChatColor.RESET;
+    }
+}
@@ -0,0 +1,12 @@
+package com.shorecrash.game;
+
+import org.bukkit.entity.Player;
+
+/**
+ * A player action accepted by a command and waiting for the game loop. Everything that could be checked without
+ * the round state was checked before it was queued. {@code receivedAt} is the {@link GameClock#now} at which the
+ * command arrived: it decides which phase of the round the action belongs to and the price of a cash-out.
+ */
+record PlayerIntent(Kind kind, Player player, long amount, long autoCashoutUnits, long receivedAt) {
+    enum Kind { BET, CANCEL, CASHOUT }
+}
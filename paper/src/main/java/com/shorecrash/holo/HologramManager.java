@@ -1,6 +1,7 @@
 package com.shorecrash.holo;
 
 import com.shorecrash.config.CrashConfig;
+import com.shorecrash.util.Schedulers;
 import org.bukkit.Bukkit;
 import org.bukkit.ChatColor;
 import org.bukkit.Location;
@@ -13,22 +14,32 @@ import org.bukkit.NamespacedKey;
 import org.bukkit.persistence.PersistentDataContainer;
 import org.bukkit.persistence.PersistentDataType;
 import org.bukkit.plugin.java.JavaPlugin;
-import org.bukkit.scheduler.BukkitRunnable;
 
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
 
+/**
+ * The text hologram and crash markers of one table. Called from the global thread; the armor stands themselves are
+ * only touched on the region thread owning them, so a line list is handed to tasks at the anchor it was spawned at
+ * and replaced, not shared, when the hologram moves.
+ */
 public class HologramManager {
+    private static final double ORPHAN_RADIUS = 16.0;
+
     private final JavaPlugin plugin;
+    private final Schedulers scheduler;
     private final CrashConfig config;
     private final NamespacedKey holoKey;
     private final NamespacedKey markerKey;
     private List<ArmorStand> hologramLines = new ArrayList<>();
-    private final List<ArmorStand> crashMarkers = new ArrayList<>();
+    private Location anchor; // where hologramLines live
+    private final List<ArmorStand> crashMarkers = new CopyOnWriteArrayList<>();
 
     public HologramManager(JavaPlugin plugin, CrashConfig config) {
         this.plugin = plugin;
+        this.scheduler = new Schedulers(plugin);
         this.config = config;
         this.holoKey = new NamespacedKey(plugin, "shorecrash_holo");
         this.markerKey = new NamespacedKey(plugin, "shorecrash_holo_marker");
@@ -42,23 +53,24 @@ public class HologramManager {
         }
         if (base.getWorld() == null) {
             // World not loaded yet; try again shortly instead of clearing to avoid flicker/desync
-            new BukkitRunnable() {
-                @Override
-                public void run() {
-                    refresh(lines);
-                }
-            }.runTaskLater(plugin, 40L);
+            scheduler.globalLater(() -> refresh(lines), 40L);
             return;
         }
-        if (hologramLines.isEmpty()) {
-            spawn(base, lines);
-        } else {
-            updateLines(lines);
+        if (anchor != null && !anchor.equals(base)) {
+            clear();
         }
+        anchor = base;
+        List<ArmorStand> stands = hologramLines;
+        scheduler.at(base, () -> {
+            if (stands.isEmpty()) {
+                spawn(stands, base, lines);
+            } else {
+                updateLines(stands, lines);
+            }
+        });
     }
 
-    private void spawn(Location base, List<String> lines) {
-        clear();
+    private void spawn(List<ArmorStand> hologramLines, Location base, List<String> lines) {
         double spacing = config.hologram().getLineSpacing();
         Location cursor = base.clone();
         World world = base.getWorld();
@@ -83,7 +95,7 @@ public class HologramManager {
         }
     }
 
-    private void updateLines(List<String> lines) {
+    private void updateLines(List<ArmorStand> hologramLines, List<String> lines) {
         List<String> colored = config.hologram().colorizeLines(lines);
         int shared = Math.min(colored.size(), hologramLines.size());
 
@@ -131,11 +143,16 @@ public class HologramManager {
     }
 
     public void clear() {
-        if (hologramLines == null) {
-            return;
+        List<ArmorStand> stands = hologramLines;
+        Location at = anchor;
+        hologramLines = new ArrayList<>();
+        anchor = null;
+        if (at != null) {
+            scheduler.at(at, () -> {
+                stands.forEach(ArmorStand::remove);
+                stands.clear();
+            });
         }
-        hologramLines.forEach(ArmorStand::remove);
-        hologramLines.clear();
     }
 
     public void setLocation(Location loc) {
@@ -143,13 +160,14 @@ public class HologramManager {
     }
 
     public void spawnCrashMarker(Location loc, String text, int lifespanSeconds) {
-        if (!config.tnt().isEnabled()) {
+        if (!config.tnt().isEnabled() || loc.getWorld() == null) {
             return;
         }
+        scheduler.at(loc, () -> placeCrashMarker(loc, text, lifespanSeconds));
+    }
+
+    private void placeCrashMarker(Location loc, String text, int lifespanSeconds) {
         World world = loc.getWorld();
-        if (world == null) {
-            return;
-        }
         ArmorStand stand = (ArmorStand) world.spawnEntity(loc, EntityType.ARMOR_STAND);
         stand.setInvisible(true); // hide base model to prevent visual glitches
         stand.setVisible(false);
@@ -163,26 +181,36 @@ public class HologramManager {
         stand.setCustomName(ChatColor.translateAlternateColorCodes('&', text));
         markPersistent(stand, markerKey);
         crashMarkers.add(stand);
-        new BukkitRunnable() {
-            @Override
-            public void run() {
-                stand.remove();
-                crashMarkers.remove(stand);
-            }
-        }.runTaskLater(plugin, lifespanSeconds * 20L);
+        scheduler.onLater(stand, () -> {
+            stand.remove();
+            crashMarkers.remove(stand);
+        }, lifespanSeconds * 20L);
     }
 
+    /**
+     * Removes tagged stands left behind by a crash or an older version. Folia cannot scan whole worlds from one
+     * thread, so there only the area around this table's hologram is checked, on the region owning it.
+     */
     public void cleanupOrphans() {
-        for (World world : Bukkit.getWorlds()) {
-            for (ArmorStand stand : world.getEntitiesByClass(ArmorStand.class)) {
-                PersistentDataContainer data = stand.getPersistentDataContainer();
-                if (data.has(holoKey, PersistentDataType.BYTE) || data.has(markerKey, PersistentDataType.BYTE)) {
-                    stand.remove();
-                }
+        if (!Schedulers.isFolia()) {
+            for (World world : Bukkit.getWorlds()) {
+                world.getEntitiesByClass(ArmorStand.class).forEach(this::removeIfTagged);
             }
+            return;
+        }
+        Location base = config.hologram().getLocation();
+        if (base == null || base.getWorld() == null) {
+            return;
+        }
+        scheduler.at(base, () -> base.getWorld().getNearbyEntitiesByType(ArmorStand.class, base, ORPHAN_RADIUS)
+                .forEach(this::removeIfTagged));
+    }
+
+    private void removeIfTagged(ArmorStand stand) {
+        PersistentDataContainer data = stand.getPersistentDataContainer();
+        if (data.has(holoKey, PersistentDataType.BYTE) || data.has(markerKey, PersistentDataType.BYTE)) {
+            stand.remove();
         }
-        hologramLines.clear();
-        crashMarkers.clear();
     }
 
     private void markPersistent(ArmorStand stand, NamespacedKey key) {
@@ -190,8 +218,10 @@ public class HologramManager {
     }
 
     public void clearCrashMarkers() {
-        crashMarkers.forEach(ArmorStand::remove);
-        crashMarkers.clear();
+        for (ArmorStand stand : crashMarkers) {
+            crashMarkers.remove(stand);
+            scheduler.on(stand, stand::remove);
+        }
     }
 
     public List<String> emptyLines(int count) {
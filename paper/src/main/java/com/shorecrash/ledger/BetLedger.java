@@ -0,0 +1,323 @@
+package com.shorecrash.ledger;
+
+import com.shorecrash.util.Money;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Function;
+import java.util.logging.Logger;
+import java.util.zip.CRC32;
+
+/**
+ * Append-only binary ledger of every wager event of one table (ledger/bets.ledger for the first table,
+ * ledger/bets-&lt;table&gt;.ledger for the others). Each table writes its own file so the records of a round stay
+ * contiguous; round ids come from a counter shared by all tables, so they are unique across the files.
+ * <p>
+ * {@link #append} runs on the main thread and only copies the event into a {@link LedgerRing}; a background thread
+ * drains the ring in batches and writes them to the file, so disk latency never reaches the game loop. Queries open
+ * a {@link LedgerReader} on a separate thread.
+ */
+public class BetLedger {
+    static final int MAGIC = 0x5343424C; // SCBL
+    static final int VERSION = 2; // 1 stored amount and payout as doubles
+    static final int HEADER_BYTES = 16;
+    private static final int RING_CAPACITY = 1 << 16;
+    private static final int BATCH_RECORDS = 512;
+
+    private final Logger logger;
+    private final File file;
+    private final AtomicLong roundIds;
+    private final LedgerRing ring = new LedgerRing(RING_CAPACITY);
+    private final ExecutorService queries;
+    private final long baseMicros = System.currentTimeMillis() * 1000L;
+    private final long baseNanos = System.nanoTime();
+    private FileChannel channel;
+    private Thread writer;
+    private volatile boolean running;
+
+    // Main thread only
+    private long nextSequence;
+    private long lastMicros;
+    private long dropped;
+
+    /**
+     * @param roundIds next round id, shared by every table's ledger; raised past the last round found in this file
+     */
+    public BetLedger(Logger logger, File file, AtomicLong roundIds) {
+        this.logger = logger;
+        this.file = file;
+        this.roundIds = roundIds;
+        this.queries = Executors.newSingleThreadExecutor(r -> {
+            Thread thread = new Thread(r, "ShoreCrash-LedgerQuery");
+            thread.setDaemon(true);
+            return thread;
+        });
+        open();
+    }
+
+    private void open() {
+        try {
+            file.getParentFile().mkdirs();
+            upgrade(file, logger);
+            channel = FileChannel.open(file.toPath(), StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+            if (channel.size() < HEADER_BYTES) {
+                ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES).putInt(MAGIC).putInt(VERSION).putLong(System.currentTimeMillis());
+                header.flip();
+                channel.truncate(0);
+                while (header.hasRemaining()) {
+                    channel.write(header, header.position());
+                }
+            } else {
+                checkHeader(channel, file);
+            }
+            long records = (channel.size() - HEADER_BYTES) / LedgerEntry.BYTES;
+            ByteBuffer last = null;
+            if (records > 0) {
+                last = readRecord(records - 1);
+                if (!LedgerEntry.valid(last, 0, new CRC32())) {
+                    records--; // torn write from a crash
+                    last = records > 0 ? readRecord(records - 1) : null;
+                }
+            }
+            long end = HEADER_BYTES + records * LedgerEntry.BYTES;
+            if (channel.size() != end) {
+                channel.truncate(end);
+            }
+            channel.position(end);
+            if (last != null) {
+                nextSequence = LedgerEntry.sequenceAt(last, 0) + 1;
+                long lastRound = LedgerEntry.roundAt(last, 0);
+                roundIds.accumulateAndGet(lastRound + 1, Math::max);
+                lastMicros = LedgerEntry.timestampAt(last, 0);
+            }
+        } catch (IOException ex) {
+            logger.warning("Failed to open the bet ledger; wagers will not be recorded: " + ex.getMessage());
+            closeChannel();
+            return;
+        }
+        running = true;
+        writer = new Thread(this::drainLoop, "ShoreCrash-BetLedger");
+        writer.setDaemon(true);
+        writer.start();
+    }
+
+    /**
+     * Allocates the id for the next round. Ids keep increasing across restarts and are unique across tables.
+     */
+    public long nextRoundId() {
+        return roundIds.getAndIncrement();
+    }
+
+    /**
+     * Records a wager event. Never blocks; if the writer has fallen a full ring behind the event is dropped and the
+     * gap shows up as missing sequence numbers in {@link #audit}.
+     */
+    public void append(long roundId, UUID playerId, LedgerAction action, long amount, double multiplier, long payout) {
+        if (channel == null) {
+            return;
+        }
+        long micros = Math.max(lastMicros, baseMicros + (System.nanoTime() - baseNanos) / 1000L);
+        lastMicros = micros;
+        if (!ring.offer(nextSequence++, roundId, micros, playerId, action, amount, multiplier, payout)) {
+            if (dropped++ % 1000 == 0) {
+                logger.warning("Bet ledger writer is falling behind; " + dropped + " records dropped so far.");
+            }
+            return;
+        }
+        LockSupport.unpark(writer);
+    }
+
+    /**
+     * Records of {@code playerId} in round {@code roundId}, or the player's latest records if {@code roundId} is
+     * negative.
+     */
+    public CompletableFuture<List<LedgerEntry>> find(UUID playerId, long roundId) {
+        return query(reader -> roundId < 0 ? reader.latest(playerId, 10) : reader.find(playerId, roundId));
+    }
+
+    public CompletableFuture<LedgerReport> audit() {
+        return query(LedgerReader::replay);
+    }
+
+    private <T> CompletableFuture<T> query(Function<LedgerReader, T> action) {
+        try {
+            return CompletableFuture.supplyAsync(() -> {
+                try (LedgerReader reader = LedgerReader.open(file)) {
+                    return action.apply(reader);
+                } catch (IOException ex) {
+                    throw new IllegalStateException("Failed to read " + file.getName() + ": " + ex.getMessage(), ex);
+                }
+            }, queries);
+        } catch (RejectedExecutionException ex) {
+            return CompletableFuture.failedFuture(ex);
+        }
+    }
+
+    /**
+     * Writes everything still in the ring and closes the file.
+     */
+    public void close() {
+        queries.shutdown();
+        if (writer == null) {
+            return;
+        }
+        running = false;
+        LockSupport.unpark(writer);
+        try {
+            writer.join(TimeUnit.SECONDS.toMillis(10));
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+        if (writer.isAlive()) {
+            logger.warning("Timed out waiting for the bet ledger to be written.");
+            return;
+        }
+        try {
+            channel.force(false);
+        } catch (IOException ex) {
+            logger.warning("Failed to sync the bet ledger: " + ex.getMessage());
+        }
+        closeChannel();
+    }
+
+    private void drainLoop() {
+        ByteBuffer batch = ByteBuffer.allocate(BATCH_RECORDS * LedgerEntry.BYTES);
+        CRC32 crc = new CRC32();
+        boolean failed = false;
+        while (true) {
+            boolean stopping = !running;
+            batch.clear();
+            if (ring.drain(batch, crc) == 0) {
+                if (stopping) {
+                    return;
+                }
+                LockSupport.parkNanos(this, TimeUnit.MILLISECONDS.toNanos(100));
+                continue;
+            }
+            if (failed) {
+                continue; // keep draining so the ring does not fill up
+            }
+            batch.flip();
+            try {
+                while (batch.hasRemaining()) {
+                    channel.write(batch);
+                }
+            } catch (IOException ex) {
+                failed = true;
+                logger.warning("Failed to write the bet ledger; recording stopped until restart: " + ex.getMessage());
+            }
+        }
+    }
+
+    private ByteBuffer readRecord(long index) throws IOException {
+        ByteBuffer buf = ByteBuffer.allocate(LedgerEntry.BYTES);
+        long position = HEADER_BYTES + index * LedgerEntry.BYTES;
+        while (buf.hasRemaining()) {
+            if (channel.read(buf, position + buf.position()) < 0) {
+                break;
+            }
+        }
+        return buf;
+    }
+
+    static void checkHeader(FileChannel channel, File file) throws IOException {
+        ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES);
+        while (header.hasRemaining()) {
+            if (channel.read(header, header.position()) < 0) {
+                throw new IOException(file.getName() + " is truncated");
+            }
+        }
+        if (header.getInt(0) != MAGIC || header.getInt(4) != VERSION) {
+            throw new IOException(file.getName() + " has an unknown format");
+        }
+    }
+
+    /**
+     * Rewrites a version 1 ledger with amounts in minor units. The copy replaces the original only once complete.
+     */
+    private static void upgrade(File file, Logger logger) throws IOException {
+        if (file.length() < HEADER_BYTES) {
+            return;
+        }
+        File tmp = new File(file.getParentFile(), file.getName() + ".tmp");
+        try (FileChannel in = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+            ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES);
+            readFully(in, header, 0);
+            if (header.getInt(0) != MAGIC || header.getInt(4) != 1) {
+                return;
+            }
+            try (FileChannel out = FileChannel.open(tmp.toPath(), StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+                header.putInt(4, VERSION).flip();
+                writeFully(out, header);
+                ByteBuffer batch = ByteBuffer.allocate(BATCH_RECORDS * LedgerEntry.BYTES);
+                CRC32 crc = new CRC32();
+                long end = HEADER_BYTES + (in.size() - HEADER_BYTES) / LedgerEntry.BYTES * LedgerEntry.BYTES;
+                long converted = 0;
+                for (long position = HEADER_BYTES; position < end; position += batch.limit()) {
+                    batch.clear().limit((int) Math.min(batch.capacity(), end - position));
+                    readFully(in, batch, position);
+                    for (int at = 0; at < batch.limit(); at += LedgerEntry.BYTES) {
+                        if (!LedgerEntry.valid(batch, at, crc)) {
+                            continue; // left as is so the audit still reports it
+                        }
+                        batch.putLong(at + 40, Money.fromDouble(batch.getDouble(at + 40)));
+                        batch.putLong(at + 56, Money.fromDouble(batch.getDouble(at + 56)));
+                        crc.reset();
+                        crc.update(batch.array(), at, LedgerEntry.BYTES - 4);
+                        batch.putInt(at + LedgerEntry.BYTES - 4, (int) crc.getValue());
+                        converted++;
+                    }
+                    batch.position(0);
+                    writeFully(out, batch);
+                }
+                out.force(true);
+                logger.info("Converted " + converted + " bet ledger records to minor units.");
+            }
+        }
+        try {
+            Files.move(tmp.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (AtomicMoveNotSupportedException ex) {
+            Files.move(tmp.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    private static void readFully(FileChannel in, ByteBuffer buf, long position) throws IOException {
+        while (buf.hasRemaining()) {
+            if (in.read(buf, position + buf.position()) < 0) {
+                throw new IOException("unexpected end of file");
+            }
+        }
+    }
+
+    private static void writeFully(FileChannel out, ByteBuffer buf) throws IOException {
+        while (buf.hasRemaining()) {
+            out.write(buf);
+        }
+    }
+
+    private void closeChannel() {
+        if (channel == null) {
+            return;
+        }
+        try {
+            channel.close();
+        } catch (IOException ignored) {
+        }
+        channel = null;
+    }
+}
@@ -0,0 +1,29 @@
+package com.shorecrash.ledger;
+
+/**
+ * Wager events recorded in the bet ledger. The ordinal is the on-disk code, so only append new values.
+ */
+public enum LedgerAction {
+    /** New bet; amount is the stake withdrawn. */
+    PLACE,
+    /** Stake changed; amount is the new total stake. */
+    UPDATE,
+    /** Player cancelled while waiting; amount is the stake returned. */
+    CANCEL,
+    /** Player quit while waiting; amount is the stake returned. */
+    REFUND,
+    /** Cashed out; multiplier and payout are set. */
+    CASHOUT,
+    /** Bet lost to the crash or to quitting mid-round. */
+    LOSS;
+
+    private static final LedgerAction[] VALUES = values();
+
+    static LedgerAction fromCode(int code) {
+        return code >= 0 && code < VALUES.length ? VALUES[code] : null;
+    }
+
+    boolean settles() {
+        return this != PLACE && this != UPDATE;
+    }
+}
@@ -0,0 +1,72 @@
+package com.shorecrash.ledger;
+
+import java.nio.ByteBuffer;
+import java.util.UUID;
+import java.util.zip.CRC32;
+
+/**
+ * One ledger record.
+ * <p>
+ * On disk each record is {@value #BYTES} bytes: sequence, round id, timestamp (epoch micros, never decreasing),
+ * player uuid, amount, multiplier, payout, action code and a CRC32 of the preceding bytes. Amount and payout are
+ * {@link com.shorecrash.util.Money} minor units.
+ */
+public record LedgerEntry(long sequence, long roundId, long timestampMicros, UUID playerId, LedgerAction action,
+                          long amount, double multiplier, long payout) {
+    public static final int BYTES = 72;
+    private static final int CRC_OFFSET = BYTES - 4;
+
+    static void encode(ByteBuffer buf, CRC32 crc, long sequence, long roundId, long timestampMicros, long msb, long lsb,
+                       int action, long amount, double multiplier, long payout) {
+        int start = buf.position();
+        buf.putLong(sequence)
+                .putLong(roundId)
+                .putLong(timestampMicros)
+                .putLong(msb)
+                .putLong(lsb)
+                .putLong(amount)
+                .putDouble(multiplier)
+                .putLong(payout)
+                .putInt(action);
+        crc.reset();
+        crc.update(buf.array(), buf.arrayOffset() + start, CRC_OFFSET);
+        buf.putInt((int) crc.getValue());
+    }
+
+    static long sequenceAt(ByteBuffer buf, int at) {
+        return buf.getLong(at);
+    }
+
+    static long roundAt(ByteBuffer buf, int at) {
+        return buf.getLong(at + 8);
+    }
+
+    static long timestampAt(ByteBuffer buf, int at) {
+        return buf.getLong(at + 16);
+    }
+
+    static boolean playerAt(ByteBuffer buf, int at, UUID id) {
+        return buf.getLong(at + 24) == id.getMostSignificantBits() && buf.getLong(at + 32) == id.getLeastSignificantBits();
+    }
+
+    static boolean valid(ByteBuffer buf, int at, CRC32 crc) {
+        ByteBuffer slice = buf.duplicate();
+        slice.limit(at + CRC_OFFSET).position(at);
+        crc.reset();
+        crc.update(slice);
+        return (int) crc.getValue() == buf.getInt(at + CRC_OFFSET);
+    }
+
+    /**
+     * Decodes the record at {@code at}, or returns null if its action code is unknown.
+     */
+    static LedgerEntry decode(ByteBuffer buf, int at) {
+        LedgerAction action = LedgerAction.fromCode(buf.getInt(at + 64));
+        if (action == null) {
+            return null;
+        }
+        return new LedgerEntry(buf.getLong(at), buf.getLong(at + 8), buf.getLong(at + 16),
+                new UUID(buf.getLong(at + 24), buf.getLong(at + 32)), action,
+                buf.getLong(at + 40), buf.getDouble(at + 48), buf.getLong(at + 56));
+    }
+}
@@ -0,0 +1,236 @@
+package com.shorecrash.ledger;
+
+import com.shorecrash.util.Money;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.zip.CRC32;
+
+/**
+ * Read-only view of a ledger file through memory mapping. Has no server dependencies, so it can be used from an
+ * offline tool as well as from {@link BetLedger}.
+ * <p>
+ * Round ids never decrease along the file, so the records of one round are contiguous and are found by binary
+ * search.
+ */
+public final class LedgerReader implements Closeable {
+    private static final int CHUNK_RECORDS = 1 << 20;
+    private static final int MAX_SAMPLES = 5;
+
+    private final FileChannel channel;
+    private final long count;
+    private final MappedByteBuffer[] chunks;
+
+    private LedgerReader(FileChannel channel, long count) throws IOException {
+        this.channel = channel;
+        this.count = count;
+        this.chunks = new MappedByteBuffer[(int) ((count + CHUNK_RECORDS - 1) / CHUNK_RECORDS)];
+        for (int i = 0; i < chunks.length; i++) {
+            long first = (long) i * CHUNK_RECORDS;
+            long records = Math.min(CHUNK_RECORDS, count - first);
+            chunks[i] = channel.map(FileChannel.MapMode.READ_ONLY, BetLedger.HEADER_BYTES + first * LedgerEntry.BYTES,
+                    records * LedgerEntry.BYTES);
+        }
+    }
+
+    public static LedgerReader open(File file) throws IOException {
+        FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ);
+        try {
+            BetLedger.checkHeader(channel, file);
+            long count = (channel.size() - BetLedger.HEADER_BYTES) / LedgerEntry.BYTES;
+            return new LedgerReader(channel, Math.max(0, count));
+        } catch (IOException | RuntimeException ex) {
+            channel.close();
+            throw ex;
+        }
+    }
+
+    public long size() {
+        return count;
+    }
+
+    /**
+     * Every record of {@code playerId} in round {@code roundId}, in order.
+     */
+    public List<LedgerEntry> find(UUID playerId, long roundId) {
+        List<LedgerEntry> out = new ArrayList<>();
+        for (long i = firstOfRound(roundId); i < count; i++) {
+            MappedByteBuffer buf = chunk(i);
+            int at = offset(i);
+            if (LedgerEntry.roundAt(buf, at) != roundId) {
+                break;
+            }
+            if (LedgerEntry.playerAt(buf, at, playerId)) {
+                LedgerEntry entry = LedgerEntry.decode(buf, at);
+                if (entry != null) {
+                    out.add(entry);
+                }
+            }
+        }
+        return out;
+    }
+
+    /**
+     * The newest {@code limit} records of {@code playerId}, oldest first. Scans backwards from the end of the file.
+     */
+    public List<LedgerEntry> latest(UUID playerId, int limit) {
+        Deque<LedgerEntry> out = new ArrayDeque<>(limit);
+        for (long i = count - 1; i >= 0 && out.size() < limit; i--) {
+            MappedByteBuffer buf = chunk(i);
+            int at = offset(i);
+            if (LedgerEntry.playerAt(buf, at, playerId)) {
+                LedgerEntry entry = LedgerEntry.decode(buf, at);
+                if (entry != null) {
+                    out.addFirst(entry);
+                }
+            }
+        }
+        return new ArrayList<>(out);
+    }
+
+    /**
+     * Replays every record, rebuilding the settled totals and checking that each bet was settled exactly once, that
+     * no cashout paid more than stake times multiplier and that no sequence numbers are missing.
+     */
+    public LedgerReport replay() {
+        CRC32 crc = new CRC32();
+        Map<UUID, Long> openStakes = new HashMap<>();
+        List<String> samples = new ArrayList<>();
+        long records = 0;
+        long corrupt = 0;
+        long rounds = 0;
+        long bets = 0;
+        long wins = 0;
+        long losses = 0;
+        long returned = 0;
+        long unsettled = 0;
+        long anomalies = 0;
+        long totalBet = 0;
+        long totalWon = 0;
+        long refunded = 0;
+        long rake = 0;
+        long round = Long.MIN_VALUE;
+        long expectedSequence = -1;
+        for (long i = 0; i < count; i++) {
+            MappedByteBuffer buf = chunk(i);
+            int at = offset(i);
+            LedgerEntry entry = LedgerEntry.valid(buf, at, crc) ? LedgerEntry.decode(buf, at) : null;
+            if (entry == null) {
+                corrupt++;
+                continue;
+            }
+            records++;
+            if (expectedSequence >= 0 && entry.sequence() != expectedSequence) {
+                anomalies++;
+                if (samples.size() < MAX_SAMPLES) {
+                    samples.add("#" + entry.sequence() + ": " + (entry.sequence() - expectedSequence) + " records missing before it");
+                }
+            }
+            expectedSequence = entry.sequence() + 1;
+            if (entry.roundId() != round) {
+                unsettled += openStakes.size();
+                openStakes.clear();
+                round = entry.roundId();
+                rounds++;
+            }
+            Long stake = openStakes.get(entry.playerId());
+            String problem = null;
+            switch (entry.action()) {
+                case PLACE -> {
+                    if (stake != null) {
+                        problem = "second bet without settling the first";
+                    }
+                    bets++;
+                    openStakes.put(entry.playerId(), entry.amount());
+                }
+                case UPDATE -> {
+                    if (stake == null) {
+                        problem = "update without an open bet";
+                    }
+                    openStakes.put(entry.playerId(), entry.amount());
+                }
+                case CANCEL, REFUND -> {
+                    returned++;
+                    refunded += entry.amount();
+                    problem = checkStake(stake, entry);
+                }
+                case CASHOUT -> {
+                    wins++;
+                    totalBet += entry.amount();
+                    totalWon += entry.payout();
+                    long gross = Money.gross(entry.amount(), Money.multiplierUnits(entry.multiplier()));
+                    rake += gross - entry.payout();
+                    problem = checkStake(stake, entry);
+                    if (problem == null && entry.payout() > gross) {
+                        problem = "payout above stake times multiplier";
+                    }
+                }
+                case LOSS -> {
+                    losses++;
+                    totalBet += entry.amount();
+                    problem = checkStake(stake, entry);
+                }
+            }
+            if (entry.action().settles()) {
+                openStakes.remove(entry.playerId());
+            }
+            if (problem != null) {
+                anomalies++;
+                if (samples.size() < MAX_SAMPLES) {
+                    samples.add("#" + entry.sequence() + " round " + entry.roundId() + " " + entry.playerId() + " "
+                            + entry.action() + ": " + problem);
+                }
+            }
+        }
+        return new LedgerReport(records, corrupt, rounds, bets, wins, losses, returned, totalBet, totalWon, refunded,
+                rake, unsettled, openStakes.size(), anomalies, samples);
+    }
+
+    private static String checkStake(Long stake, LedgerEntry entry) {
+        if (stake == null) {
+            return "settled without an open bet";
+        }
+        if (stake != entry.amount()) {
+            return "settled " + Money.toDecimal(entry.amount()) + " but the stake was " + Money.toDecimal(stake);
+        }
+        return null;
+    }
+
+    private long firstOfRound(long roundId) {
+        long lo = 0;
+        long hi = count;
+        while (lo < hi) {
+            long mid = (lo + hi) >>> 1;
+            if (LedgerEntry.roundAt(chunk(mid), offset(mid)) < roundId) {
+                lo = mid + 1;
+            } else {
+                hi = mid;
+            }
+        }
+        return lo;
+    }
+
+    private MappedByteBuffer chunk(long index) {
+        return chunks[(int) (index / CHUNK_RECORDS)];
+    }
+
+    private static int offset(long index) {
+        return (int) (index % CHUNK_RECORDS) * LedgerEntry.BYTES;
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+}
@@ -0,0 +1,46 @@
+package com.shorecrash.ledger;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Result of replaying a whole ledger, or the sum over several with {@link #plus}. Amounts are {@link com.shorecrash.util.Money} minor units.
+ *
+ * @param records    valid records read
+ * @param corrupt    records with a bad checksum or unknown action (skipped)
+ * @param rounds     rounds with at least one record
+ * @param bets       bets placed
+ * @param wins       bets cashed out
+ * @param losses     bets lost
+ * @param returned   bets cancelled or refunded
+ * @param totalBet   stakes of settled (won or lost) bets
+ * @param totalWon   payouts of cashed out bets
+ * @param refunded   money returned by cancels and refunds
+ * @param rake       house edge withheld from cashouts
+ * @param unsettled  bets of finished rounds that never got a cashout, loss, cancel or refund
+ * @param open       bets of the last round that are not settled yet
+ * @param anomalies  records that do not fit the bet's history (e.g. a second settlement)
+ * @param samples    descriptions of the first few anomalies
+ */
+public record LedgerReport(long records, long corrupt, long rounds, long bets, long wins, long losses, long returned,
+                           long totalBet, long totalWon, long refunded, long rake, long unsettled, long open,
+                           long anomalies, List<String> samples) {
+    /**
+     * Player net over all settled bets; matches {@code net} in the stats totals when the ledger covers all history.
+     */
+    public long net() {
+        return totalWon - totalBet;
+    }
+
+    /**
+     * The totals of two ledgers, e.g. of two tables.
+     */
+    public LedgerReport plus(LedgerReport other) {
+        List<String> merged = new ArrayList<>(samples);
+        merged.addAll(other.samples);
+        return new LedgerReport(records + other.records, corrupt + other.corrupt, rounds + other.rounds,
+                bets + other.bets, wins + other.wins, losses + other.losses, returned + other.returned,
+                totalBet + other.totalBet, totalWon + other.totalWon, refunded + other.refunded, rake + other.rake,
+                unsettled + other.unsettled, open + other.open, anomalies + other.anomalies, merged);
+    }
+}
@@ -0,0 +1,91 @@
+package com.shorecrash.ledger;
+
+import java.nio.ByteBuffer;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.zip.CRC32;
+
+/**
+ * Single-producer single-consumer ring of pending ledger records, stored column-wise in preallocated primitive arrays
+ * so an append allocates nothing. The main thread is the only producer and the ledger writer the only consumer;
+ * each side publishes its cursor with a release store and neither ever waits for the other.
+ */
+final class LedgerRing {
+    private final int mask;
+    private final long[] sequence;
+    private final long[] round;
+    private final long[] timestamp;
+    private final long[] msb;
+    private final long[] lsb;
+    private final int[] action;
+    private final long[] amount;
+    private final double[] multiplier;
+    private final long[] payout;
+
+    private final AtomicLong head = new AtomicLong(); // next slot to drain, written by the consumer
+    private final AtomicLong tail = new AtomicLong(); // next slot to fill, written by the producer
+    private long headCache; // producer's last view of head
+
+    LedgerRing(int capacity) {
+        if (Integer.bitCount(capacity) != 1) {
+            throw new IllegalArgumentException("capacity must be a power of two");
+        }
+        mask = capacity - 1;
+        sequence = new long[capacity];
+        round = new long[capacity];
+        timestamp = new long[capacity];
+        msb = new long[capacity];
+        lsb = new long[capacity];
+        action = new int[capacity];
+        amount = new long[capacity];
+        multiplier = new double[capacity];
+        payout = new long[capacity];
+    }
+
+    /**
+     * Producer side. Returns false if the ring is full.
+     */
+    boolean offer(long seq, long roundId, long micros, UUID playerId, LedgerAction act, long amt, double mult, long paid) {
+        long t = tail.get();
+        if (t - headCache > mask) {
+            headCache = head.get();
+            if (t - headCache > mask) {
+                return false;
+            }
+        }
+        int i = (int) t & mask;
+        sequence[i] = seq;
+        round[i] = roundId;
+        timestamp[i] = micros;
+        msb[i] = playerId.getMostSignificantBits();
+        lsb[i] = playerId.getLeastSignificantBits();
+        action[i] = act.ordinal();
+        amount[i] = amt;
+        multiplier[i] = mult;
+        payout[i] = paid;
+        tail.lazySet(t + 1);
+        return true;
+    }
+
+    /**
+     * Consumer side. Encodes as many pending records as fit into {@code out} and returns how many were taken.
+     */
+    int drain(ByteBuffer out, CRC32 crc) {
+        long h = head.get();
+        long available = tail.get() - h;
+        int count = (int) Math.min(available, out.remaining() / LedgerEntry.BYTES);
+        for (int n = 0; n < count; n++) {
+            int i = (int) (h + n) & mask;
+            LedgerEntry.encode(out, crc, sequence[i], round[i], timestamp[i], msb[i], lsb[i], action[i],
+                    amount[i], multiplier[i], payout[i]);
+        }
+        if (count > 0) {
+            head.lazySet(h + count);
+        }
+        return count;
+    }
+
+    boolean isEmpty() {
+        return head.get() == tail.get();
+    }
+}
@@ -1,29 +1,43 @@
 package com.shorecrash.listener;
 
+import com.shorecrash.game.ArenaManager;
 import com.shorecrash.game.CrashGame;
 import com.shorecrash.stats.StatsInventoryHolder;
+import com.shorecrash.util.Schedulers;
 import org.bukkit.event.inventory.InventoryClickEvent;
 import org.bukkit.event.inventory.InventoryDragEvent;
 import org.bukkit.event.EventHandler;
 import org.bukkit.event.Listener;
 import org.bukkit.event.player.PlayerQuitEvent;
+import org.bukkit.entity.Player;
 
 public class CrashListener implements Listener {
-    private final CrashGame game;
+    private final ArenaManager arenas;
+    private final Schedulers scheduler;
 
-    public CrashListener(CrashGame game) {
-        this.game = game;
+    public CrashListener(ArenaManager arenas, Schedulers scheduler) {
+        this.arenas = arenas;
+        this.scheduler = scheduler;
     }
 
     @EventHandler
     public void onQuit(PlayerQuitEvent event) {
-        game.handleQuit(event.getPlayer());
+        Player player = event.getPlayer();
+        scheduler.global(() -> {
+            for (CrashGame game : arenas.all()) {
+                game.handleQuit(player);
+            }
+        });
     }
 
     @EventHandler
     public void onInventoryClick(InventoryClickEvent event) {
-        if (event.getInventory().getHolder() instanceof StatsInventoryHolder) {
+        if (event.getInventory().getHolder() instanceof StatsInventoryHolder holder) {
             event.setCancelled(true);
+            if (holder.getCategory() != null && event.getWhoClicked() instanceof Player player) {
+                int slot = event.getRawSlot();
+                scheduler.global(() -> arenas.primary().handleLeaderboardClick(player, holder, slot));
+            }
         }
     }
 
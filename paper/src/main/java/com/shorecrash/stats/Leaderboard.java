@@ -0,0 +1,249 @@
+package com.shorecrash.stats;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.TreeSet;
+import java.util.UUID;
+
+/**
+ * Incrementally maintained top players per {@link Category}.
+ * <p>
+ * Each board is a sorted set plus a uuid -> entry map, holding the true best players up to twice the configured
+ * size. Everyone outside a board scores no higher than its last entry, so an update is O(log n): reposition a
+ * member, drop a member that fell below the last entry, or admit an outsider that rose above it. A board that has
+ * shrunk below the configured size needs a reseed from the repository ({@link #needsReseed}).
+ */
+public class Leaderboard {
+    public enum Category {
+        NET("Net Profit"),
+        WINS("Wins"),
+        WAGERED("Total Wagered"),
+        WIN_RATE("Win Rate");
+
+        private final String label;
+
+        Category(String label) {
+            this.label = label;
+        }
+
+        public String getLabel() {
+            return label;
+        }
+
+        /**
+         * Parses a command argument such as {@code net} or {@code winrate}; null if unknown.
+         */
+        public static Category parse(String raw) {
+            String key = raw.toUpperCase(Locale.ROOT).replace("_", "").replace("-", "");
+            for (Category category : values()) {
+                if (category.name().replace("_", "").equals(key)) {
+                    return category;
+                }
+            }
+            return null;
+        }
+
+        /**
+         * Score used for ranking (money in minor units), or NaN if the player does not qualify for this board.
+         */
+        public double score(StatsService.PlayerStats stats, int minGames) {
+            return switch (this) {
+                case NET -> stats.getTotalGames() > 0 ? stats.getNet() : Double.NaN;
+                case WINS -> stats.getWins() > 0 ? stats.getWins() : Double.NaN;
+                case WAGERED -> stats.getTotalBet() > 0 ? stats.getTotalBet() : Double.NaN;
+                case WIN_RATE -> stats.getTotalGames() >= Math.max(1, minGames) ? (double) stats.getWins() / stats.getTotalGames() : Double.NaN;
+            };
+        }
+    }
+
+    public record Entry(UUID id, double score) {}
+
+    private static final Comparator<Entry> ORDER = Comparator.comparingDouble(Entry::score).reversed()
+            .thenComparing(Entry::id);
+
+    private final int size;
+    private final int capacity;
+    private final int minGames;
+    private final Map<Category, Board> boards = new EnumMap<>(Category.class);
+
+    public Leaderboard(int size, int minGames) {
+        this.size = Math.max(1, size);
+        this.capacity = this.size * 2;
+        this.minGames = minGames;
+        for (Category category : Category.values()) {
+            boards.put(category, new Board());
+        }
+    }
+
+    public int getSize() {
+        return size;
+    }
+
+    public int getMinGames() {
+        return minGames;
+    }
+
+    /**
+     * Number of entries to request from the repository when reseeding.
+     */
+    public int getCapacity() {
+        return capacity;
+    }
+
+    public void update(UUID id, StatsService.PlayerStats stats) {
+        for (Map.Entry<Category, Board> entry : boards.entrySet()) {
+            entry.getValue().update(id, entry.getKey().score(stats, minGames));
+        }
+    }
+
+    /**
+     * Increases whenever the visible top of {@code category} may have changed; used to invalidate rendered pages.
+     */
+    public long version(Category category) {
+        return boards.get(category).version;
+    }
+
+    public boolean needsReseed(Category category) {
+        Board board = boards.get(category);
+        return !board.complete && board.sorted.size() < size;
+    }
+
+    /**
+     * Entries {@code from} (0-based rank) up to {@code from + count}, limited to the configured size.
+     */
+    public List<Entry> range(Category category, int from, int count) {
+        List<Entry> out = new ArrayList<>(count);
+        int end = Math.min(size, from + count);
+        int rank = 0;
+        for (Entry entry : boards.get(category).sorted) {
+            if (rank >= end) {
+                break;
+            }
+            if (rank++ >= from) {
+                out.add(entry);
+            }
+        }
+        return out;
+    }
+
+    public int count(Category category) {
+        return Math.min(size, boards.get(category).sorted.size());
+    }
+
+    /**
+     * Replaces a board with the best of {@code candidates}. {@code complete} means the candidates are every player
+     * that has stats, so anyone may enter the board later.
+     */
+    public void reseed(Category category, Map<UUID, StatsService.PlayerStats> candidates, boolean complete) {
+        TopCollector collector = new TopCollector(category, capacity, minGames);
+        candidates.forEach(collector::offer);
+        Board board = boards.get(category);
+        board.sorted.clear();
+        board.byId.clear();
+        for (Entry entry : collector.entries()) {
+            board.sorted.add(entry);
+            board.byId.put(entry.id(), entry);
+        }
+        board.complete = complete && candidates.size() <= capacity;
+        board.version++;
+    }
+
+    /**
+     * Keeps the best {@code limit} players offered to it in a bounded min-heap. Offered stats are copied only when
+     * admitted, so callers may reuse one scratch object while scanning.
+     */
+    public static final class TopCollector {
+        private final Category category;
+        private final int limit;
+        private final int minGames;
+        private final PriorityQueue<Entry> heap;
+        private final Map<UUID, StatsService.PlayerStats> kept = new HashMap<>();
+
+        public TopCollector(Category category, int limit, int minGames) {
+            this.category = category;
+            this.limit = Math.max(1, limit);
+            this.minGames = minGames;
+            this.heap = new PriorityQueue<>(this.limit + 1, ORDER.reversed());
+        }
+
+        public void offer(UUID id, StatsService.PlayerStats stats) {
+            double score = category.score(stats, minGames);
+            if (Double.isNaN(score)) {
+                return;
+            }
+            Entry entry = new Entry(id, score);
+            if (heap.size() == limit) {
+                if (ORDER.compare(entry, heap.peek()) >= 0) {
+                    return;
+                }
+                kept.remove(heap.poll().id());
+            }
+            heap.add(entry);
+            kept.put(id, stats.copy());
+        }
+
+        /**
+         * Admitted entries, best first.
+         */
+        public List<Entry> entries() {
+            List<Entry> out = new ArrayList<>(heap);
+            out.sort(ORDER);
+            return out;
+        }
+
+        /**
+         * Admitted players, best first.
+         */
+        public Map<UUID, StatsService.PlayerStats> players() {
+            Map<UUID, StatsService.PlayerStats> out = new LinkedHashMap<>();
+            for (Entry entry : entries()) {
+                out.put(entry.id(), kept.get(entry.id()));
+            }
+            return out;
+        }
+    }
+
+    private final class Board {
+        private final TreeSet<Entry> sorted = new TreeSet<>(ORDER);
+        private final Map<UUID, Entry> byId = new HashMap<>();
+        private boolean complete = true; // empty board of a fresh install: nobody is missing
+        private long version;
+
+        private void update(UUID id, double score) {
+            Entry old = byId.get(id);
+            if (old != null) {
+                if (old.score() == score) {
+                    return;
+                }
+                sorted.remove(old);
+                byId.remove(id);
+                version++;
+            }
+            if (Double.isNaN(score)) {
+                return;
+            }
+            Entry entry = new Entry(id, score);
+            if (!complete && !sorted.isEmpty() && ORDER.compare(entry, sorted.last()) > 0) {
+                return; // below the last entry: someone outside the board could rank higher
+            }
+            if (!complete && sorted.isEmpty()) {
+                return; // nothing to compare against until the next reseed
+            }
+            sorted.add(entry);
+            byId.put(id, entry);
+            if (sorted.size() > capacity) {
+                Entry last = sorted.pollLast();
+                byId.remove(last.id());
+                complete = false;
+            }
+            version++;
+        }
+    }
+}
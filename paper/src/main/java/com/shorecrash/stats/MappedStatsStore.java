@@ -0,0 +1,338 @@
+package com.shorecrash.stats;
+
+import com.shorecrash.util.Money;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Logger;
+
+/**
+ * Fixed-width player stats records in a memory-mapped file (stats.dat).
+ * <p>
+ * Layout: an 80 byte header (magic, version, used slot count, server totals) followed by 80 byte slots of
+ * uuid + 3 counts + 5 amounts in {@link Money} minor units, all longs. An open-addressed uuid -> slot index is
+ * rebuilt from the slot uuids on open, so startup reads 16 bytes per player and updates are plain in-place puts on
+ * the main thread. Dirty pages are forced to disk by a background thread on flush. Version 1 files stored the
+ * amounts as doubles and are converted on open.
+ */
+public class MappedStatsStore implements StatsRepository {
+    private static final int MAGIC = 0x53435344; // SCSD
+    private static final int VERSION = 2;
+    private static final int LEGACY_VERSION = 1; // amounts as doubles
+    private static final int SLOT_BYTES = 16 + 3 * 8 + 5 * 8;
+    private static final int HEADER_BYTES = SLOT_BYTES;
+    private static final int TOTALS_OFFSET = 16;
+    private static final int INITIAL_SLOTS = 1024;
+
+    private final Logger logger;
+    private final File file;
+    private final ExecutorService syncer;
+    private FileChannel channel;
+    private volatile MappedByteBuffer buffer;
+    private int capacity;
+    private int used;
+    private boolean dirty;
+
+    // Open-addressed index; value is slot + 1 so 0 marks an empty bucket
+    private long[] indexMsb;
+    private long[] indexLsb;
+    private int[] indexSlot;
+    private int indexMask;
+
+    public MappedStatsStore(Logger logger, File file) {
+        this.logger = logger;
+        this.file = file;
+        this.syncer = Executors.newSingleThreadExecutor(r -> {
+            Thread thread = new Thread(r, "ShoreCrash-StatsSync");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return !file.exists() || file.length() < HEADER_BYTES;
+    }
+
+    @Override
+    public void open(Map<UUID, StatsService.PlayerStats> imported, StatsService.PlayerStats totals) throws IOException {
+        boolean fresh = isEmpty();
+        if (!fresh) {
+            upgrade();
+        }
+        this.channel = FileChannel.open(file.toPath(), StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        if (fresh) {
+            map(Math.max(INITIAL_SLOTS, imported.size()));
+            buffer.putInt(0, MAGIC);
+            buffer.putInt(4, VERSION);
+            buffer.putInt(8, 0);
+            rebuildIndex();
+            for (Map.Entry<UUID, StatsService.PlayerStats> entry : imported.entrySet()) {
+                write(entry.getKey(), entry.getValue());
+            }
+            writeTotals(totals);
+            buffer.force();
+            return;
+        }
+        map((int) ((channel.size() - HEADER_BYTES) / SLOT_BYTES));
+        if (buffer.getInt(0) != MAGIC || buffer.getInt(4) != VERSION) {
+            throw new IOException(file.getName() + " has an unknown format");
+        }
+        used = Math.min(buffer.getInt(8), capacity);
+        rebuildIndex();
+        readTotals(totals);
+    }
+
+    @Override
+    public boolean find(UUID id, StatsService.PlayerStats into) {
+        int slot = find(id);
+        if (slot < 0) {
+            return false;
+        }
+        readStats(offset(slot) + 16, into);
+        return true;
+    }
+
+    /**
+     * Scans the slots on the sync thread. Slots written meanwhile belong to cached players, whose state
+     * {@link StatsService} lays over the result anyway, so a torn read there does not matter.
+     */
+    @Override
+    public CompletableFuture<Map<UUID, StatsService.PlayerStats>> top(Leaderboard.Category category, int limit, int minGames) {
+        MappedByteBuffer current = buffer; // stays mapped even if the file grows meanwhile
+        int count = used;
+        try {
+            return CompletableFuture.supplyAsync(() -> {
+                Leaderboard.TopCollector collector = new Leaderboard.TopCollector(category, limit, minGames);
+                StatsService.PlayerStats scratch = new StatsService.PlayerStats();
+                for (int slot = 0; slot < count; slot++) {
+                    int base = offset(slot);
+                    readStats(current, base + 16, scratch);
+                    collector.offer(new UUID(current.getLong(base), current.getLong(base + 8)), scratch);
+                }
+                return collector.players();
+            }, syncer);
+        } catch (RejectedExecutionException ex) {
+            return CompletableFuture.completedFuture(Map.of());
+        }
+    }
+
+    @Override
+    public void evict(UUID id, StatsService.PlayerStats stats) {
+        // every update is already written in place
+    }
+
+    @Override
+    public void recordCashout(UUID id, long bet, long payout, StatsService.PlayerStats stats, StatsService.PlayerStats totals) {
+        write(id, stats);
+        writeTotals(totals);
+    }
+
+    @Override
+    public void recordLoss(UUID id, long bet, StatsService.PlayerStats stats, StatsService.PlayerStats totals) {
+        write(id, stats);
+        writeTotals(totals);
+    }
+
+    @Override
+    public void flush() {
+        if (!dirty) {
+            return;
+        }
+        dirty = false;
+        MappedByteBuffer current = buffer;
+        try {
+            syncer.execute(current::force);
+        } catch (RejectedExecutionException ignored) {
+            // close() forces the mapping itself
+        }
+    }
+
+    @Override
+    public void close() {
+        syncer.shutdown();
+        try {
+            syncer.awaitTermination(10, TimeUnit.SECONDS);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+        if (channel == null) {
+            return;
+        }
+        try {
+            if (buffer != null) {
+                buffer.force();
+            }
+            channel.close();
+        } catch (IOException ex) {
+            logger.warning("Failed to close " + file.getName() + ": " + ex.getMessage());
+        }
+    }
+
+    /**
+     * Converts a version 1 file into a copy that replaces it only when complete; same width, so slots stay in place.
+     */
+    private void upgrade() throws IOException {
+        ByteBuffer data = ByteBuffer.wrap(Files.readAllBytes(file.toPath()));
+        if (data.getInt(0) != MAGIC || data.getInt(4) != LEGACY_VERSION) {
+            return;
+        }
+        int players = Math.min(data.getInt(8), (data.capacity() - HEADER_BYTES) / SLOT_BYTES);
+        convertAmounts(data, TOTALS_OFFSET);
+        for (int slot = 0; slot < players; slot++) {
+            convertAmounts(data, offset(slot) + 16);
+        }
+        data.putInt(4, VERSION);
+        File tmp = new File(file.getParentFile(), file.getName() + ".tmp");
+        try (FileChannel out = FileChannel.open(tmp.toPath(), StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            while (data.hasRemaining()) {
+                out.write(data);
+            }
+            out.force(true);
+        }
+        try {
+            Files.move(tmp.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (AtomicMoveNotSupportedException ex) {
+            Files.move(tmp.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING);
+        }
+        logger.info("Converted " + players + " players in " + file.getName() + " to minor units.");
+    }
+
+    private static void convertAmounts(ByteBuffer buf, int at) {
+        for (int field = 24; field <= 56; field += 8) {
+            buf.putLong(at + field, Money.fromDouble(buf.getDouble(at + field)));
+        }
+    }
+
+    private void write(UUID id, StatsService.PlayerStats stats) {
+        int slot = find(id);
+        if (slot < 0) {
+            slot = allocate(id);
+        }
+        writeStats(offset(slot) + 16, stats);
+        dirty = true;
+    }
+
+    private void readTotals(StatsService.PlayerStats into) {
+        readStats(TOTALS_OFFSET, into);
+    }
+
+    private void writeTotals(StatsService.PlayerStats totals) {
+        writeStats(TOTALS_OFFSET, totals);
+        dirty = true;
+    }
+
+    private int allocate(UUID id) {
+        if (used == capacity) {
+            try {
+                map(capacity * 2);
+            } catch (IOException ex) {
+                throw new IllegalStateException("Failed to grow " + file.getName(), ex);
+            }
+        }
+        int slot = used++;
+        int base = offset(slot);
+        buffer.putLong(base, id.getMostSignificantBits());
+        buffer.putLong(base + 8, id.getLeastSignificantBits());
+        writeStats(base + 16, new StatsService.PlayerStats());
+        buffer.putInt(8, used);
+        if (used * 2 > indexSlot.length) {
+            rebuildIndex();
+        } else {
+            insert(id.getMostSignificantBits(), id.getLeastSignificantBits(), slot);
+        }
+        return slot;
+    }
+
+    private void map(int slots) throws IOException {
+        capacity = Math.max(INITIAL_SLOTS, slots);
+        buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, HEADER_BYTES + (long) capacity * SLOT_BYTES);
+    }
+
+    private int offset(int slot) {
+        return HEADER_BYTES + slot * SLOT_BYTES;
+    }
+
+    private void rebuildIndex() {
+        int size = Integer.highestOneBit(Math.max(16, used * 4) - 1) << 1;
+        indexMsb = new long[size];
+        indexLsb = new long[size];
+        indexSlot = new int[size];
+        indexMask = size - 1;
+        for (int slot = 0; slot < used; slot++) {
+            int base = offset(slot);
+            insert(buffer.getLong(base), buffer.getLong(base + 8), slot);
+        }
+    }
+
+    private void insert(long msb, long lsb, int slot) {
+        int i = hash(msb, lsb) & indexMask;
+        while (indexSlot[i] != 0) {
+            i = (i + 1) & indexMask;
+        }
+        indexMsb[i] = msb;
+        indexLsb[i] = lsb;
+        indexSlot[i] = slot + 1;
+    }
+
+    private int find(UUID id) {
+        long msb = id.getMostSignificantBits();
+        long lsb = id.getLeastSignificantBits();
+        int i = hash(msb, lsb) & indexMask;
+        while (indexSlot[i] != 0) {
+            if (indexMsb[i] == msb && indexLsb[i] == lsb) {
+                return indexSlot[i] - 1;
+            }
+            i = (i + 1) & indexMask;
+        }
+        return -1;
+    }
+
+    private static int hash(long msb, long lsb) {
+        long h = msb ^ lsb;
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        return (int) h;
+    }
+
+    private void readStats(int at, StatsService.PlayerStats into) {
+        readStats(buffer, at, into);
+    }
+
+    private static void readStats(ByteBuffer buf, int at, StatsService.PlayerStats into) {
+        into.setWins(buf.getLong(at));
+        into.setLosses(buf.getLong(at + 8));
+        into.setTotalGames(buf.getLong(at + 16));
+        into.setNet(buf.getLong(at + 24));
+        into.setProfit(buf.getLong(at + 32));
+        into.setLoss(buf.getLong(at + 40));
+        into.setTotalBet(buf.getLong(at + 48));
+        into.setTotalWon(buf.getLong(at + 56));
+    }
+
+    private void writeStats(int at, StatsService.PlayerStats stats) {
+        buffer.putLong(at, stats.getWins());
+        buffer.putLong(at + 8, stats.getLosses());
+        buffer.putLong(at + 16, stats.getTotalGames());
+        buffer.putLong(at + 24, stats.getNet());
+        buffer.putLong(at + 32, stats.getProfit());
+        buffer.putLong(at + 40, stats.getLoss());
+        buffer.putLong(at + 48, stats.getTotalBet());
+        buffer.putLong(at + 56, stats.getTotalWon());
+    }
+}
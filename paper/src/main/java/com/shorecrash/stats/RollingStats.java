@@ -0,0 +1,314 @@
+package com.shorecrash.stats;
+
+import com.shorecrash.util.Money;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * Rolling 24 hour, 7 day and 30 day stats per player and for the whole server.
+ * <p>
+ * Each tracked player has a ring of 24 hourly and 30 daily buckets. A bucket remembers which hour or day it holds
+ * and is reset the first time a later period writes to it, so recording is O(1) and no bucket is ever rotated
+ * eagerly. Players are forgotten 30 days after their last game by a day time-wheel: each wheel slot lists the
+ * players active on that day, and only that list is checked when the slot is reused, never the whole map. Amounts
+ * are {@link Money} minor units.
+ */
+public class RollingStats {
+    private static final int MAGIC = 0x53435253; // SCRS
+    private static final int VERSION = 2; // 1 stored amounts as doubles
+    private static final int HOURS = 24;
+    private static final int DAYS = 30;
+    private static final long HOUR_MILLIS = 3_600_000L;
+
+    public enum Window {
+        DAY("24h"),
+        WEEK("7d"),
+        MONTH("30d");
+
+        private final String suffix;
+
+        Window(String suffix) {
+            this.suffix = suffix;
+        }
+
+        /**
+         * Placeholder suffix, e.g. {@code 24h} in {@code %net_24h%}.
+         */
+        public String getSuffix() {
+            return suffix;
+        }
+    }
+
+    public record Totals(long wins, long losses, long totalBet, long totalWon) {
+        public long games() {
+            return wins + losses;
+        }
+
+        public long net() {
+            return totalWon - totalBet;
+        }
+    }
+
+    private final Map<UUID, Activity> players = new HashMap<>();
+    private final Activity server = new Activity();
+    private final List<Set<UUID>> wheel = new ArrayList<>(DAYS);
+    private final int[] wheelDay = new int[DAYS];
+
+    public RollingStats() {
+        for (int i = 0; i < DAYS; i++) {
+            wheel.add(new HashSet<>());
+            wheelDay[i] = Integer.MIN_VALUE;
+        }
+    }
+
+    public void recordCashout(UUID id, long bet, long payout, long nowMillis) {
+        record(id, 1, 0, bet, payout, nowMillis);
+    }
+
+    public void recordLoss(UUID id, long bet, long nowMillis) {
+        record(id, 0, 1, bet, 0, nowMillis);
+    }
+
+    private void record(UUID id, int wins, int losses, long bet, long won, long nowMillis) {
+        int hour = hour(nowMillis);
+        int day = hour / HOURS;
+        advanceWheel(day);
+        Activity activity = players.computeIfAbsent(id, k -> new Activity());
+        activity.add(hour, day, wins, losses, bet, won);
+        wheel.get(Math.floorMod(day, DAYS)).add(id);
+        server.add(hour, day, wins, losses, bet, won);
+    }
+
+    /**
+     * Totals of {@code id} (or the server when null) over {@code window}, ending now.
+     */
+    public Totals totals(UUID id, Window window, long nowMillis) {
+        Activity activity = id == null ? server : players.get(id);
+        if (activity == null) {
+            return new Totals(0, 0, 0, 0);
+        }
+        int hour = hour(nowMillis);
+        int day = hour / HOURS;
+        return switch (window) {
+            case DAY -> activity.hours.sum(hour - HOURS, hour);
+            case WEEK -> activity.days.sum(day - 7, day);
+            case MONTH -> activity.days.sum(day - DAYS, day);
+        };
+    }
+
+    public int trackedPlayers() {
+        return players.size();
+    }
+
+    /**
+     * Drops players without games in the last 30 days. Also runs on every record, so calling it is only needed to
+     * reclaim memory while nobody plays.
+     */
+    public void expire(long nowMillis) {
+        advanceWheel(hour(nowMillis) / HOURS);
+    }
+
+    private void advanceWheel(int day) {
+        int slot = Math.floorMod(day, DAYS);
+        if (wheelDay[slot] >= day) {
+            return; // already current, or the clock stepped back and the slot belongs to a later day
+        }
+        // Any slot holding a day that left the window is swept; normally that is just the slot being reused
+        for (int i = 0; i < DAYS; i++) {
+            if (wheelDay[i] != Integer.MIN_VALUE && wheelDay[i] <= day - DAYS) {
+                sweep(i, day);
+            }
+        }
+        wheelDay[slot] = day;
+    }
+
+    private void sweep(int slot, int day) {
+        for (UUID id : wheel.get(slot)) {
+            Activity activity = players.get(id);
+            if (activity != null && activity.lastDay <= day - DAYS) {
+                players.remove(id);
+            }
+        }
+        wheel.get(slot).clear();
+        wheelDay[slot] = Integer.MIN_VALUE;
+    }
+
+    private static int hour(long millis) {
+        return (int) Math.floorDiv(millis, HOUR_MILLIS);
+    }
+
+    public void save(File file) throws IOException {
+        File tmp = new File(file.getParentFile(), file.getName() + ".tmp");
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(tmp)))) {
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            server.write(out);
+            out.writeInt(players.size());
+            for (Map.Entry<UUID, Activity> entry : players.entrySet()) {
+                out.writeLong(entry.getKey().getMostSignificantBits());
+                out.writeLong(entry.getKey().getLeastSignificantBits());
+                entry.getValue().write(out);
+            }
+        }
+        try {
+            Files.move(tmp.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (AtomicMoveNotSupportedException ex) {
+            Files.move(tmp.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    public void load(File file, long nowMillis) throws IOException {
+        if (!file.exists()) {
+            return;
+        }
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(file)))) {
+            int version = in.readInt() == MAGIC ? in.readInt() : -1;
+            if (version != VERSION && version != 1) {
+                throw new IOException(file.getName() + " has an unknown format");
+            }
+            boolean legacy = version == 1;
+            server.read(in, legacy);
+            int count = in.readInt();
+            int cutoff = hour(nowMillis) / HOURS - DAYS;
+            for (int i = 0; i < count; i++) {
+                UUID id = new UUID(in.readLong(), in.readLong());
+                Activity activity = new Activity();
+                activity.read(in, legacy);
+                if (activity.lastDay > cutoff) {
+                    players.put(id, activity);
+                    wheel.get(Math.floorMod(activity.lastDay, DAYS)).add(id);
+                    wheelDay[Math.floorMod(activity.lastDay, DAYS)] = activity.lastDay;
+                }
+            }
+        }
+    }
+
+    private static final class Activity {
+        private final Ring hours = new Ring(HOURS);
+        private final Ring days = new Ring(DAYS);
+        private int lastDay = Integer.MIN_VALUE;
+
+        private void add(int hour, int day, int wins, int losses, long bet, long won) {
+            hours.add(hour, wins, losses, bet, won);
+            days.add(day, wins, losses, bet, won);
+            lastDay = day;
+        }
+
+        private void write(DataOutputStream out) throws IOException {
+            out.writeInt(lastDay);
+            hours.write(out);
+            days.write(out);
+        }
+
+        private void read(DataInputStream in, boolean legacy) throws IOException {
+            lastDay = in.readInt();
+            hours.read(in, legacy);
+            days.read(in, legacy);
+        }
+    }
+
+    /**
+     * Fixed ring of buckets indexed by period number (hour or day since the epoch) modulo the ring size.
+     */
+    private static final class Ring {
+        private final int[] period;
+        private final int[] wins;
+        private final int[] losses;
+        private final long[] bet;
+        private final long[] won;
+
+        private Ring(int size) {
+            period = new int[size];
+            wins = new int[size];
+            losses = new int[size];
+            bet = new long[size];
+            won = new long[size];
+            Arrays.fill(period, Integer.MIN_VALUE);
+        }
+
+        private void add(int p, int w, int l, long b, long o) {
+            int slot = Math.floorMod(p, period.length);
+            if (period[slot] != p) {
+                // lazily reuse a bucket whose period has left the ring
+                period[slot] = p;
+                wins[slot] = 0;
+                losses[slot] = 0;
+                bet[slot] = 0;
+                won[slot] = 0;
+            }
+            wins[slot] += w;
+            losses[slot] += l;
+            bet[slot] += b;
+            won[slot] += o;
+        }
+
+        /**
+         * Sum of buckets with {@code after < period <= upTo}.
+         */
+        private Totals sum(int after, int upTo) {
+            long w = 0;
+            long l = 0;
+            long b = 0;
+            long o = 0;
+            for (int slot = 0; slot < period.length; slot++) {
+                if (period[slot] > after && period[slot] <= upTo) {
+                    w += wins[slot];
+                    l += losses[slot];
+                    b += bet[slot];
+                    o += won[slot];
+                }
+            }
+            return new Totals(w, l, b, o);
+        }
+
+        private void write(DataOutputStream out) throws IOException {
+            int live = 0;
+            for (int p : period) {
+                if (p != Integer.MIN_VALUE) {
+                    live++;
+                }
+            }
+            out.writeByte(live);
+            for (int slot = 0; slot < period.length; slot++) {
+                if (period[slot] != Integer.MIN_VALUE) {
+                    out.writeInt(period[slot]);
+                    out.writeInt(wins[slot]);
+                    out.writeInt(losses[slot]);
+                    out.writeLong(bet[slot]);
+                    out.writeLong(won[slot]);
+                }
+            }
+        }
+
+        private void read(DataInputStream in, boolean legacy) throws IOException {
+            int live = in.readUnsignedByte();
+            for (int i = 0; i < live; i++) {
+                int p = in.readInt();
+                int slot = Math.floorMod(p, period.length);
+                period[slot] = p;
+                wins[slot] = in.readInt();
+                losses[slot] = in.readInt();
+                bet[slot] = legacy ? Money.fromDouble(in.readDouble()) : in.readLong();
+                won[slot] = legacy ? Money.fromDouble(in.readDouble()) : in.readLong();
+            }
+        }
+    }
+}
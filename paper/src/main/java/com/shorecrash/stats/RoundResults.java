@@ -0,0 +1,82 @@
+package com.shorecrash.stats;
+
+import java.util.Arrays;
+import java.util.UUID;
+
+/**
+ * Settled bets of one round kept in parallel primitive arrays, so a round costs no per-bet objects. Filled on the
+ * main thread while the round runs and applied with {@link StatsService#recordRound} once it ends. Amounts are
+ * {@link com.shorecrash.util.Money} minor units.
+ */
+public final class RoundResults {
+    private UUID[] ids = new UUID[16];
+    private long[] stakes = new long[16];
+    private long[] payouts = new long[16];
+    private boolean[] wins = new boolean[16];
+    private int size;
+    private long paidOut;
+    private long rake;
+
+    public void addCashout(UUID id, long stake, long payout, long rake) {
+        add(id, stake, payout, true);
+        this.paidOut += payout;
+        this.rake += rake;
+    }
+
+    public void addLoss(UUID id, long stake) {
+        add(id, stake, 0, false);
+    }
+
+    private void add(UUID id, long stake, long payout, boolean win) {
+        if (size == ids.length) {
+            int grown = size * 2;
+            ids = Arrays.copyOf(ids, grown);
+            stakes = Arrays.copyOf(stakes, grown);
+            payouts = Arrays.copyOf(payouts, grown);
+            wins = Arrays.copyOf(wins, grown);
+        }
+        ids[size] = id;
+        stakes[size] = stake;
+        payouts[size] = payout;
+        wins[size] = win;
+        size++;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public UUID id(int index) {
+        return ids[index];
+    }
+
+    public long stake(int index) {
+        return stakes[index];
+    }
+
+    public long payout(int index) {
+        return payouts[index];
+    }
+
+    public boolean isWin(int index) {
+        return wins[index];
+    }
+
+    /**
+     * Total owed to players that cashed out.
+     */
+    public long getPaidOut() {
+        return paidOut;
+    }
+
+    public long getRake() {
+        return rake;
+    }
+
+    public void clear() {
+        Arrays.fill(ids, 0, size, null);
+        size = 0;
+        paidOut = 0;
+        rake = 0;
+    }
+}
@@ -0,0 +1,413 @@
+package com.shorecrash.stats;
+
+import com.shorecrash.util.Money;
+
+import java.io.File;
+import java.io.IOException;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Logger;
+
+/**
+ * Embedded SQLite backend (stats.db) using the driver bundled with the server.
+ * <p>
+ * Players touched during a round are collected and written as one batched UPSERT transaction on a dedicated I/O
+ * thread when the round ends (or on the flush timer). Point lookups for players that are not cached use a separate
+ * read connection; WAL mode lets them run alongside the writer. Rows handed to the writer but not yet committed are
+ * kept in {@code unsaved} so a lookup never reads older data than the cache evicted; if a batch fails they stay
+ * there and the next flush writes them again.
+ * <p>
+ * Amounts are INTEGER {@link Money} minor units. Databases from before (user_version 0) stored REAL currency amounts
+ * and are converted once on open.
+ */
+public class SqliteStatsRepository implements StatsRepository {
+    private static final int SCHEMA_VERSION = 1;
+    private static final String AMOUNTS = "net INTEGER NOT NULL, profit INTEGER NOT NULL, loss INTEGER NOT NULL, "
+            + "total_bet INTEGER NOT NULL, total_won INTEGER NOT NULL";
+    private static final String COLUMNS = "wins, losses, total_games, net, profit, loss, total_bet, total_won";
+    private static final String UPDATES = "wins = excluded.wins, losses = excluded.losses, total_games = excluded.total_games, "
+            + "net = excluded.net, profit = excluded.profit, loss = excluded.loss, total_bet = excluded.total_bet, total_won = excluded.total_won";
+    private static final String UPSERT_PLAYER = "INSERT INTO crash_stats (uuid, " + COLUMNS + ") VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?) "
+            + "ON CONFLICT(uuid) DO UPDATE SET " + UPDATES;
+    private static final String UPSERT_TOTALS = "INSERT INTO crash_totals (id, " + COLUMNS + ") VALUES (0, ?, ?, ?, ?, ?, ?, ?, ?) "
+            + "ON CONFLICT(id) DO UPDATE SET " + UPDATES;
+
+    private final Logger logger;
+    private final File file;
+    private final ExecutorService io;
+    private final ExecutorService reads;
+    private final Map<UUID, StatsService.PlayerStats> dirty = new HashMap<>();
+    private final Map<UUID, StatsService.PlayerStats> unsaved = new ConcurrentHashMap<>();
+    private StatsService.PlayerStats totals;
+    private boolean totalsDirty;
+    private volatile boolean retryUnsaved; // set by the I/O thread when a batch failed
+
+    private Connection writeConnection; // used on the I/O thread after open()
+    private Connection readConnection;
+    private PreparedStatement selectPlayer;
+
+    private record Row(UUID id, StatsService.PlayerStats stats) {}
+
+    public SqliteStatsRepository(Logger logger, File file) {
+        this.logger = logger;
+        this.file = file;
+        this.io = Executors.newSingleThreadExecutor(r -> {
+            Thread thread = new Thread(r, "ShoreCrash-StatsDb");
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.reads = Executors.newSingleThreadExecutor(r -> {
+            Thread thread = new Thread(r, "ShoreCrash-StatsDbRead");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return !file.exists();
+    }
+
+    @Override
+    public void open(Map<UUID, StatsService.PlayerStats> imported, StatsService.PlayerStats totals) throws IOException {
+        boolean fresh = isEmpty();
+        this.totals = totals;
+        try {
+            Class.forName("org.sqlite.JDBC");
+            String url = "jdbc:sqlite:" + file.getAbsolutePath();
+            writeConnection = DriverManager.getConnection(url);
+            try (Statement st = writeConnection.createStatement()) {
+                st.execute("PRAGMA journal_mode=WAL");
+                st.execute("PRAGMA synchronous=NORMAL");
+                if (!fresh && userVersion(st) < SCHEMA_VERSION) {
+                    convertToMinorUnits(st);
+                }
+                createTables(st);
+                st.execute("PRAGMA user_version = " + SCHEMA_VERSION);
+                st.execute("CREATE INDEX IF NOT EXISTS crash_stats_net ON crash_stats (net)");
+                st.execute("CREATE INDEX IF NOT EXISTS crash_stats_wins ON crash_stats (wins)");
+            }
+            if (fresh) {
+                List<Row> rows = new ArrayList<>(imported.size());
+                imported.forEach((id, ps) -> rows.add(new Row(id, ps)));
+                writeBatch(rows, totals);
+            } else {
+                try (Statement st = writeConnection.createStatement();
+                     ResultSet rs = st.executeQuery("SELECT " + COLUMNS + " FROM crash_totals WHERE id = 0")) {
+                    if (rs.next()) {
+                        readRow(rs, totals);
+                    }
+                }
+            }
+            readConnection = DriverManager.getConnection(url);
+            selectPlayer = readConnection.prepareStatement("SELECT " + COLUMNS + " FROM crash_stats WHERE uuid = ?");
+        } catch (ClassNotFoundException | SQLException ex) {
+            closeQuietly(writeConnection);
+            writeConnection = null;
+            if (fresh) {
+                file.delete(); // let the next start retry the stats.yml import
+            }
+            throw new IOException("SQLite unavailable: " + ex.getMessage(), ex);
+        }
+    }
+
+    @Override
+    public boolean find(UUID id, StatsService.PlayerStats into) {
+        StatsService.PlayerStats pending = pendingWrite(id);
+        if (pending != null) {
+            into.copyFrom(pending);
+            return true;
+        }
+        return select(id, into);
+    }
+
+    @Override
+    public CompletableFuture<StatsService.PlayerStats> findAsync(UUID id) {
+        StatsService.PlayerStats pending = pendingWrite(id);
+        if (pending != null) {
+            return CompletableFuture.completedFuture(pending.copy());
+        }
+        try {
+            return CompletableFuture.supplyAsync(() -> {
+                StatsService.PlayerStats into = new StatsService.PlayerStats();
+                return select(id, into) ? into : null;
+            }, reads);
+        } catch (RejectedExecutionException ex) {
+            return CompletableFuture.completedFuture(null);
+        }
+    }
+
+    @Override
+    public CompletableFuture<Map<UUID, StatsService.PlayerStats>> top(Leaderboard.Category category, int limit, int minGames) {
+        Map<UUID, StatsService.PlayerStats> pending = new HashMap<>();
+        unsaved.forEach((id, ps) -> pending.put(id, ps.copy()));
+        dirty.forEach((id, ps) -> pending.put(id, ps.copy()));
+        try {
+            return CompletableFuture.supplyAsync(() -> {
+                Map<UUID, StatsService.PlayerStats> rows = selectTop(category, limit, minGames);
+                rows.putAll(pending); // not committed yet, newer than the table
+                Leaderboard.TopCollector collector = new Leaderboard.TopCollector(category, limit, minGames);
+                rows.forEach(collector::offer);
+                return collector.players();
+            }, reads);
+        } catch (RejectedExecutionException ex) {
+            return CompletableFuture.completedFuture(Map.of());
+        }
+    }
+
+    private Map<UUID, StatsService.PlayerStats> selectTop(Leaderboard.Category category, int limit, int minGames) {
+        String order = switch (category) {
+            case NET -> "WHERE total_games > 0 ORDER BY net DESC";
+            case WINS -> "WHERE wins > 0 ORDER BY wins DESC";
+            case WAGERED -> "WHERE total_bet > 0 ORDER BY total_bet DESC";
+            case WIN_RATE -> "WHERE total_games >= " + Math.max(1, minGames) + " ORDER BY CAST(wins AS REAL) / total_games DESC";
+        };
+        Map<UUID, StatsService.PlayerStats> out = new HashMap<>();
+        synchronized (this) {
+            try (PreparedStatement st = readConnection.prepareStatement("SELECT uuid, " + COLUMNS + " FROM crash_stats " + order + " LIMIT ?")) {
+                st.setInt(1, limit);
+                try (ResultSet rs = st.executeQuery()) {
+                    while (rs.next()) {
+                        StatsService.PlayerStats ps = new StatsService.PlayerStats();
+                        readRow(rs, 2, ps);
+                        out.put(UUID.fromString(rs.getString(1)), ps);
+                    }
+                }
+            } catch (SQLException | IllegalArgumentException ex) {
+                logger.warning("Failed to read the " + category.name().toLowerCase(Locale.ROOT) + " leaderboard: " + ex.getMessage());
+            }
+        }
+        return out;
+    }
+
+    @Override
+    public void evict(UUID id, StatsService.PlayerStats stats) {
+        // changes stay referenced from dirty/unsaved until committed, which find() checks first
+    }
+
+    private StatsService.PlayerStats pendingWrite(UUID id) {
+        StatsService.PlayerStats pending = dirty.get(id);
+        return pending != null ? pending : unsaved.get(id);
+    }
+
+    private boolean select(UUID id, StatsService.PlayerStats into) {
+        synchronized (this) {
+            try {
+                selectPlayer.setString(1, id.toString());
+                try (ResultSet rs = selectPlayer.executeQuery()) {
+                    if (!rs.next()) {
+                        return false;
+                    }
+                    readRow(rs, into);
+                    return true;
+                }
+            } catch (SQLException ex) {
+                logger.warning("Failed to read stats for " + id + ": " + ex.getMessage());
+                return false;
+            }
+        }
+    }
+
+    @Override
+    public void recordCashout(UUID id, long bet, long payout, StatsService.PlayerStats stats, StatsService.PlayerStats totals) {
+        dirty.put(id, stats);
+        totalsDirty = true;
+    }
+
+    @Override
+    public void recordLoss(UUID id, long bet, StatsService.PlayerStats stats, StatsService.PlayerStats totals) {
+        dirty.put(id, stats);
+        totalsDirty = true;
+    }
+
+    @Override
+    public void endRound() {
+        flush();
+    }
+
+    @Override
+    public void flush() {
+        boolean retry = retryUnsaved;
+        if (dirty.isEmpty() && !totalsDirty && !retry) {
+            return;
+        }
+        retryUnsaved = false;
+        List<Row> rows = new ArrayList<>(dirty.size());
+        if (retry) {
+            unsaved.forEach((id, ps) -> {
+                if (!dirty.containsKey(id)) {
+                    rows.add(new Row(id, ps)); // same copy, so a successful write still clears it below
+                }
+            });
+        }
+        dirty.forEach((id, ps) -> {
+            StatsService.PlayerStats copy = ps.copy();
+            rows.add(new Row(id, copy));
+            unsaved.put(id, copy);
+        });
+        StatsService.PlayerStats totalsCopy = totals.copy();
+        dirty.clear();
+        totalsDirty = false;
+        try {
+            io.execute(() -> {
+                try {
+                    writeBatch(rows, totalsCopy);
+                    for (Row row : rows) {
+                        unsaved.remove(row.id(), row.stats());
+                    }
+                } catch (SQLException ex) {
+                    retryUnsaved = true;
+                    logger.warning("Failed to write stats for " + rows.size() + " players, retrying on the next flush: " + ex.getMessage());
+                }
+            });
+        } catch (RejectedExecutionException ex) {
+            logger.warning("Stats database already closed; changes for " + rows.size() + " players not saved.");
+        }
+    }
+
+    @Override
+    public void close() {
+        if (totals != null && writeConnection != null) {
+            flush();
+        }
+        reads.shutdown();
+        io.shutdown();
+        try {
+            if (!io.awaitTermination(10, TimeUnit.SECONDS)) {
+                logger.warning("Timed out waiting for stats.db writes.");
+            } else if (retryUnsaved) {
+                retryOnClose(); // the final batch failed and there is no later flush
+            }
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+        closeQuietly(readConnection);
+        closeQuietly(writeConnection);
+    }
+
+    private void retryOnClose() {
+        List<Row> rows = new ArrayList<>(unsaved.size());
+        unsaved.forEach((id, ps) -> rows.add(new Row(id, ps)));
+        try {
+            writeBatch(rows, totals.copy());
+        } catch (SQLException ex) {
+            logger.warning("Stats for " + rows.size() + " players could not be saved: " + ex.getMessage());
+        }
+    }
+
+    private static void createTables(Statement st) throws SQLException {
+        st.execute("CREATE TABLE IF NOT EXISTS crash_stats (uuid TEXT PRIMARY KEY, "
+                + "wins INTEGER NOT NULL, losses INTEGER NOT NULL, total_games INTEGER NOT NULL, " + AMOUNTS + ")");
+        st.execute("CREATE TABLE IF NOT EXISTS crash_totals (id INTEGER PRIMARY KEY CHECK (id = 0), "
+                + "wins INTEGER NOT NULL, losses INTEGER NOT NULL, total_games INTEGER NOT NULL, " + AMOUNTS + ")");
+    }
+
+    private static int userVersion(Statement st) throws SQLException {
+        try (ResultSet rs = st.executeQuery("PRAGMA user_version")) {
+            return rs.next() ? rs.getInt(1) : 0;
+        }
+    }
+
+    /**
+     * Rebuilds the REAL amount columns of a version 0 database as INTEGER minor units in one transaction.
+     */
+    private void convertToMinorUnits(Statement st) throws SQLException {
+        long unit = Money.getUnit();
+        String amounts = "CAST(ROUND(net * " + unit + ") AS INTEGER), CAST(ROUND(profit * " + unit + ") AS INTEGER), "
+                + "CAST(ROUND(loss * " + unit + ") AS INTEGER), CAST(ROUND(total_bet * " + unit + ") AS INTEGER), "
+                + "CAST(ROUND(total_won * " + unit + ") AS INTEGER)";
+        writeConnection.setAutoCommit(false);
+        try {
+            st.execute("ALTER TABLE crash_stats RENAME TO crash_stats_legacy");
+            st.execute("ALTER TABLE crash_totals RENAME TO crash_totals_legacy");
+            createTables(st);
+            st.execute("INSERT INTO crash_stats (uuid, " + COLUMNS + ") SELECT uuid, wins, losses, total_games, "
+                    + amounts + " FROM crash_stats_legacy");
+            st.execute("INSERT INTO crash_totals (id, " + COLUMNS + ") SELECT id, wins, losses, total_games, "
+                    + amounts + " FROM crash_totals_legacy");
+            st.execute("DROP TABLE crash_stats_legacy");
+            st.execute("DROP TABLE crash_totals_legacy");
+            st.execute("PRAGMA user_version = " + SCHEMA_VERSION);
+            writeConnection.commit();
+        } catch (SQLException ex) {
+            writeConnection.rollback();
+            throw ex;
+        } finally {
+            writeConnection.setAutoCommit(true);
+        }
+        logger.info("Converted " + file.getName() + " amounts to minor units.");
+    }
+
+    private void writeBatch(List<Row> rows, StatsService.PlayerStats totalsCopy) throws SQLException {
+        writeConnection.setAutoCommit(false);
+        try (PreparedStatement upsert = writeConnection.prepareStatement(UPSERT_PLAYER);
+             PreparedStatement upsertTotals = writeConnection.prepareStatement(UPSERT_TOTALS)) {
+            for (Row row : rows) {
+                upsert.setString(1, row.id().toString());
+                bindStats(upsert, 2, row.stats());
+                upsert.addBatch();
+            }
+            upsert.executeBatch();
+            bindStats(upsertTotals, 1, totalsCopy);
+            upsertTotals.executeUpdate();
+            writeConnection.commit();
+        } catch (SQLException ex) {
+            writeConnection.rollback();
+            throw ex;
+        } finally {
+            writeConnection.setAutoCommit(true);
+        }
+    }
+
+    private static void bindStats(PreparedStatement ps, int from, StatsService.PlayerStats stats) throws SQLException {
+        ps.setLong(from, stats.getWins());
+        ps.setLong(from + 1, stats.getLosses());
+        ps.setLong(from + 2, stats.getTotalGames());
+        ps.setLong(from + 3, stats.getNet());
+        ps.setLong(from + 4, stats.getProfit());
+        ps.setLong(from + 5, stats.getLoss());
+        ps.setLong(from + 6, stats.getTotalBet());
+        ps.setLong(from + 7, stats.getTotalWon());
+    }
+
+    private static void readRow(ResultSet rs, StatsService.PlayerStats into) throws SQLException {
+        readRow(rs, 1, into);
+    }
+
+    private static void readRow(ResultSet rs, int from, StatsService.PlayerStats into) throws SQLException {
+        into.setWins(rs.getLong(from));
+        into.setLosses(rs.getLong(from + 1));
+        into.setTotalGames(rs.getLong(from + 2));
+        into.setNet(rs.getLong(from + 3));
+        into.setProfit(rs.getLong(from + 4));
+        into.setLoss(rs.getLong(from + 5));
+        into.setTotalBet(rs.getLong(from + 6));
+        into.setTotalWon(rs.getLong(from + 7));
+    }
+
+    private void closeQuietly(Connection connection) {
+        if (connection == null) {
+            return;
+        }
+        try {
+            connection.close();
+        } catch (SQLException ignored) {
+        }
+    }
+}
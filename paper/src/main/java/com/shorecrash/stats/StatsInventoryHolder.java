@@ -0,0 +1,44 @@
+package com.shorecrash.stats;
+
+import org.bukkit.inventory.Inventory;
+import org.bukkit.inventory.InventoryHolder;
+
+public class StatsInventoryHolder implements InventoryHolder {
+    private final String target;
+    private final Leaderboard.Category category;
+    private final int page;
+
+    public StatsInventoryHolder(String target) {
+        this(target, null, 0);
+    }
+
+    public StatsInventoryHolder(Leaderboard.Category category, int page) {
+        this(category.getLabel(), category, page);
+    }
+
+    private StatsInventoryHolder(String target, Leaderboard.Category category, int page) {
+        this.target = target;
+        this.category = category;
+        this.page = page;
+    }
+
+    public String getTarget() {
+        return target;
+    }
+
+    /**
+     * Leaderboard category shown, or null for a single player's stats.
+     */
+    public Leaderboard.Category getCategory() {
+        return category;
+    }
+
+    public int getPage() {
+        return page;
+    }
+
+    @Override
+    public Inventory getInventory() {
+        return null; // unused; Bukkit populates inventory externally
+    }
+}
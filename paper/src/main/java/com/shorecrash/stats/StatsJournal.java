@@ -0,0 +1,433 @@
+package com.shorecrash.stats;
+
+import com.shorecrash.util.Money;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+import java.util.logging.Logger;
+import java.util.zip.CRC32;
+
+/**
+ * Append-only binary log of stats events plus a periodically compacted snapshot.
+ * <p>
+ * Each cashout or loss is a fixed 48 byte record (uuid, bet, payout, timestamp, kind, crc). Records are queued by
+ * the main thread and written by a single writer thread that commits whatever has accumulated in one write + fsync
+ * (group commit). Every {@code compactEvery} records the writer folds the journal into stats.snapshot and starts a
+ * new journal generation, so startup cost is one snapshot read plus a bounded replay. Amounts are {@link Money} minor
+ * units; files from version 1 stored doubles and are rewritten on the first start.
+ * <p>
+ * Snapshots need every player, so the writer's folded state is the cold tier and holds each player once. An evicted
+ * player is only kept aside in {@code evicted} until the writer has folded the events queued before the eviction.
+ */
+public class StatsJournal implements StatsRepository {
+    private static final int JOURNAL_MAGIC = 0x53434A4C; // SCJL
+    private static final int SNAPSHOT_MAGIC = 0x5343534E; // SCSN
+    private static final int VERSION = 2;
+    private static final int LEGACY_VERSION = 1; // amounts as doubles
+    private static final int HEADER_BYTES = 16;
+    private static final int RECORD_BYTES = 48;
+    private static final int PLAYER_BYTES = 16 + 3 * 8 + 5 * 8;
+    private static final byte KIND_CASHOUT = 1;
+    private static final byte KIND_LOSS = 2;
+    private static final byte KIND_EVICTED = 3; // queue marker only, never written
+
+    private final Logger logger;
+    private final File journalFile;
+    private final File snapshotFile;
+    private final int compactEvery;
+    private final long groupCommitNanos;
+    private final ConcurrentLinkedQueue<Event> pending = new ConcurrentLinkedQueue<>();
+    private final ExecutorService reads; // leaderboard scans, off the main thread
+    // Evicted players whose queued events the writer has not folded yet; newer than folded
+    private final Map<UUID, StatsService.PlayerStats> evicted = new ConcurrentHashMap<>();
+
+    // Changed by the writer thread only. The main thread reads players that have no unfolded events, which the writer
+    // does not touch: a player's events are queued while cached and then covered by its entry in evicted.
+    private final Map<UUID, StatsService.PlayerStats> folded = new ConcurrentHashMap<>();
+    private final StatsService.PlayerStats foldedTotals = new StatsService.PlayerStats();
+    private final ByteBuffer batch = ByteBuffer.allocateDirect(RECORD_BYTES * 1024);
+    private final CRC32 crc = new CRC32();
+    private FileChannel channel;
+    private long generation;
+    private int sinceSnapshot;
+    private boolean journalCurrent;
+    private boolean legacy; // loaded version 1 files that must be rewritten
+
+    private volatile boolean running;
+    private Thread writerThread;
+
+    private record Event(UUID id, long bet, long payout, long timestamp, byte kind, StatsService.PlayerStats stats) {}
+
+    public StatsJournal(Logger logger, File folder, int compactEvery, long groupCommitMillis) {
+        this.logger = logger;
+        this.journalFile = new File(folder, "stats.journal");
+        this.snapshotFile = new File(folder, "stats.snapshot");
+        this.compactEvery = Math.max(1, compactEvery);
+        this.groupCommitNanos = TimeUnit.MILLISECONDS.toNanos(Math.max(1L, groupCommitMillis));
+        this.reads = Executors.newSingleThreadExecutor(r -> {
+            Thread thread = new Thread(r, "ShoreCrash-StatsJournalRead");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return !snapshotFile.exists() && !journalFile.exists();
+    }
+
+    @Override
+    public void open(Map<UUID, StatsService.PlayerStats> imported, StatsService.PlayerStats totals) throws IOException {
+        if (isEmpty()) {
+            folded.putAll(imported);
+        } else {
+            load(folded, totals);
+        }
+        start(totals);
+    }
+
+    @Override
+    public boolean find(UUID id, StatsService.PlayerStats into) {
+        StatsService.PlayerStats found = evicted.get(id);
+        if (found == null) {
+            found = folded.get(id);
+        }
+        if (found == null) {
+            return false;
+        }
+        into.copyFrom(found);
+        return true;
+    }
+
+    @Override
+    public CompletableFuture<Map<UUID, StatsService.PlayerStats>> top(Leaderboard.Category category, int limit, int minGames) {
+        try {
+            return CompletableFuture.supplyAsync(() -> {
+                // players the writer is folding right now are cached or evicted, both newer than what is read here
+                Leaderboard.TopCollector collector = new Leaderboard.TopCollector(category, limit, minGames);
+                folded.forEach((id, ps) -> collector.offer(id, evicted.getOrDefault(id, ps)));
+                evicted.forEach((id, ps) -> {
+                    if (!folded.containsKey(id)) {
+                        collector.offer(id, ps);
+                    }
+                });
+                return collector.players();
+            }, reads);
+        } catch (RejectedExecutionException ex) {
+            return CompletableFuture.completedFuture(Map.of());
+        }
+    }
+
+    @Override
+    public void evict(UUID id, StatsService.PlayerStats stats) {
+        evicted.put(id, stats);
+        pending.add(new Event(id, 0L, 0L, 0L, KIND_EVICTED, stats)); // dropped from evicted once folded up to here
+    }
+
+    @Override
+    public void recordCashout(UUID id, long bet, long payout, StatsService.PlayerStats stats, StatsService.PlayerStats totals) {
+        pending.add(new Event(id, bet, payout, System.currentTimeMillis(), KIND_CASHOUT, null));
+    }
+
+    @Override
+    public void recordLoss(UUID id, long bet, StatsService.PlayerStats stats, StatsService.PlayerStats totals) {
+        pending.add(new Event(id, bet, 0L, System.currentTimeMillis(), KIND_LOSS, null));
+    }
+
+    @Override
+    public void flush() {
+        // the writer commits on its own group-commit cadence
+    }
+
+    /**
+     * Loads the snapshot and replays the journal tail into the given map. Truncates a torn last record.
+     */
+    private void load(Map<UUID, StatsService.PlayerStats> players, StatsService.PlayerStats totals) throws IOException {
+        long snapshotGeneration = -1;
+        if (snapshotFile.exists()) {
+            snapshotGeneration = readSnapshot(players, totals);
+        }
+        generation = snapshotGeneration + 1;
+        if (!journalFile.exists()) {
+            return;
+        }
+        try (FileChannel in = FileChannel.open(journalFile.toPath(), StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES);
+            if (in.read(header, 0) < HEADER_BYTES || header.getInt(0) != JOURNAL_MAGIC
+                    || (header.getInt(4) != VERSION && header.getInt(4) != LEGACY_VERSION)) {
+                logger.warning("stats.journal has no valid header; ignoring it.");
+                return;
+            }
+            long journalGeneration = header.getLong(8);
+            if (journalGeneration < generation) {
+                return; // already folded into the snapshot; compaction stopped before the journal was reset
+            }
+            generation = journalGeneration;
+            journalCurrent = true;
+            boolean doubles = header.getInt(4) == LEGACY_VERSION;
+            legacy |= doubles;
+            ByteBuffer record = ByteBuffer.allocate(RECORD_BYTES);
+            long offset = HEADER_BYTES;
+            int replayed = 0;
+            while (true) {
+                record.clear();
+                int read = in.read(record, offset);
+                if (read < RECORD_BYTES || !validRecord(record)) {
+                    break;
+                }
+                apply(players, totals, record, doubles);
+                offset += RECORD_BYTES;
+                replayed++;
+            }
+            if (offset < in.size()) {
+                logger.warning("Truncating " + (in.size() - offset) + " trailing bytes from stats.journal.");
+                in.truncate(offset);
+            }
+            sinceSnapshot = replayed;
+        }
+    }
+
+    /**
+     * Opens the journal for appending and starts the writer. {@link #folded} and {@code totals} must be the loaded state.
+     */
+    private void start(StatsService.PlayerStats totals) throws IOException {
+        foldedTotals.copyFrom(totals);
+        if (!snapshotFile.exists() || legacy) {
+            writeSnapshot(); // first start, migration from stats.yml or from version 1 files
+            startJournal(generation + 1);
+        } else {
+            channel = FileChannel.open(journalFile.toPath(), StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+            if (!journalCurrent) {
+                startJournal(generation); // missing, unreadable or already folded
+            } else {
+                channel.position(channel.size());
+            }
+        }
+        running = true;
+        writerThread = new Thread(this::runWriter, "ShoreCrash-StatsJournal");
+        writerThread.setDaemon(true);
+        writerThread.start();
+    }
+
+    /**
+     * Stops the writer after it has committed everything queued so far.
+     */
+    @Override
+    public void close() {
+        reads.shutdown();
+        running = false;
+        if (writerThread != null) {
+            LockSupport.unpark(writerThread);
+            try {
+                writerThread.join(TimeUnit.SECONDS.toMillis(10));
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+            }
+            if (writerThread.isAlive()) {
+                logger.warning("Timed out waiting for stats.journal to be written.");
+                return;
+            }
+        }
+        if (channel != null) {
+            try {
+                channel.close();
+            } catch (IOException ignored) {
+            }
+        }
+    }
+
+    private void runWriter() {
+        while (running || !pending.isEmpty()) {
+            if (pending.isEmpty()) {
+                LockSupport.parkNanos(this, groupCommitNanos);
+                continue;
+            }
+            try {
+                commitPending();
+                if (sinceSnapshot >= compactEvery) {
+                    writeSnapshot();
+                    startJournal(generation + 1);
+                }
+            } catch (IOException ex) {
+                logger.warning("Failed to write stats.journal: " + ex.getMessage());
+                LockSupport.parkNanos(this, TimeUnit.SECONDS.toNanos(1));
+            }
+            if (running) {
+                LockSupport.parkNanos(this, groupCommitNanos); // let the next group accumulate
+            }
+        }
+    }
+
+    // Drains the queue into as few writes as possible and forces once per group
+    private void commitPending() throws IOException {
+        Event event;
+        while ((event = pending.poll()) != null) {
+            batch.clear();
+            do {
+                if (event.kind() == KIND_EVICTED) {
+                    evicted.remove(event.id(), event.stats()); // unless evicted again since
+                } else {
+                    encode(event);
+                    fold(event);
+                }
+            } while (batch.remaining() >= RECORD_BYTES && (event = pending.poll()) != null);
+            batch.flip();
+            while (batch.hasRemaining()) {
+                channel.write(batch);
+            }
+        }
+        channel.force(false);
+    }
+
+    private void encode(Event event) {
+        int start = batch.position();
+        batch.putLong(event.id().getMostSignificantBits());
+        batch.putLong(event.id().getLeastSignificantBits());
+        batch.putLong(event.bet());
+        batch.putLong(event.payout());
+        batch.putLong(event.timestamp());
+        batch.put(event.kind());
+        batch.put((byte) 0).put((byte) 0).put((byte) 0);
+        crc.reset();
+        crc.update(batch.duplicate().position(start).limit(start + RECORD_BYTES - 4));
+        batch.putInt((int) crc.getValue());
+    }
+
+    private void fold(Event event) {
+        StatsService.PlayerStats ps = folded.computeIfAbsent(event.id(), k -> new StatsService.PlayerStats());
+        if (event.kind() == KIND_CASHOUT) {
+            ps.recordCashout(event.bet(), event.payout());
+            foldedTotals.recordCashout(event.bet(), event.payout());
+        } else {
+            ps.recordLoss(event.bet());
+            foldedTotals.recordLoss(event.bet());
+        }
+        sinceSnapshot++;
+    }
+
+    private boolean validRecord(ByteBuffer record) {
+        crc.reset();
+        crc.update(record.duplicate().position(0).limit(RECORD_BYTES - 4));
+        byte kind = record.get(40);
+        return record.getInt(RECORD_BYTES - 4) == (int) crc.getValue() && (kind == KIND_CASHOUT || kind == KIND_LOSS);
+    }
+
+    private void apply(Map<UUID, StatsService.PlayerStats> players, StatsService.PlayerStats totals, ByteBuffer record,
+                       boolean doubles) {
+        UUID id = new UUID(record.getLong(0), record.getLong(8));
+        long bet = doubles ? Money.fromDouble(record.getDouble(16)) : record.getLong(16);
+        long payout = doubles ? Money.fromDouble(record.getDouble(24)) : record.getLong(24);
+        StatsService.PlayerStats ps = players.computeIfAbsent(id, k -> new StatsService.PlayerStats());
+        if (record.get(40) == KIND_CASHOUT) {
+            ps.recordCashout(bet, payout);
+            totals.recordCashout(bet, payout);
+        } else {
+            ps.recordLoss(bet);
+            totals.recordLoss(bet);
+        }
+    }
+
+    // Writes the folded state as snapshot generation N; journals up to N are then redundant and N + 1 starts empty
+    private void writeSnapshot() throws IOException {
+        File tmp = new File(snapshotFile.getParentFile(), snapshotFile.getName() + ".tmp");
+        try (FileChannel out = FileChannel.open(tmp.toPath(), StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            ByteBuffer buf = ByteBuffer.allocate(64 * 1024);
+            buf.putInt(SNAPSHOT_MAGIC).putInt(VERSION).putLong(generation);
+            putStats(buf, foldedTotals);
+            buf.putInt(folded.size());
+            for (Map.Entry<UUID, StatsService.PlayerStats> entry : folded.entrySet()) {
+                if (buf.remaining() < PLAYER_BYTES) {
+                    buf.flip();
+                    while (buf.hasRemaining()) {
+                        out.write(buf);
+                    }
+                    buf.clear();
+                }
+                buf.putLong(entry.getKey().getMostSignificantBits());
+                buf.putLong(entry.getKey().getLeastSignificantBits());
+                putStats(buf, entry.getValue());
+            }
+            buf.flip();
+            while (buf.hasRemaining()) {
+                out.write(buf);
+            }
+            out.force(true);
+        }
+        try {
+            Files.move(tmp.toPath(), snapshotFile.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (AtomicMoveNotSupportedException ex) {
+            Files.move(tmp.toPath(), snapshotFile.toPath(), StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    private void startJournal(long journalGeneration) throws IOException {
+        generation = journalGeneration;
+        if (channel == null) {
+            channel = FileChannel.open(journalFile.toPath(), StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+        }
+        channel.truncate(0);
+        ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES);
+        header.putInt(JOURNAL_MAGIC).putInt(VERSION).putLong(generation).flip();
+        channel.write(header, 0);
+        channel.position(HEADER_BYTES);
+        channel.force(true);
+        sinceSnapshot = 0;
+    }
+
+    private long readSnapshot(Map<UUID, StatsService.PlayerStats> players, StatsService.PlayerStats totals) throws IOException {
+        ByteBuffer buf = ByteBuffer.wrap(Files.readAllBytes(snapshotFile.toPath()));
+        int version = buf.remaining() < 16 || buf.getInt() != SNAPSHOT_MAGIC ? -1 : buf.getInt();
+        if (version != VERSION && version != LEGACY_VERSION) {
+            throw new IOException("stats.snapshot has an unknown format");
+        }
+        boolean doubles = version == LEGACY_VERSION;
+        legacy |= doubles;
+        long snapshotGeneration = buf.getLong();
+        getStats(buf, totals, doubles);
+        int count = buf.getInt();
+        for (int i = 0; i < count; i++) {
+            UUID id = new UUID(buf.getLong(), buf.getLong());
+            StatsService.PlayerStats ps = new StatsService.PlayerStats();
+            getStats(buf, ps, doubles);
+            players.put(id, ps);
+        }
+        return snapshotGeneration;
+    }
+
+    private static void putStats(ByteBuffer buf, StatsService.PlayerStats ps) {
+        buf.putLong(ps.getWins()).putLong(ps.getLosses()).putLong(ps.getTotalGames());
+        buf.putLong(ps.getNet()).putLong(ps.getProfit()).putLong(ps.getLoss());
+        buf.putLong(ps.getTotalBet()).putLong(ps.getTotalWon());
+    }
+
+    private static void getStats(ByteBuffer buf, StatsService.PlayerStats ps, boolean doubles) {
+        ps.setWins(buf.getLong());
+        ps.setLosses(buf.getLong());
+        ps.setTotalGames(buf.getLong());
+        ps.setNet(getMoney(buf, doubles));
+        ps.setProfit(getMoney(buf, doubles));
+        ps.setLoss(getMoney(buf, doubles));
+        ps.setTotalBet(getMoney(buf, doubles));
+        ps.setTotalWon(getMoney(buf, doubles));
+    }
+
+    private static long getMoney(ByteBuffer buf, boolean doubles) {
+        return doubles ? Money.fromDouble(buf.getDouble()) : buf.getLong();
+    }
+}
@@ -0,0 +1,32 @@
+package com.shorecrash.stats;
+
+import java.io.File;
+import java.util.Map;
+import java.util.UUID;
+import java.util.logging.Logger;
+
+/**
+ * One-shot import of stats.yml into a freshly created backend. The file is left in place so switching back to
+ * yaml storage still has the pre-migration data.
+ */
+public final class StatsMigrator {
+    private StatsMigrator() {}
+
+    /**
+     * Reads stats.yml into {@code players}/{@code totals} if {@code target} is empty; the following
+     * {@link StatsRepository#open} persists them as the backend's initial contents.
+     *
+     * @return number of players imported
+     */
+    public static int importIfEmpty(Logger logger, File yaml, StatsRepository target,
+                                    Map<UUID, StatsService.PlayerStats> players, StatsService.PlayerStats totals) {
+        if (!target.isEmpty() || !yaml.exists()) {
+            return 0;
+        }
+        long started = System.nanoTime();
+        YamlStatsRepository.readFile(yaml, players, totals);
+        logger.info("Importing " + players.size() + " players from " + yaml.getName() + " into "
+                + target.getClass().getSimpleName() + " (parsed in " + (System.nanoTime() - started) / 1_000_000L + " ms).");
+        return players.size();
+    }
+}
@@ -0,0 +1,74 @@
+package com.shorecrash.stats;
+
+import java.io.IOException;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Persistence backend for {@link StatsService}. Methods are called from the main thread; implementations keep their
+ * own disk or database I/O off it.
+ */
+public interface StatsRepository {
+    /**
+     * True if the backend holds no data yet, so stats.yml should be imported before {@link #open}.
+     */
+    boolean isEmpty();
+
+    /**
+     * Opens the backend and loads the server totals into {@code totals}. On an empty backend {@code imported} and
+     * {@code totals} (read from stats.yml by {@link StatsMigrator}) become its initial contents.
+     */
+    void open(Map<UUID, StatsService.PlayerStats> imported, StatsService.PlayerStats totals) throws IOException;
+
+    /**
+     * Reads a player that is not in the {@link StatsService} cache (the cold tier). Returns false if the backend has
+     * no record of the player.
+     */
+    boolean find(UUID id, StatsService.PlayerStats into);
+
+    /**
+     * Like {@link #find} but may do the read off the main thread. Completes with null for unknown players.
+     */
+    default CompletableFuture<StatsService.PlayerStats> findAsync(UUID id) {
+        StatsService.PlayerStats into = new StatsService.PlayerStats();
+        return CompletableFuture.completedFuture(find(id, into) ? into : null);
+    }
+
+    /**
+     * The best {@code limit} players by {@code category} as stored in the backend (copies), used to seed the
+     * {@link Leaderboard}. May complete off the main thread.
+     */
+    CompletableFuture<Map<UUID, StatsService.PlayerStats>> top(Leaderboard.Category category, int limit, int minGames);
+
+    /**
+     * The player left the cache; {@link #find} must return this state from now on (write-back).
+     */
+    void evict(UUID id, StatsService.PlayerStats stats);
+
+    /**
+     * Called after a cashout has been applied to {@code stats} and {@code totals}.
+     */
+    void recordCashout(UUID id, long bet, long payout, StatsService.PlayerStats stats, StatsService.PlayerStats totals);
+
+    /**
+     * Called after a loss has been applied to {@code stats} and {@code totals}.
+     */
+    void recordLoss(UUID id, long bet, StatsService.PlayerStats stats, StatsService.PlayerStats totals);
+
+    /**
+     * Called once a round has settled every bet; backends that batch per round commit here.
+     */
+    default void endRound() {
+    }
+
+    /**
+     * Periodic flush from the stats timer. Must not block on I/O.
+     */
+    void flush();
+
+    /**
+     * Final synchronous flush; the repository is unusable afterwards.
+     */
+    void close();
+}
@@ -0,0 +1,367 @@
+package com.shorecrash.stats;
+
+import com.shorecrash.config.CrashConfig;
+import com.shorecrash.util.Schedulers;
+import io.papermc.paper.threadedregions.scheduler.ScheduledTask;
+import org.bukkit.plugin.java.JavaPlugin;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.EnumSet;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.function.Consumer;
+
+/**
+ * Player and server statistics. Updates happen in memory on the global thread and are handed to a
+ * {@link StatsRepository} chosen by {@code stats.storage}, which persists them off the main thread.
+ * <p>
+ * Players are loaded on demand into a size-bounded LRU cache; evicted entries are written back to the repository
+ * (the cold tier). Server totals stay resident, and {@link RollingStats} keeps the last 30 days of activity apart
+ * from the cache (saved to rolling.dat on close).
+ */
+public class StatsService {
+    private final JavaPlugin plugin;
+    private final Schedulers scheduler;
+    private final int cacheSize;
+    private final LinkedHashMap<UUID, PlayerStats> playerStats;
+    private final Set<UUID> loading = new HashSet<>();
+    private final PlayerStats serverTotals = new PlayerStats();
+    private final StatsRepository repository;
+    private final Leaderboard leaderboard;
+    private final RollingStats rolling = new RollingStats();
+    private final Set<Leaderboard.Category> reseeding = EnumSet.noneOf(Leaderboard.Category.class);
+    private ScheduledTask flushTask;
+
+    public StatsService(JavaPlugin plugin, CrashConfig.StatsSettings settings) {
+        this.plugin = plugin;
+        this.scheduler = new Schedulers(plugin);
+        this.cacheSize = Math.max(16, settings.getCacheSize());
+        this.playerStats = new LinkedHashMap<>(64, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<UUID, PlayerStats> eldest) {
+                if (size() <= cacheSize) {
+                    return false;
+                }
+                repository.evict(eldest.getKey(), eldest.getValue());
+                return true;
+            }
+        };
+        plugin.getDataFolder().mkdirs();
+        long started = System.nanoTime();
+        this.repository = openRepository(settings);
+        plugin.getLogger().info("Stats storage (" + repository.getClass().getSimpleName() + ") ready in "
+                + (System.nanoTime() - started) / 1_000_000L + " ms.");
+        this.leaderboard = new Leaderboard(settings.getLeaderboardSize(), settings.getLeaderboardMinGames());
+        try {
+            rolling.load(rollingFile(), System.currentTimeMillis());
+        } catch (IOException ex) {
+            plugin.getLogger().warning("Failed to load rolling stats, starting empty: " + ex.getMessage());
+        }
+        for (Leaderboard.Category category : Leaderboard.Category.values()) {
+            reseed(category);
+        }
+        startFlushTask(settings.getFlushIntervalTicks());
+    }
+
+    private StatsRepository openRepository(CrashConfig.StatsSettings settings) {
+        File folder = plugin.getDataFolder();
+        File yaml = new File(folder, "stats.yml");
+        StatsRepository repo = switch (settings.getStorage()) {
+            case JOURNAL -> new StatsJournal(plugin.getLogger(), folder, settings.getJournalCompactEvery(), settings.getJournalGroupCommitMillis());
+            case MAPPED -> new MappedStatsStore(plugin.getLogger(), new File(folder, "stats.dat"));
+            case SQLITE -> new SqliteStatsRepository(plugin.getLogger(), new File(folder, "stats.db"));
+            case YAML -> null;
+        };
+        if (repo != null) {
+            Map<UUID, PlayerStats> imported = new HashMap<>();
+            try {
+                StatsMigrator.importIfEmpty(plugin.getLogger(), yaml, repo, imported, serverTotals);
+                repo.open(imported, serverTotals);
+                return repo;
+            } catch (IOException | RuntimeException ex) {
+                plugin.getLogger().severe("Failed to open " + settings.getStorage().name().toLowerCase(Locale.ROOT) + " stats storage, using stats.yml instead: " + ex.getMessage());
+                repo.close();
+                serverTotals.copyFrom(new PlayerStats());
+            }
+        }
+        YamlStatsRepository fallback = new YamlStatsRepository(plugin.getLogger(), yaml, settings.getFlushDirtyThreshold());
+        fallback.open(Map.of(), serverTotals);
+        return fallback;
+    }
+
+    /**
+     * Returns the cached entry for a player taking part in a round, loading it (or starting an empty one) if needed.
+     */
+    public PlayerStats get(UUID id) {
+        PlayerStats cached = playerStats.get(id);
+        if (cached != null) {
+            return cached;
+        }
+        loading.remove(id); // a pending preload would now be stale
+        PlayerStats ps = new PlayerStats();
+        repository.find(id, ps);
+        playerStats.put(id, ps);
+        return ps;
+    }
+
+    /**
+     * Read-only lookup for display. The repository is read off the main thread and {@code then} runs on the global
+     * thread. Known players are cached like {@link #get}; unknown ids get a detached empty entry so arbitrary names
+     * typed into /crash stats do not occupy the cache.
+     */
+    public void lookupAsync(UUID id, Consumer<PlayerStats> then) {
+        PlayerStats cached = playerStats.get(id);
+        if (cached != null) {
+            then.accept(cached);
+            return;
+        }
+        repository.findAsync(id).whenComplete((found, error) -> {
+            if (error != null) {
+                plugin.getLogger().warning("Failed to load stats for " + id + ": " + error.getMessage());
+            }
+            scheduler.global(() -> then.accept(completeLookup(id, found)));
+        });
+    }
+
+    private PlayerStats completeLookup(UUID id, PlayerStats found) {
+        PlayerStats cached = playerStats.get(id);
+        if (cached != null) {
+            return cached; // loaded by a bet or preload in the meantime
+        }
+        if (found == null) {
+            return new PlayerStats();
+        }
+        loading.remove(id);
+        playerStats.put(id, found);
+        return found;
+    }
+
+    /**
+     * Starts loading a player who is about to need stats (e.g. placed a bet) so the round-end update is a cache hit.
+     */
+    public void preload(UUID id) {
+        if (playerStats.containsKey(id) || !loading.add(id)) {
+            return;
+        }
+        repository.findAsync(id).whenComplete((found, error) -> {
+            if (error != null) {
+                plugin.getLogger().warning("Failed to preload stats for " + id + ": " + error.getMessage());
+            }
+            scheduler.global(() -> completePreload(id, found));
+        });
+    }
+
+    private void completePreload(UUID id, PlayerStats found) {
+        if (!loading.remove(id) || playerStats.containsKey(id)) {
+            return; // loaded synchronously in the meantime
+        }
+        if (found != null) {
+            playerStats.put(id, found);
+        }
+    }
+
+    public PlayerStats getTotals() {
+        return serverTotals;
+    }
+
+    public Leaderboard getLeaderboard() {
+        return leaderboard;
+    }
+
+    /**
+     * Totals of {@code id} (or the whole server when null) over the last 24 hours, 7 days or 30 days.
+     */
+    public RollingStats.Totals getWindow(UUID id, RollingStats.Window window) {
+        return rolling.totals(id, window, System.currentTimeMillis());
+    }
+
+    public void recordCashout(UUID id, long betAmount, long payout) {
+        PlayerStats stats = get(id);
+        stats.recordCashout(betAmount, payout);
+        serverTotals.recordCashout(betAmount, payout);
+        repository.recordCashout(id, betAmount, payout, stats, serverTotals);
+        rolling.recordCashout(id, betAmount, payout, System.currentTimeMillis());
+        updateLeaderboard(id, stats);
+    }
+
+    public void recordLoss(UUID id, long betAmount) {
+        PlayerStats stats = get(id);
+        stats.recordLoss(betAmount);
+        serverTotals.recordLoss(betAmount);
+        repository.recordLoss(id, betAmount, stats, serverTotals);
+        rolling.recordLoss(id, betAmount, System.currentTimeMillis());
+        updateLeaderboard(id, stats);
+    }
+
+    /**
+     * Applies a whole round in one pass; the leaderboard is checked for reseeding once at the end instead of after
+     * every bet.
+     */
+    public void recordRound(RoundResults results) {
+        long now = System.currentTimeMillis();
+        for (int i = 0; i < results.size(); i++) {
+            UUID id = results.id(i);
+            long betAmount = results.stake(i);
+            PlayerStats stats = get(id);
+            if (results.isWin(i)) {
+                long payout = results.payout(i);
+                stats.recordCashout(betAmount, payout);
+                serverTotals.recordCashout(betAmount, payout);
+                repository.recordCashout(id, betAmount, payout, stats, serverTotals);
+                rolling.recordCashout(id, betAmount, payout, now);
+            } else {
+                stats.recordLoss(betAmount);
+                serverTotals.recordLoss(betAmount);
+                repository.recordLoss(id, betAmount, stats, serverTotals);
+                rolling.recordLoss(id, betAmount, now);
+            }
+            leaderboard.update(id, stats);
+        }
+        reseedIfNeeded();
+    }
+
+    private void updateLeaderboard(UUID id, PlayerStats stats) {
+        leaderboard.update(id, stats);
+        reseedIfNeeded();
+    }
+
+    private void reseedIfNeeded() {
+        for (Leaderboard.Category category : Leaderboard.Category.values()) {
+            if (leaderboard.needsReseed(category)) {
+                reseed(category);
+            }
+        }
+    }
+
+    /**
+     * Rebuilds one leaderboard board from the repository's best players, overlaid with the newer cached state.
+     */
+    private void reseed(Leaderboard.Category category) {
+        if (!reseeding.add(category)) {
+            return;
+        }
+        int limit = leaderboard.getCapacity();
+        repository.top(category, limit, leaderboard.getMinGames()).whenComplete((found, error) -> scheduler.global(() -> {
+            reseeding.remove(category);
+            if (error != null) {
+                plugin.getLogger().warning("Failed to load the " + category.name().toLowerCase(Locale.ROOT) + " leaderboard: " + error.getMessage());
+                return;
+            }
+            Map<UUID, PlayerStats> candidates = new HashMap<>(found);
+            candidates.putAll(playerStats);
+            leaderboard.reseed(category, candidates, found.size() < limit);
+        }));
+    }
+
+    /**
+     * Called once a round has settled every bet so batching backends can commit the round in one go.
+     */
+    public void endRound() {
+        repository.endRound();
+    }
+
+    private void startFlushTask(long interval) {
+        if (interval <= 0) {
+            return;
+        }
+        flushTask = scheduler.globalTimer(() -> {
+            repository.flush();
+            rolling.expire(System.currentTimeMillis());
+        }, interval, interval);
+    }
+
+    /**
+     * Final synchronous flush. Call on disable or before replacing the service.
+     */
+    public void close() {
+        if (flushTask != null) {
+            flushTask.cancel();
+            flushTask = null;
+        }
+        repository.close();
+        try {
+            rolling.save(rollingFile());
+        } catch (IOException ex) {
+            plugin.getLogger().warning("Failed to save rolling stats: " + ex.getMessage());
+        }
+    }
+
+    private File rollingFile() {
+        return new File(plugin.getDataFolder(), "rolling.dat");
+    }
+
+    /**
+     * Lifetime totals of one player or the server. Money totals are {@link com.shorecrash.util.Money} minor units.
+     */
+    public static class PlayerStats {
+        private long wins;
+        private long losses;
+        private long totalGames;
+        private long net;
+        private long profit;
+        private long loss;
+        private long totalBet;
+        private long totalWon;
+
+        public void recordCashout(long betAmount, long payout) {
+            wins++;
+            totalGames++;
+            totalBet += betAmount;
+            totalWon += payout;
+            long delta = payout - betAmount;
+            net += delta;
+            if (delta >= 0) {
+                profit += delta;
+            }
+        }
+
+        public void recordLoss(long betAmount) {
+            losses++;
+            totalGames++;
+            totalBet += betAmount;
+            loss += betAmount;
+            net -= betAmount;
+        }
+
+        public PlayerStats copy() {
+            PlayerStats out = new PlayerStats();
+            out.copyFrom(this);
+            return out;
+        }
+
+        public void copyFrom(PlayerStats other) {
+            wins = other.wins;
+            losses = other.losses;
+            totalGames = other.totalGames;
+            net = other.net;
+            profit = other.profit;
+            loss = other.loss;
+            totalBet = other.totalBet;
+            totalWon = other.totalWon;
+        }
+
+        public long getWins() { return wins; }
+        public long getLosses() { return losses; }
+        public long getTotalGames() { return totalGames; }
+        public long getNet() { return net; }
+        public long getProfit() { return profit; }
+        public long getLoss() { return loss; }
+        public long getTotalBet() { return totalBet; }
+        public long getTotalWon() { return totalWon; }
+
+        public void setWins(long wins) { this.wins = wins; }
+        public void setLosses(long losses) { this.losses = losses; }
+        public void setTotalGames(long totalGames) { this.totalGames = totalGames; }
+        public void setNet(long net) { this.net = net; }
+        public void setProfit(long profit) { this.profit = profit; }
+        public void setLoss(long loss) { this.loss = loss; }
+        public void setTotalBet(long totalBet) { this.totalBet = totalBet; }
+        public void setTotalWon(long totalWon) { this.totalWon = totalWon; }
+    }
+}
@@ -0,0 +1,279 @@
+package com.shorecrash.stats;
+
+import com.shorecrash.util.Money;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * Purpose-built reader for the block-style stats.yml that {@link YamlStatsRepository} writes. The players section is
+ * split at player boundaries and parsed in parallel on the common fork-join pool, without building a YAML node tree
+ * or doing per-field path lookups.
+ * <p>
+ * Anything outside that layout (flow style, anchors, multi-line values) makes {@link #read} return false so the
+ * caller can fall back to the Bukkit YAML parser.
+ */
+final class StatsYamlReader {
+    private static final int SPLIT_CHARS = 256 * 1024;
+
+    private StatsYamlReader() {}
+
+    private static final class UnsupportedLayout extends RuntimeException {
+        private static final long serialVersionUID = 1L;
+
+        UnsupportedLayout(String message) {
+            super(message, null, false, false);
+        }
+    }
+
+    /**
+     * @return false if the file is not in the expected layout; {@code players}/{@code totals} are untouched then
+     */
+    static boolean read(File file, Map<UUID, StatsService.PlayerStats> players, StatsService.PlayerStats totals) throws IOException {
+        String text = new String(Files.readAllBytes(file.toPath()), StandardCharsets.UTF_8);
+        try {
+            parse(text, players, totals);
+            return true;
+        } catch (UnsupportedLayout | IllegalArgumentException ex) {
+            return false;
+        }
+    }
+
+    private static void parse(String text, Map<UUID, StatsService.PlayerStats> players, StatsService.PlayerStats totals) {
+        int playersStart = -1;
+        int playersEnd = -1;
+        int serverStart = -1;
+        int serverEnd = -1;
+        // Locate the top-level sections; only lines starting in column 0 are inspected here
+        for (int pos = 0; pos < text.length(); pos = nextLine(text, pos)) {
+            char c = text.charAt(pos);
+            if (c == ' ' || c == '\n' || c == '\r' || c == '#') {
+                continue;
+            }
+            if (playersStart >= 0 && playersEnd < 0) {
+                playersEnd = pos;
+            }
+            if (serverStart >= 0 && serverEnd < 0) {
+                serverEnd = pos;
+            }
+            String key = topLevelKey(text, pos);
+            if (key.equals("players")) {
+                playersStart = nextLine(text, pos);
+            } else if (key.equals("server")) {
+                serverStart = nextLine(text, pos);
+            }
+        }
+        if (playersStart >= 0 && playersEnd < 0) {
+            playersEnd = text.length();
+        }
+        if (serverStart >= 0 && serverEnd < 0) {
+            serverEnd = text.length();
+        }
+        Map<UUID, StatsService.PlayerStats> parsed = playersStart < 0 ? Map.of()
+                : ForkJoinPool.commonPool().invoke(new ParseTask(text, playersStart, playersEnd, playerIndent(text, playersStart, playersEnd)));
+        StatsService.PlayerStats server = new StatsService.PlayerStats();
+        if (serverStart >= 0) {
+            parseFields(text, serverStart, serverEnd, 0, server);
+        }
+        players.putAll(parsed);
+        totals.copyFrom(server);
+    }
+
+    private static final class ParseTask extends RecursiveTask<Map<UUID, StatsService.PlayerStats>> {
+        private static final long serialVersionUID = 1L;
+
+        private final String text;
+        private final int from;
+        private final int to;
+        private final int indent;
+
+        ParseTask(String text, int from, int to, int indent) {
+            this.text = text;
+            this.from = from;
+            this.to = to;
+            this.indent = indent;
+        }
+
+        @Override
+        protected Map<UUID, StatsService.PlayerStats> compute() {
+            if (to - from > SPLIT_CHARS) {
+                int mid = playerBoundary(text, from + (to - from) / 2, to, indent);
+                if (mid > from && mid < to) {
+                    ParseTask left = new ParseTask(text, from, mid, indent);
+                    left.fork();
+                    Map<UUID, StatsService.PlayerStats> right = new ParseTask(text, mid, to, indent).compute();
+                    Map<UUID, StatsService.PlayerStats> merged = left.join();
+                    merged.putAll(right);
+                    return merged;
+                }
+            }
+            return parsePlayers(text, from, to, indent);
+        }
+    }
+
+    private static Map<UUID, StatsService.PlayerStats> parsePlayers(String text, int from, int to, int indent) {
+        Map<UUID, StatsService.PlayerStats> out = new HashMap<>(Math.max(16, (to - from) / 100));
+        StatsService.PlayerStats current = null;
+        boolean skipping = false;
+        for (int pos = from; pos < to; pos = nextLine(text, pos)) {
+            int lineEnd = lineEnd(text, pos);
+            int start = skipSpaces(text, pos, lineEnd);
+            if (start == lineEnd || text.charAt(start) == '#') {
+                continue;
+            }
+            int lineIndent = start - pos;
+            if (lineIndent == indent) {
+                int colon = text.lastIndexOf(':', lineEnd - 1);
+                if (colon < start || skipSpaces(text, colon + 1, lineEnd) != lineEnd) {
+                    throw new UnsupportedLayout("player entry without block");
+                }
+                try {
+                    UUID id = UUID.fromString(unquote(text, start, colon));
+                    current = new StatsService.PlayerStats();
+                    out.put(id, current);
+                    skipping = false;
+                } catch (IllegalArgumentException ex) {
+                    skipping = true; // same as the Bukkit path: ignore keys that are not uuids
+                }
+            } else if (lineIndent > indent && (current != null || skipping)) {
+                if (!skipping) {
+                    setField(text, start, lineEnd, current);
+                }
+            } else {
+                throw new UnsupportedLayout("unexpected indentation");
+            }
+        }
+        return out;
+    }
+
+    private static void parseFields(String text, int from, int to, int minIndent, StatsService.PlayerStats into) {
+        for (int pos = from; pos < to; pos = nextLine(text, pos)) {
+            int lineEnd = lineEnd(text, pos);
+            int start = skipSpaces(text, pos, lineEnd);
+            if (start == lineEnd || text.charAt(start) == '#') {
+                continue;
+            }
+            if (start - pos <= minIndent) {
+                throw new UnsupportedLayout("unexpected indentation");
+            }
+            setField(text, start, lineEnd, into);
+        }
+    }
+
+    private static void setField(String text, int start, int lineEnd, StatsService.PlayerStats into) {
+        int colon = text.indexOf(':', start);
+        if (colon < 0 || colon >= lineEnd) {
+            throw new UnsupportedLayout("field without value");
+        }
+        String key = text.substring(start, colon);
+        String value = unquote(text, skipSpaces(text, colon + 1, lineEnd), trimEnd(text, colon + 1, lineEnd));
+        switch (key) {
+            case "wins" -> into.setWins(parseLong(value));
+            case "losses" -> into.setLosses(parseLong(value));
+            case "totalGames" -> into.setTotalGames(parseLong(value));
+            case "net" -> into.setNet(parseMoney(value));
+            case "profit" -> into.setProfit(parseMoney(value));
+            case "loss" -> into.setLoss(parseMoney(value));
+            case "totalBet" -> into.setTotalBet(parseMoney(value));
+            case "totalWon" -> into.setTotalWon(parseMoney(value));
+            default -> {
+                // unknown keys are ignored like the Bukkit path does
+            }
+        }
+    }
+
+    // Exact for the plain decimals written by YamlStatsRepository; anything else goes through double like Bukkit would
+    private static long parseMoney(String value) {
+        Long minor = Money.parse(value);
+        return minor != null ? minor : Money.fromDouble(Double.parseDouble(value));
+    }
+
+    private static long parseLong(String value) {
+        try {
+            return Long.parseLong(value);
+        } catch (NumberFormatException ex) {
+            return (long) Double.parseDouble(value);
+        }
+    }
+
+    private static int playerIndent(String text, int from, int to) {
+        for (int pos = from; pos < to; pos = nextLine(text, pos)) {
+            int lineEnd = lineEnd(text, pos);
+            int start = skipSpaces(text, pos, lineEnd);
+            if (start != lineEnd && text.charAt(start) != '#') {
+                return start - pos;
+            }
+        }
+        return 2;
+    }
+
+    /**
+     * First line at or after {@code pos} that starts a player entry, or {@code to} if there is none.
+     */
+    private static int playerBoundary(String text, int pos, int to, int indent) {
+        int line = text.lastIndexOf('\n', pos - 1) + 1;
+        for (; line < to; line = nextLine(text, line)) {
+            int lineEnd = lineEnd(text, line);
+            int start = skipSpaces(text, line, lineEnd);
+            if (start - line == indent && start < lineEnd && text.charAt(start) != '#') {
+                return line;
+            }
+        }
+        return to;
+    }
+
+    private static String topLevelKey(String text, int pos) {
+        int lineEnd = lineEnd(text, pos);
+        int colon = text.indexOf(':', pos);
+        if (colon < 0 || colon >= lineEnd) {
+            throw new UnsupportedLayout("top-level line without key");
+        }
+        int value = skipSpaces(text, colon + 1, lineEnd);
+        if (value != lineEnd && !text.startsWith("{}", value)) {
+            throw new UnsupportedLayout("top-level value on the key line");
+        }
+        return unquote(text, pos, colon);
+    }
+
+    private static String unquote(String text, int start, int end) {
+        if (end - start >= 2) {
+            char first = text.charAt(start);
+            if ((first == '\'' || first == '"') && text.charAt(end - 1) == first) {
+                return text.substring(start + 1, end - 1);
+            }
+        }
+        return text.substring(start, end);
+    }
+
+    private static int nextLine(String text, int pos) {
+        int nl = text.indexOf('\n', pos);
+        return nl < 0 ? text.length() : nl + 1;
+    }
+
+    private static int lineEnd(String text, int pos) {
+        int nl = text.indexOf('\n', pos);
+        int end = nl < 0 ? text.length() : nl;
+        return end > pos && text.charAt(end - 1) == '\r' ? end - 1 : end;
+    }
+
+    private static int skipSpaces(String text, int pos, int end) {
+        while (pos < end && text.charAt(pos) == ' ') {
+            pos++;
+        }
+        return pos;
+    }
+
+    private static int trimEnd(String text, int start, int end) {
+        while (end > start && text.charAt(end - 1) == ' ') {
+            end--;
+        }
+        return end;
+    }
+}
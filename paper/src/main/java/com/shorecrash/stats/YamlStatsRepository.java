@@ -0,0 +1,234 @@
+package com.shorecrash.stats;
+
+import com.shorecrash.util.Money;
+import org.bukkit.configuration.file.FileConfiguration;
+import org.bukkit.configuration.file.YamlConfiguration;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Logger;
+
+/**
+ * stats.yml backend. The file format needs the full data set for every rewrite, so the cold tier is an in-memory map
+ * holding one copy of every player; {@code cache-size} only bounds the hot tier here, use one of the other storage
+ * modes to bound the heap. On flush the changed players are copied into the cold map and the whole file is rewritten
+ * from it by a background writer (write-behind). Amounts stay in currency units in the file so it remains readable
+ * and scale independent.
+ */
+public class YamlStatsRepository implements StatsRepository {
+    private final Logger logger;
+    private final File file;
+    private final int dirtyThreshold;
+    // Written on the global thread, read by the writer; values are never mutated once stored
+    private final Map<UUID, StatsService.PlayerStats> cold = new ConcurrentHashMap<>();
+    private final Map<UUID, StatsService.PlayerStats> dirty = new HashMap<>();
+    private StatsService.PlayerStats totals;
+    private boolean totalsDirty;
+    private final ExecutorService writer;
+
+    public YamlStatsRepository(Logger logger, File file, int dirtyThreshold) {
+        this.logger = logger;
+        this.file = file;
+        this.dirtyThreshold = Math.max(1, dirtyThreshold);
+        this.writer = Executors.newSingleThreadExecutor(r -> {
+            Thread thread = new Thread(r, "ShoreCrash-StatsWriter");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return !file.exists();
+    }
+
+    @Override
+    public void open(Map<UUID, StatsService.PlayerStats> imported, StatsService.PlayerStats totals) {
+        if (file.exists()) {
+            long started = System.nanoTime();
+            readFile(file, cold, totals);
+            logger.info("Loaded " + cold.size() + " players from " + file.getName() + " in " + (System.nanoTime() - started) / 1_000_000L + " ms.");
+        }
+        this.totals = totals;
+    }
+
+    @Override
+    public boolean find(UUID id, StatsService.PlayerStats into) {
+        StatsService.PlayerStats found = cold.get(id);
+        if (found == null) {
+            return false;
+        }
+        into.copyFrom(found);
+        return true;
+    }
+
+    @Override
+    public CompletableFuture<Map<UUID, StatsService.PlayerStats>> top(Leaderboard.Category category, int limit, int minGames) {
+        try {
+            return CompletableFuture.supplyAsync(() -> {
+                Leaderboard.TopCollector collector = new Leaderboard.TopCollector(category, limit, minGames);
+                cold.forEach(collector::offer); // players changed since their last flush are cached and laid over this
+                return collector.players();
+            }, writer);
+        } catch (RejectedExecutionException ex) {
+            return CompletableFuture.completedFuture(Map.of());
+        }
+    }
+
+    @Override
+    public void evict(UUID id, StatsService.PlayerStats stats) {
+        cold.put(id, stats);
+    }
+
+    @Override
+    public void recordCashout(UUID id, long bet, long payout, StatsService.PlayerStats stats, StatsService.PlayerStats totals) {
+        markDirty(id, stats);
+    }
+
+    @Override
+    public void recordLoss(UUID id, long bet, StatsService.PlayerStats stats, StatsService.PlayerStats totals) {
+        markDirty(id, stats);
+    }
+
+    private void markDirty(UUID id, StatsService.PlayerStats stats) {
+        dirty.put(id, stats);
+        totalsDirty = true;
+        if (dirty.size() >= dirtyThreshold) {
+            flush();
+        }
+    }
+
+    /**
+     * Copies changed players into the cold map and hands the rewrite to the background writer. Cost on the calling
+     * thread is proportional to the number of dirty players, not the size of the stats file.
+     */
+    @Override
+    public void flush() {
+        if (dirty.isEmpty() && !totalsDirty) {
+            return;
+        }
+        for (Map.Entry<UUID, StatsService.PlayerStats> entry : dirty.entrySet()) {
+            cold.put(entry.getKey(), entry.getValue().copy());
+        }
+        int changed = dirty.size();
+        StatsService.PlayerStats totalsCopy = totals.copy();
+        dirty.clear();
+        totalsDirty = false;
+        try {
+            writer.execute(() -> write(totalsCopy));
+        } catch (RejectedExecutionException ex) {
+            logger.warning("Stats writer already stopped; changes for " + changed + " players not saved.");
+        }
+    }
+
+    @Override
+    public void close() {
+        if (totals != null) {
+            flush();
+        }
+        writer.shutdown();
+        try {
+            if (!writer.awaitTermination(10, TimeUnit.SECONDS)) {
+                logger.warning("Timed out waiting for stats.yml to be written.");
+            }
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    // Runs on the writer thread only; a player flushed while this iterates lands in the next rewrite at the latest
+    private void write(StatsService.PlayerStats totals) {
+        FileConfiguration cfg = new YamlConfiguration();
+        for (Map.Entry<UUID, StatsService.PlayerStats> entry : cold.entrySet()) {
+            String base = "players." + entry.getKey();
+            StatsService.PlayerStats ps = entry.getValue();
+            cfg.set(base + ".wins", ps.getWins());
+            cfg.set(base + ".losses", ps.getLosses());
+            cfg.set(base + ".totalGames", ps.getTotalGames());
+            cfg.set(base + ".net", Money.toDouble(ps.getNet()));
+            cfg.set(base + ".profit", Money.toDouble(ps.getProfit()));
+            cfg.set(base + ".loss", Money.toDouble(ps.getLoss()));
+            cfg.set(base + ".totalBet", Money.toDouble(ps.getTotalBet()));
+            cfg.set(base + ".totalWon", Money.toDouble(ps.getTotalWon()));
+        }
+        // Server totals stored under special key
+        cfg.set("server.wins", totals.getWins());
+        cfg.set("server.losses", totals.getLosses());
+        cfg.set("server.totalGames", totals.getTotalGames());
+        cfg.set("server.net", Money.toDouble(totals.getNet()));
+        cfg.set("server.profit", Money.toDouble(totals.getProfit()));
+        cfg.set("server.loss", Money.toDouble(totals.getLoss()));
+        cfg.set("server.totalBet", Money.toDouble(totals.getTotalBet()));
+        cfg.set("server.totalWon", Money.toDouble(totals.getTotalWon()));
+        File tmp = new File(file.getParentFile(), file.getName() + ".tmp");
+        try {
+            cfg.save(tmp);
+            try {
+                Files.move(tmp.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } catch (AtomicMoveNotSupportedException ex) {
+                Files.move(tmp.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING);
+            }
+        } catch (IOException e) {
+            logger.warning("Failed to save stats.yml: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Parses a stats.yml file into the given map and totals, using {@link StatsYamlReader} when the file has the
+     * layout this class writes and the Bukkit YAML parser otherwise.
+     */
+    public static void readFile(File file, Map<UUID, StatsService.PlayerStats> players, StatsService.PlayerStats totals) {
+        try {
+            if (StatsYamlReader.read(file, players, totals)) {
+                return;
+            }
+        } catch (IOException ignored) {
+            // let the Bukkit parser report the problem the usual way
+        }
+        readWithBukkit(file, players, totals);
+    }
+
+    private static void readWithBukkit(File file, Map<UUID, StatsService.PlayerStats> players, StatsService.PlayerStats totals) {
+        FileConfiguration cfg = YamlConfiguration.loadConfiguration(file);
+        if (cfg.getConfigurationSection("players") != null) {
+            for (String key : cfg.getConfigurationSection("players").getKeys(false)) {
+                UUID id;
+                try {
+                    id = UUID.fromString(key);
+                } catch (IllegalArgumentException ex) {
+                    continue;
+                }
+                StatsService.PlayerStats ps = new StatsService.PlayerStats();
+                ps.setWins(cfg.getLong("players." + key + ".wins", 0));
+                ps.setLosses(cfg.getLong("players." + key + ".losses", 0));
+                ps.setTotalGames(cfg.getLong("players." + key + ".totalGames", 0));
+                ps.setNet(Money.fromDouble(cfg.getDouble("players." + key + ".net", 0)));
+                ps.setProfit(Money.fromDouble(cfg.getDouble("players." + key + ".profit", 0)));
+                ps.setLoss(Money.fromDouble(cfg.getDouble("players." + key + ".loss", 0)));
+                ps.setTotalBet(Money.fromDouble(cfg.getDouble("players." + key + ".totalBet", 0)));
+                ps.setTotalWon(Money.fromDouble(cfg.getDouble("players." + key + ".totalWon", 0)));
+                players.put(id, ps);
+            }
+        }
+        totals.setWins(cfg.getLong("server.wins", 0));
+        totals.setLosses(cfg.getLong("server.losses", 0));
+        totals.setTotalGames(cfg.getLong("server.totalGames", 0));
+        totals.setNet(Money.fromDouble(cfg.getDouble("server.net", 0)));
+        totals.setProfit(Money.fromDouble(cfg.getDouble("server.profit", 0)));
+        totals.setLoss(Money.fromDouble(cfg.getDouble("server.loss", 0)));
+        totals.setTotalBet(Money.fromDouble(cfg.getDouble("server.totalBet", 0)));
+        totals.setTotalWon(Money.fromDouble(cfg.getDouble("server.totalWon", 0)));
+    }
+}
@@ -0,0 +1,76 @@
+package com.shorecrash.util;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.Locale;
+
+public final class AmountParser {
+    private AmountParser() {}
+
+    public static Double parse(String input) {
+        if (input == null || input.isEmpty()) {
+            return null;
+        }
+        String value = input.trim().toLowerCase(Locale.US);
+        double multiplier = 1.0;
+        char last = value.charAt(value.length() - 1);
+        if (last == 'k' || last == 'm' || last == 'b') {
+            value = value.substring(0, value.length() - 1);
+            if (last == 'k') multiplier = 1_000d;
+            if (last == 'm') multiplier = 1_000_000d;
+            if (last == 'b') multiplier = 1_000_000_000d;
+        }
+        try {
+            double base = Double.parseDouble(value);
+            return base * multiplier;
+        } catch (NumberFormatException ex) {
+            return null;
+        }
+    }
+
+    /**
+     * Parses a money amount (with optional k/m/b suffix) exactly into minor units, see {@link Money}.
+     */
+    public static Long parseMoney(String input) {
+        if (input == null || input.isBlank()) {
+            return null;
+        }
+        String value = input.trim().toLowerCase(Locale.US);
+        int exponent = 0;
+        char last = value.charAt(value.length() - 1);
+        if (last == 'k' || last == 'm' || last == 'b') {
+            value = value.substring(0, value.length() - 1);
+            if (last == 'k') exponent = 3;
+            if (last == 'm') exponent = 6;
+            if (last == 'b') exponent = 9;
+        }
+        try {
+            return new BigDecimal(value).scaleByPowerOfTen(exponent).setScale(Money.getScale(), RoundingMode.DOWN)
+                    .unscaledValue().longValueExact();
+        } catch (NumberFormatException | ArithmeticException ex) {
+            return null;
+        }
+    }
+
+    /**
+     * Parses a multiplier such as {@code @2.5} or {@code 2.5x} into hundredths, truncated like cashouts (see
+     * {@link Money#multiplierUnits}).
+     */
+    public static Long parseMultiplierUnits(String input) {
+        if (input == null || input.isBlank()) {
+            return null;
+        }
+        String value = input.trim().toLowerCase(Locale.US);
+        if (value.startsWith("@")) {
+            value = value.substring(1);
+        }
+        if (value.endsWith("x")) {
+            value = value.substring(0, value.length() - 1);
+        }
+        try {
+            return new BigDecimal(value).movePointRight(2).setScale(0, RoundingMode.DOWN).longValueExact();
+        } catch (NumberFormatException | ArithmeticException ex) {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,98 @@
+package com.shorecrash.util;
+
+import io.papermc.paper.threadedregions.scheduler.ScheduledTask;
+import org.bukkit.Bukkit;
+import org.bukkit.Location;
+import org.bukkit.entity.Entity;
+import org.bukkit.plugin.Plugin;
+
+/**
+ * Paper's region-aware schedulers behind one small API, so the same code runs on Paper and Folia.
+ * <p>
+ * Game state lives on the global region thread (the main thread on Paper); anything else that wants to touch it
+ * hands the work over with {@link #global}. Entities are only touched from the thread that owns them: spawns go
+ * through {@link #at} for the spawn location and updates through {@link #on} for the entity. Each method runs the
+ * task inline when the calling thread already owns the target, which on Paper is always the case from the main
+ * thread, so nothing is delayed there.
+ */
+public final class Schedulers {
+    private static final boolean FOLIA = classExists("io.papermc.paper.threadedregions.RegionizedServer");
+
+    private final Plugin plugin;
+
+    public Schedulers(Plugin plugin) {
+        this.plugin = plugin;
+    }
+
+    public static boolean isFolia() {
+        return FOLIA;
+    }
+
+    /**
+     * Runs {@code task} on the global region thread; dropped once the plugin is disabled.
+     */
+    public void global(Runnable task) {
+        if (Bukkit.isGlobalTickThread()) {
+            task.run();
+        } else if (plugin.isEnabled()) {
+            Bukkit.getGlobalRegionScheduler().execute(plugin, task);
+        }
+    }
+
+    public ScheduledTask globalLater(Runnable task, long delayTicks) {
+        return Bukkit.getGlobalRegionScheduler().runDelayed(plugin, t -> task.run(), Math.max(1L, delayTicks));
+    }
+
+    public ScheduledTask globalTimer(Runnable task, long delayTicks, long periodTicks) {
+        return Bukkit.getGlobalRegionScheduler().runAtFixedRate(plugin, t -> task.run(), Math.max(1L, delayTicks), Math.max(1L, periodTicks));
+    }
+
+    /**
+     * Runs {@code task} on Paper's async pool, for blocking work (profile lookups, storage reads) that must not stall
+     * a tick thread; dropped once the plugin is disabled.
+     */
+    public void async(Runnable task) {
+        if (plugin.isEnabled()) {
+            Bukkit.getAsyncScheduler().runNow(plugin, t -> task.run());
+        }
+    }
+
+    /**
+     * Runs {@code task} on the thread owning {@code location}, e.g. to spawn entities there.
+     */
+    public void at(Location location, Runnable task) {
+        if (Bukkit.isOwnedByCurrentRegion(location)) {
+            task.run();
+        } else if (plugin.isEnabled()) {
+            Bukkit.getRegionScheduler().execute(plugin, location, task);
+        }
+    }
+
+    public ScheduledTask atLater(Location location, Runnable task, long delayTicks) {
+        return Bukkit.getRegionScheduler().runDelayed(plugin, location, t -> task.run(), Math.max(1L, delayTicks));
+    }
+
+    /**
+     * Runs {@code task} on the thread owning {@code entity}; skipped if the entity has been removed by then.
+     */
+    public void on(Entity entity, Runnable task) {
+        if (Bukkit.isOwnedByCurrentRegion(entity)) {
+            task.run();
+        } else if (plugin.isEnabled()) {
+            entity.getScheduler().execute(plugin, task, null, 1L);
+        }
+    }
+
+    public void onLater(Entity entity, Runnable task, long delayTicks) {
+        entity.getScheduler().execute(plugin, task, null, Math.max(1L, delayTicks));
+    }
+
+    private static boolean classExists(String name) {
+        try {
+            Class.forName(name);
+            return true;
+        } catch (ClassNotFoundException ex) {
+            return false;
+        }
+    }
+}